@@ -2,40 +2,109 @@ package org.bromano.cplusplusparser;
 import org.bromano.cplusplusparser.parser.Parser;
 import org.bromano.cplusplusparser.parser.ParserException;
 import org.bromano.cplusplusparser.parser.SimpleParser;
+import org.bromano.cplusplusparser.preprocessor.PreprocessedTokens;
+import org.bromano.cplusplusparser.preprocessor.Preprocessor;
+import org.bromano.cplusplusparser.preprocessor.PreprocessorException;
 import org.bromano.cplusplusparser.scanner.*;
 import org.bromano.cplusplusparser.scanner.Scanner;
 
 import java.io.*;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 public class Main {
 
     public static void main(String[] args) {
+        boolean stream = false;
+        boolean pipeline = false;
+        boolean parallel = false;
+        boolean recover = false;
+        boolean preprocess = false;
+        List<String> includePaths = new ArrayList<>();
+        List<String> defines = new ArrayList<>();
+        String filePath = null;
+
+        for(String arg : args) {
+            if(arg.equals("--stream")) {
+                stream = true;
+            } else if(arg.equals("--pipeline")) {
+                pipeline = true;
+            } else if(arg.equals("--parallel")) {
+                parallel = true;
+            } else if(arg.equals("--recover")) {
+                recover = true;
+            } else if(arg.equals("--preprocess")) {
+                preprocess = true;
+            } else if(arg.startsWith("-I")) {
+                includePaths.add(arg.substring(2));
+            } else if(arg.startsWith("-D")) {
+                defines.add(arg.substring(2));
+            } else {
+                filePath = arg;
+            }
+        }
 
+        CharSequence text = filePath != null ? loadFile(filePath) : readFromSystemIn();
 
-        if(args.length >= 1) {
-            run(loadFile(args[0]));
+        if(preprocess) {
+            Preprocessor preprocessor = new Preprocessor();
+            for(String includePath : includePaths) {
+                preprocessor.addIncludePath(Paths.get(includePath));
+            }
+            for(String define : defines) {
+                int equals = define.indexOf('=');
+                preprocessor.define(equals < 0 ? define : define.substring(0, equals), equals < 0 ? "1" : define.substring(equals + 1));
+            }
+
+            runPreprocessed(preprocessor, text, filePath);
             return;
         }
 
-        run(readFromSystemIn());
+        if(pipeline) {
+            runPipelined(text);
+            return;
+        }
+
+        if(stream) {
+            runStreaming(text);
+            return;
+        }
+
+        run(text, parallel, recover);
+    }
+
+    public static void run(CharSequence text) {
+        run(text, false, false);
     }
 
-    public static void run(String text) {
+    //With recover, malformed input is printed as Error tokens followed by the diagnostics, and the file is still parsed
+    public static void run(CharSequence text, boolean parallel, boolean recover) {
         Scanner scanner = new SimpleScanner(text);
+        scanner.setRecoverErrors(recover);
+        ParallelScanner parallelScanner = null;
+        if(parallel) {
+            parallelScanner = new ParallelScanner(() -> {
+                Scanner chunkScanner = new SimpleScanner();
+                chunkScanner.setRecoverErrors(recover);
+                return chunkScanner;
+            }, ForkJoinPool.commonPool(), ParallelScanner.DEFAULT_CHUNK_SIZE);
+        }
 
-        List<Token> tokens = null;
+        TokenBuffer tokens = null;
         boolean success = false;
 
         try {
-            tokens = scanner.lex();
+            tokens = parallel ? parallelScanner.lex(text) : scanner.lexToBuffer();
             success = true;
         } catch (ScannerException exception) {
-            if(scanner.getTokens() == null) {
+            TokenBuffer partialTokens = parallel ? parallelScanner.getTokenBuffer() : scanner.getTokenBuffer();
+            if(partialTokens == null) {
                 return;
             }
 
-            scanner.getTokens().forEach(System.out::println);
+            printTokens(partialTokens);
 
             exception.printStackTrace(System.out);
         }
@@ -46,6 +115,10 @@ public class Main {
 
         printTokens(tokens);
 
+        for(ScannerException diagnostic : parallel ? parallelScanner.getDiagnostics() : scanner.getDiagnostics()) {
+            System.out.println("Error: " + diagnostic.getLocalizedMessage());
+        }
+
         Parser parser = new SimpleParser(tokens);
 
         try {
@@ -61,20 +134,60 @@ public class Main {
         }
     }
 
-    public static void printStack(Stack<String> stack) {
-        while(!stack.isEmpty()) System.out.println(stack.pop());
+    //Runs #include/#define/#if first, -I and -D work like they do for a compiler
+    public static void runPreprocessed(Preprocessor preprocessor, CharSequence text, String filePath) {
+        PreprocessedTokens tokens;
+        try {
+            tokens = preprocessor.preprocess(text, filePath != null ? Paths.get(filePath) : null);
+        } catch (PreprocessorException exception) {
+            System.out.println("Error: " + exception.getLocalizedMessage());
+            return;
+        }
+
+        for(int i = 0; i < tokens.size(); i++) {
+            System.out.println(tokens.getToken(i));
+        }
+
+        parseAndPrint(tokens);
+    }
+
+    //Parses while scanning, tokens are not printed since they are discarded once the parser moves past them
+    public static void runStreaming(CharSequence text) {
+        parseAndPrint(new TokenWindow(new SimpleScanner(), text));
     }
 
-    public static String readFromSystemIn() {
-        java.util.Scanner systemInScanner = new java.util.Scanner(System.in);
+    //Scans on a second thread while the parser consumes the tokens, output is the same as --stream
+    public static void runPipelined(CharSequence text) {
+        try (PipelinedTokenSource tokens = new PipelinedTokenSource(new SimpleScanner(), text)) {
+            parseAndPrint(tokens);
+        }
+    }
+
+    private static void parseAndPrint(TokenSource tokens) {
+        Parser parser = new SimpleParser(tokens);
 
-        StringBuilder inputStringBuilder = new StringBuilder();
-        while(systemInScanner.hasNext()) {
-            inputStringBuilder.append(systemInScanner.nextLine());
+        try {
+            Stack<String> parseTree = parser.parse();
+            printStack(parseTree);
+        } catch (ParserException exception) {
+            printStack(parser.getTree());
+            exception.printStackTrace(System.out);
+        } catch (UncheckedScannerException exception) {
+            printStack(parser.getTree());
+            exception.getCause().printStackTrace(System.out);
         }
+    }
 
-        return inputStringBuilder.toString();
+    public static void printStack(Stack<String> stack) {
+        while(!stack.isEmpty()) System.out.println(stack.pop());
+    }
 
+    public static CharSequence readFromSystemIn() {
+        try {
+            return SourceLoader.readStream(System.in);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
     }
 
     public static void printTokens(List<Token> tokens) {
@@ -87,24 +200,26 @@ public class Main {
         }
     }
 
+    public static void printTokens(TokenBuffer tokens) {
+        if(tokens == null) {
+            return;
+        }
 
-    //Reads in file preserving special characters
-    public static String loadFile(String filePath) {
+        for(int i = 0; i < tokens.size(); i++) {
+            System.out.println(tokens.getSharedToken(i));
+        }
+    }
 
-        StringBuilder sb = new StringBuilder(512);
+
+    //Reads in file preserving special characters
+    public static CharSequence loadFile(String filePath) {
         try {
-            BufferedInputStream stream = new BufferedInputStream(new FileInputStream(filePath));
-            Reader r = new InputStreamReader(stream, "UTF-8");
-            int c;
-            while ((c = r.read()) != -1) {
-                sb.append((char) c);
-            }
-        } catch (FileNotFoundException e) {
+            return SourceLoader.loadUtf8File(Paths.get(filePath));
+        } catch (NoSuchFileException e) {
             System.out.println("Input file not found");
             throw new RuntimeException(e);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
-        return sb.toString();
     }
 }
@@ -0,0 +1,17 @@
+package org.bromano.cplusplusparser.parser;
+
+/*
+    Thrown by SimpleParser when an alternative fails. Nearly every failure is caught by tryParse
+    and only means "try the next alternative", so one stackless instance is shared instead of
+    creating an exception per failure. The parser keeps what the failure was, and parse() turns
+    the one that reaches the top into a real ParserException.
+*/
+final class Backtrack extends ParserException {
+    private static final long serialVersionUID = 1L;
+
+    static final Backtrack INSTANCE = new Backtrack();
+
+    private Backtrack() {
+        super("Backtrack", false);
+    }
+}
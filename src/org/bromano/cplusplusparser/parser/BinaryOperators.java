@@ -0,0 +1,61 @@
+package org.bromano.cplusplusparser.parser;
+
+import org.bromano.cplusplusparser.scanner.TokenKind;
+
+/*
+    The binary operators of logical-or-expression down to pm-expression, by precedence. A higher
+    precedence binds tighter, and every level is left associative. Each level keeps the node type
+    of the grammar rule it replaces.
+*/
+final class BinaryOperators {
+    static final int LOWEST = 1;
+
+    private static final NodeType[] NODES = {
+            null,
+            NodeType.LOGICAL_OR_EXPRESSION,
+            NodeType.LOGICAL_AND_EXPRESSION,
+            NodeType.INCLUSIVE_OR_EXPRESSION,
+            NodeType.EXCLUSIVE_OR_EXPRESSION,
+            NodeType.AND_EXPRESSION,
+            NodeType.EQUALITY_EXPRESSION,
+            NodeType.RELATIONAL_EXPRESSION,
+            NodeType.SHIFT_EXPRESSION,
+            NodeType.ADDITIVE_EXPRESSION,
+            NodeType.MULTIPLICATIVE_EXPRESSION,
+            NodeType.PM_EXPRESSION
+    };
+
+    //Precedence by TokenKind ordinal, 0 for tokens that are not binary operators
+    private static final byte[] PRECEDENCE = new byte[TokenKind.values().length];
+
+    static {
+        add(1, TokenKind.BarBar);
+        add(2, TokenKind.AmpersandAmpersand);
+        add(3, TokenKind.Bar);
+        add(4, TokenKind.Caret);
+        add(5, TokenKind.Ampersand);
+        add(6, TokenKind.EqualsEquals, TokenKind.ExclamationEquals);
+        add(7, TokenKind.LessThan, TokenKind.GreaterThan, TokenKind.LessThanEquals, TokenKind.GreaterThanEquals);
+        add(8, TokenKind.LessThanLessThan, TokenKind.GreaterThanGreaterThan);
+        add(9, TokenKind.Plus, TokenKind.Minus);
+        add(10, TokenKind.Asterisk, TokenKind.Slash, TokenKind.Percent);
+        add(11, TokenKind.DotAsterisk, TokenKind.MinusGreaterThanAsterisk);
+    }
+
+    private BinaryOperators() {
+    }
+
+    static int getPrecedence(TokenKind kind) {
+        return PRECEDENCE[kind.ordinal()];
+    }
+
+    static NodeType getNode(int precedence) {
+        return NODES[precedence];
+    }
+
+    private static void add(int precedence, TokenKind... kinds) {
+        for(TokenKind kind : kinds) {
+            PRECEDENCE[kind.ordinal()] = (byte) precedence;
+        }
+    }
+}
@@ -0,0 +1,412 @@
+package org.bromano.cplusplusparser.parser;
+
+import org.bromano.cplusplusparser.scanner.TokenKind;
+
+/*
+    FIRST sets of the grammar rules SimpleParser looks ahead for: the kinds of token each rule can
+    start with, as bitmasks indexed by TokenKind ordinal. Each set is built once from the sets of the
+    rules it can start with, in the same way the check* predicates used to call each other, so a
+    predicate is one bit test instead of a chain of calls scanning TokenKind arrays.
+
+    A set has to be declared after the sets it is built from.
+*/
+final class FirstSets {
+    private static final int WORDS = (TokenKind.values().length + 63) / 64;
+
+    static final long[] USER_DEFINED_LITERAL = of(
+            TokenKind.UserDefinedIntegerLiteral,
+            TokenKind.UserDefinedFloatingLiteral,
+            TokenKind.UserDefinedStringLiteral,
+            TokenKind.UserDefinedCharacterLiteral
+    );
+    static final long[] LITERAL = union(USER_DEFINED_LITERAL, of(
+            TokenKind.IntegerLiteral,
+            TokenKind.CharacterLiteral,
+            TokenKind.FloatingLiteral,
+            TokenKind.StringLiteral,
+            TokenKind.BooleanLiteral,
+            TokenKind.PointerLiteral
+    ));
+    static final long[] OPERATOR_FUNCTION_ID = of(TokenKind.OperatorKeyword);
+    static final long[] CONVERSION_FUNCTION_ID = of(TokenKind.OperatorKeyword);
+    static final long[] LITERAL_OPERATOR_ID = of(TokenKind.OperatorKeyword);
+    static final long[] TEMPLATE_NAME = of(TokenKind.Identifier);
+    static final long[] SIMPLE_TEMPLATE_ID = TEMPLATE_NAME;
+    static final long[] TEMPLATE_ID = union(SIMPLE_TEMPLATE_ID, OPERATOR_FUNCTION_ID, LITERAL_OPERATOR_ID);
+    static final long[] UNQUALIFIED_ID = union(
+            OPERATOR_FUNCTION_ID,
+            CONVERSION_FUNCTION_ID,
+            LITERAL_OPERATOR_ID,
+            TEMPLATE_ID,
+            of(
+                    TokenKind.Identifier,
+                    TokenKind.Tilde
+            ));
+    static final long[] QUALIFIED_ID = of(TokenKind.ColonColon, TokenKind.Identifier);
+    static final long[] ID_EXPRESSION = union(UNQUALIFIED_ID, QUALIFIED_ID);
+    static final long[] LAMBDA_INTRODUCER = of(TokenKind.OpenBracket);
+    static final long[] LAMBDA_EXPRESSION = LAMBDA_INTRODUCER;
+    static final long[] PRIMARY_EXPRESSION = union(LITERAL, ID_EXPRESSION, LAMBDA_EXPRESSION, of(
+            TokenKind.ThisKeyword,
+            TokenKind.OpenParen
+    ));
+    static final long[] CLASS_NAME = union(SIMPLE_TEMPLATE_ID, of(TokenKind.Identifier));
+    static final long[] ENUM_NAME = of(TokenKind.Identifier);
+    static final long[] TYPEDEF_NAME = of(TokenKind.Identifier);
+    static final long[] TYPE_NAME = union(CLASS_NAME, ENUM_NAME, TYPEDEF_NAME, SIMPLE_TEMPLATE_ID);
+    static final long[] ORIGINAL_NAMESPACE_NAME = of(TokenKind.Identifier);
+    static final long[] NAMESPACE_ALIAS = of(TokenKind.Identifier);
+    static final long[] NAMESPACE_NAME = union(ORIGINAL_NAMESPACE_NAME, NAMESPACE_ALIAS);
+    static final long[] DECL_TYPE_SPECIFIER = of(TokenKind.DecltypeKeyword);
+    static final long[] NESTED_NAME_SPECIFIER = union(
+            TYPE_NAME,
+            NAMESPACE_NAME,
+            DECL_TYPE_SPECIFIER,
+            SIMPLE_TEMPLATE_ID,
+            of(
+                    TokenKind.Identifier,
+                    TokenKind.TemplateKeyword
+            ));
+    static final long[] SIMPLE_TYPE_SPECIFIER = union(NESTED_NAME_SPECIFIER, TYPE_NAME, DECL_TYPE_SPECIFIER, of(
+            TokenKind.ColonColon,
+            TokenKind.CharKeyword,
+            TokenKind.Char16TKeyword,
+            TokenKind.Char32TKeyword,
+            TokenKind.WcharTKeyword,
+            TokenKind.ShortKeyword,
+            TokenKind.IntKeyword,
+            TokenKind.LongKeyword,
+            TokenKind.SignedKeyword,
+            TokenKind.UnsignedKeyword,
+            TokenKind.FloatKeyword,
+            TokenKind.DoubleKeyword,
+            TokenKind.VoidKeyword,
+            TokenKind.AutoKeyword,
+            TokenKind.BoolKeyword
+    ));
+    static final long[] TYPENAME_SPECIFIER = of(TokenKind.TypenameKeyword);
+    static final long[] POSTFIX_EXPRESSION = union(
+            PRIMARY_EXPRESSION,
+            SIMPLE_TYPE_SPECIFIER,
+            TYPENAME_SPECIFIER,
+            of(
+                    TokenKind.DynamicCastKeyword,
+                    TokenKind.StaticCastKeyword,
+                    TokenKind.ReinterpretCastKeyword,
+                    TokenKind.ConstCastKeyword,
+                    TokenKind.TypeidKeyword
+            ));
+    static final long[] NOEXCEPT_EXPRESSION = of(TokenKind.NoexceptKeyword);
+    static final long[] NEW_EXPRESSION = of(TokenKind.ColonColon, TokenKind.NewKeyword);
+    static final long[] UNARY_OPERATOR = of(
+            TokenKind.Plus,
+            TokenKind.Minus,
+            TokenKind.Asterisk,
+            TokenKind.Ampersand,
+            TokenKind.Exclamation,
+            TokenKind.Tilde
+    );
+    static final long[] DELETE_EXPRESSION = of(TokenKind.ColonColon, TokenKind.DeleteKeyword);
+    static final long[] UNARY_EXPRESSION = union(
+            POSTFIX_EXPRESSION,
+            NOEXCEPT_EXPRESSION,
+            NEW_EXPRESSION,
+            UNARY_OPERATOR,
+            DELETE_EXPRESSION,
+            of(
+                    TokenKind.PlusPlus,
+                    TokenKind.MinusMinus,
+                    TokenKind.AlignofKeyword,
+                    TokenKind.SizeofKeyword
+            ));
+    static final long[] CAST_EXPRESSION = UNARY_EXPRESSION;
+    static final long[] PM_EXPRESSION = CAST_EXPRESSION;
+    static final long[] MULTIPLCATIVE_EXPRESSION = PM_EXPRESSION;
+    static final long[] ADDITIVE_EXPRESSION = MULTIPLCATIVE_EXPRESSION;
+    static final long[] SHIFT_EXPRESSION = ADDITIVE_EXPRESSION;
+    static final long[] RELATIONAL_EXPRESSION = SHIFT_EXPRESSION;
+    static final long[] EQUALITY_EXPRESSION = RELATIONAL_EXPRESSION;
+    static final long[] AND_EXPRESSION = EQUALITY_EXPRESSION;
+    static final long[] EXCLUSIVE_OR_EXPRESSION = AND_EXPRESSION;
+    static final long[] INCLUSIVE_OR_EXPRESSION = EXCLUSIVE_OR_EXPRESSION;
+    static final long[] LOGICAL_AND_EXPRESSION = INCLUSIVE_OR_EXPRESSION;
+    static final long[] LOGICAL_OR_EXPRESSION = LOGICAL_AND_EXPRESSION;
+    static final long[] CONDITIONAL_EXPRESSION = LOGICAL_OR_EXPRESSION;
+    static final long[] ASSIGNMENT_OPERATOR = of(
+            TokenKind.Equals,
+            TokenKind.AsteriskEquals,
+            TokenKind.SlashEquals,
+            TokenKind.PercentEquals,
+            TokenKind.PlusEquals,
+            TokenKind.MinusEquals,
+            TokenKind.GreaterThanGreaterThanEquals,
+            TokenKind.LessThanLessThanEquals,
+            TokenKind.AmpersandEquals,
+            TokenKind.CaretEquals,
+            TokenKind.BarEquals
+    );
+    static final long[] THROW_EXPRESSION = of(TokenKind.ThrowKeyword);
+    static final long[] ASSIGNMENT_EXPRESSION = union(
+            CONDITIONAL_EXPRESSION,
+            LOGICAL_OR_EXPRESSION,
+            THROW_EXPRESSION
+    );
+    static final long[] BRACED_INIT_LIST = of(TokenKind.OpenBrace);
+    static final long[] INITIALIZER_CLAUSE = union(ASSIGNMENT_EXPRESSION, BRACED_INIT_LIST);
+    static final long[] INITIALIZER_LIST = INITIALIZER_CLAUSE;
+    static final long[] PTR_OPERATOR = union(NESTED_NAME_SPECIFIER, of(
+            TokenKind.Asterisk,
+            TokenKind.Ampersand,
+            TokenKind.AmpersandAmpersand,
+            TokenKind.ColonColon
+    ));
+    static final long[] NO_PTR_NEW_DECLARATOR = of(TokenKind.OpenBracket);
+    static final long[] NEW_DECLARATOR = union(PTR_OPERATOR, NO_PTR_NEW_DECLARATOR);
+    static final long[] CLASS_KEY = of(
+            TokenKind.ClassKeyword,
+            TokenKind.StructKeyword,
+            TokenKind.UnionKeyword
+    );
+    static final long[] ELABORATED_TYPE_SPECIFIER = union(CLASS_KEY, of(TokenKind.EnumKeyword));
+    static final long[] CLASS_HEAD = CLASS_KEY;
+    static final long[] CLASS_SPECIFIER = CLASS_HEAD;
+    static final long[] ENUM_KEY = of(TokenKind.EnumKeyword);
+    static final long[] ENUM_HEAD = ENUM_KEY;
+    static final long[] ENUM_SPECIFIER = ENUM_HEAD;
+    static final long[] EXPRESSION = ASSIGNMENT_EXPRESSION;
+    static final long[] CONSTANT_EXPRESSION = CONDITIONAL_EXPRESSION;
+    static final long[] EMPTY_DECLARATION = of(TokenKind.Semicolon);
+    static final long[] ALIGNMENT_SPECIFIER = of(TokenKind.AlignasKeyword);
+    static final long[] ATTRIBUTE_SPECIFIER = union(ALIGNMENT_SPECIFIER, of(TokenKind.OpenBracket));
+    static final long[] ATTRIBUTE_SPECIFIER_SEQUENCE = ATTRIBUTE_SPECIFIER;
+    static final long[] STORAGE_CLASS_SPECIFIER = of(
+            TokenKind.AutoKeyword,
+            TokenKind.RegisterKeyword,
+            TokenKind.StaticKeyword,
+            TokenKind.ThreadLocalKeyword,
+            TokenKind.ExternKeyword,
+            TokenKind.MutableKeyword
+    );
+    static final long[] CV_QUALIFIER = of(TokenKind.ConstKeyword, TokenKind.VolatileKeyword);
+    static final long[] TRAILING_TYPE_SPECIFIER = union(
+            SIMPLE_TYPE_SPECIFIER,
+            ELABORATED_TYPE_SPECIFIER,
+            TYPENAME_SPECIFIER,
+            CV_QUALIFIER
+    );
+    static final long[] TYPE_SPECIFIER = union(TRAILING_TYPE_SPECIFIER, CLASS_SPECIFIER, ENUM_SPECIFIER);
+    static final long[] FUNCTION_SPECIFIER = of(
+            TokenKind.InlineKeyword,
+            TokenKind.VirtualKeyword,
+            TokenKind.ExplicitKeyword
+    );
+    static final long[] DECL_SPECIFIER = union(STORAGE_CLASS_SPECIFIER, TYPE_SPECIFIER, FUNCTION_SPECIFIER, of(
+            TokenKind.FriendKeyword,
+            TokenKind.TypedefKeyword,
+            TokenKind.ConstexprKeyword
+    ));
+    static final long[] DECL_SPECIFIER_SEQUENCE = DECL_SPECIFIER;
+    static final long[] DECLARATOR_ID = union(ID_EXPRESSION, NESTED_NAME_SPECIFIER, CLASS_NAME, of(
+            TokenKind.DotDotDot,
+            TokenKind.ColonColon
+    ));
+    static final long[] NOPTR_DECLARATOR = union(DECLARATOR_ID, of(TokenKind.OpenParen));
+    static final long[] DECLARATOR = union(PTR_OPERATOR, NOPTR_DECLARATOR);
+    static final long[] FUNCTION_DEFINITION = union(
+            ATTRIBUTE_SPECIFIER_SEQUENCE,
+            DECL_SPECIFIER_SEQUENCE,
+            DECLARATOR
+    );
+    static final long[] INIT_DECLARATOR = DECLARATOR;
+    static final long[] INIT_DECLARATOR_LIST = INIT_DECLARATOR;
+    static final long[] SIMPLE_DECLARATION = union(
+            ATTRIBUTE_SPECIFIER_SEQUENCE,
+            DECL_SPECIFIER_SEQUENCE,
+            INIT_DECLARATOR_LIST,
+            of(
+                    TokenKind.Semicolon
+            ));
+    static final long[] ASM_DEFINITION = of(TokenKind.AsmKeyword);
+    static final long[] NAMESPACE_ALIAS_DEFINITION = of(TokenKind.NamespaceKeyword);
+    static final long[] USING_DECLARATION = of(TokenKind.UsingKeyword);
+    static final long[] USING_DIRECTIVE = union(ATTRIBUTE_SPECIFIER_SEQUENCE, of(TokenKind.UsingKeyword));
+    static final long[] STATIC_ASSERT_DECLARATION = of(TokenKind.StaticAssertKeyword);
+    static final long[] ALIAS_DECLARATION = of(TokenKind.UsingKeyword);
+    static final long[] OPAQUE_ENUM_DECLARATION = ENUM_KEY;
+    static final long[] BLOCK_DECLARATION = union(
+            SIMPLE_DECLARATION,
+            ASM_DEFINITION,
+            NAMESPACE_ALIAS_DEFINITION,
+            USING_DECLARATION,
+            USING_DIRECTIVE,
+            STATIC_ASSERT_DECLARATION,
+            ALIAS_DECLARATION,
+            OPAQUE_ENUM_DECLARATION
+    );
+    static final long[] TEMPLATE_DECLARATION = of(TokenKind.TemplateKeyword);
+    static final long[] EXPLICIT_INSTANTIATION = of(TokenKind.ExternKeyword, TokenKind.TemplateKeyword);
+    static final long[] EXPLICIT_SPECIALIZATION = of(TokenKind.TemplateKeyword);
+    static final long[] LINKAGE_SPECIFICATION = of(TokenKind.ExternKeyword);
+    static final long[] ORIGINAL_NAMESPACE_DEFINITION = of(
+            TokenKind.InlineKeyword,
+            TokenKind.NamespaceKeyword
+    );
+    static final long[] EXTENSION_NAMESPACE_DEFINITION = of(
+            TokenKind.InlineKeyword,
+            TokenKind.NamespaceKeyword
+    );
+    static final long[] NAMED_NAMESPACE_DEFINITION = union(
+            ORIGINAL_NAMESPACE_DEFINITION,
+            EXTENSION_NAMESPACE_DEFINITION
+    );
+    static final long[] UNNAMED_NAMESPACE_DEFINITION = of(
+            TokenKind.InlineKeyword,
+            TokenKind.NamespaceKeyword
+    );
+    static final long[] NAMESPACE_DEFINITION = union(NAMED_NAMESPACE_DEFINITION, UNNAMED_NAMESPACE_DEFINITION);
+    static final long[] ATTRIBUTE_DECLARATION = ATTRIBUTE_SPECIFIER_SEQUENCE;
+    static final long[] DECLARATION = union(
+            EMPTY_DECLARATION,
+            FUNCTION_DEFINITION,
+            BLOCK_DECLARATION,
+            TEMPLATE_DECLARATION,
+            EXPLICIT_INSTANTIATION,
+            EXPLICIT_SPECIALIZATION,
+            LINKAGE_SPECIFICATION,
+            NAMESPACE_DEFINITION,
+            ATTRIBUTE_DECLARATION
+    );
+    static final long[] DECLARATION_SEQUENCE = DECLARATION;
+    static final long[] TRANSLATION_UNIT = DECLARATION_SEQUENCE;
+    static final long[] ATTRIBUTE = of(TokenKind.Identifier);
+    static final long[] ATTRIBUTE_LIST = ATTRIBUTE;
+    static final long[] ATTRIBUTE_NAMESPACE = of(TokenKind.Identifier);
+    static final long[] ATTRIBUTE_SCOPED_TOKEN = ATTRIBUTE_NAMESPACE;
+    static final long[] ATTRIBUTE_TOKEN = union(ATTRIBUTE_SCOPED_TOKEN, of(TokenKind.Identifier));
+    static final long[] ATTRIBUTE_ARGUMENT_CLAUSE = of(TokenKind.OpenParen);
+    static final long[] TYPE_SPECIFIER_SEQUENCE = TYPE_SPECIFIER;
+    static final long[] TYPE_ID = TYPE_SPECIFIER_SEQUENCE;
+    static final long[] TEMPLATE_ARGUMENT_LIST = union(CONSTANT_EXPRESSION, TYPE_ID, ID_EXPRESSION);
+    static final long[] NO_PTR_ABSTRACT_DECLARATOR = of(TokenKind.OpenParen, TokenKind.OpenBracket);
+    static final long[] PTR_ABSTRACT_DECLARATOR = union(NO_PTR_ABSTRACT_DECLARATOR, PTR_OPERATOR);
+    static final long[] PARAMETERS_AND_QUALIFIERS = of(TokenKind.OpenParen);
+    static final long[] ABSTRACT_DECLARATOR = union(
+            PTR_ABSTRACT_DECLARATOR,
+            NO_PTR_ABSTRACT_DECLARATOR,
+            PARAMETERS_AND_QUALIFIERS,
+            of(
+                    TokenKind.DotDotDot
+            ));
+    static final long[] NEW_INITIALIZER = union(BRACED_INIT_LIST, of(TokenKind.OpenParen));
+    static final long[] EXPRESSION_LIST = INITIALIZER_LIST;
+    static final long[] CONVERSION_DECLARATOR = PTR_OPERATOR;
+    static final long[] LAMBDA_DECLARATOR = of(TokenKind.OpenParen);
+    static final long[] CAPTURE_DEFAULT = of(TokenKind.Ampersand, TokenKind.Equals);
+    static final long[] CAPTURE = of(TokenKind.Ampersand, TokenKind.Identifier, TokenKind.ThisKeyword);
+    static final long[] CAPTURE_LIST = CAPTURE;
+    static final long[] LAMBDA_CAPTURE = union(CAPTURE_DEFAULT, CAPTURE_LIST);
+    static final long[] DYNAMIC_EXCEPTION_SPECIFICATION = of(TokenKind.ThrowKeyword);
+    static final long[] NOEXCEPTION_SPECIFICATION = of(TokenKind.NoexceptKeyword);
+    static final long[] EXCEPTION_SPECIFICATION = union(
+            DYNAMIC_EXCEPTION_SPECIFICATION,
+            NOEXCEPTION_SPECIFICATION
+    );
+    static final long[] TRAILING_RETURN_TYPE = of(TokenKind.MinusGreaterThan);
+    static final long[] TRAILING_TYPE_SPECIFIER_SEQUENCE = TRAILING_TYPE_SPECIFIER;
+    static final long[] CV_QUALIFIER_SEQUENCE = CV_QUALIFIER;
+    static final long[] REF_QUALIFIER = of(TokenKind.Ampersand, TokenKind.AmpersandAmpersand);
+    static final long[] PARAMETER_DECLARATION = union(ATTRIBUTE_SPECIFIER_SEQUENCE, DECL_SPECIFIER_SEQUENCE);
+    static final long[] PARAMETER_DECLARATION_LIST = PARAMETER_DECLARATION;
+    static final long[] ENUMERATOR = of(TokenKind.Identifier);
+    static final long[] ENUMERATOR_DEFINITION = ENUMERATOR;
+    static final long[] ENUMERATOR_LIST = ENUMERATOR_DEFINITION;
+    static final long[] ACCESS_SPECIFIER = of(
+            TokenKind.PrivateKeyword,
+            TokenKind.ProtectedKeyword,
+            TokenKind.PublicKeyword
+    );
+    static final long[] CLASS_HEAD_NAME = union(CLASS_NAME, NESTED_NAME_SPECIFIER);
+    static final long[] CLASS_OR_DECLTYPE = union(DECL_TYPE_SPECIFIER, NESTED_NAME_SPECIFIER, CLASS_NAME, of(
+            TokenKind.ColonColon
+    ));
+    static final long[] BASE_TYPE_SPECIFIER = CLASS_OR_DECLTYPE;
+    static final long[] VIRT_SPECIFIER = of(TokenKind.FinalKeyword, TokenKind.ExplicitKeyword);
+    static final long[] VIRT_SPECIFIER_SEQUENCE = VIRT_SPECIFIER;
+    static final long[] BRACE_OR_EQUAL_INITIALIZER = union(BRACED_INIT_LIST, of(TokenKind.Equals));
+    static final long[] PURE_SPECIFIER = of(TokenKind.Equals);
+    static final long[] MEMBER_DECLARATOR = union(
+            DECLARATOR,
+            VIRT_SPECIFIER_SEQUENCE,
+            BRACE_OR_EQUAL_INITIALIZER,
+            PURE_SPECIFIER,
+            of(
+                    TokenKind.Identifier,
+                    TokenKind.Colon
+            ));
+    static final long[] MEMBER_DECLARATOR_LIST = MEMBER_DECLARATOR;
+    static final long[] FUNCTION_TRY_BLOCK = of(TokenKind.TryKeyword);
+    static final long[] HANDLER = of(TokenKind.CatchKeyword);
+    static final long[] HANDLER_SEQUENCE = HANDLER;
+    static final long[] CTOR_INITIALIZER = of(TokenKind.Colon);
+    static final long[] LABELED_STATEMENT = union(ATTRIBUTE_SPECIFIER_SEQUENCE, of(
+            TokenKind.Identifier,
+            TokenKind.CaseKeyword,
+            TokenKind.DefaultKeyword
+    ));
+    static final long[] EXPRESSION_STATEMENT = union(EXPRESSION, of(TokenKind.Semicolon));
+    static final long[] DECLARATION_STATEMENT = BLOCK_DECLARATION;
+    static final long[] SELECTION_STATEMENT = of(TokenKind.IfKeyword, TokenKind.SwitchKeyword);
+    static final long[] ITERATION_STATEMENT = of(
+            TokenKind.WhileKeyword,
+            TokenKind.DoKeyword,
+            TokenKind.ForKeyword
+    );
+    static final long[] JUMP_STATEMENT = of(
+            TokenKind.ReturnKeyword,
+            TokenKind.BreakKeyword,
+            TokenKind.GotoKeyword,
+            TokenKind.ContinueKeyword
+    );
+    static final long[] TRY_BLOCK = of(TokenKind.TryKeyword);
+    static final long[] STATEMENT = union(
+            LABELED_STATEMENT,
+            EXPRESSION_STATEMENT,
+            DECLARATION_STATEMENT,
+            SELECTION_STATEMENT,
+            ITERATION_STATEMENT,
+            JUMP_STATEMENT,
+            TRY_BLOCK,
+            ATTRIBUTE_SPECIFIER_SEQUENCE
+    );
+    static final long[] STATEMENT_SEQUENCE = STATEMENT;
+    static final long[] COMPOUND_STATEMENT = of(TokenKind.OpenBrace);
+    static final long[] CONDITION = union(ATTRIBUTE_SPECIFIER_SEQUENCE, EXPRESSION, DECL_SPECIFIER_SEQUENCE);
+    static final long[] ENUM_BASE = of(TokenKind.Colon);
+    static final long[] INITIALIZER = union(BRACE_OR_EQUAL_INITIALIZER, of(TokenKind.OpenParen));
+
+    private FirstSets() {
+    }
+
+    static boolean contains(long[] set, TokenKind kind) {
+        int ordinal = kind.ordinal();
+        return (set[ordinal >>> 6] & (1L << ordinal)) != 0;
+    }
+
+    private static long[] of(TokenKind... kinds) {
+        long[] set = new long[WORDS];
+        for(TokenKind kind : kinds) {
+            set[kind.ordinal() >>> 6] |= 1L << kind.ordinal();
+        }
+        return set;
+    }
+
+    private static long[] union(long[]... sets) {
+        long[] union = new long[WORDS];
+        for(long[] set : sets) {
+            for(int i = 0; i < WORDS; i++) {
+                union[i] |= set[i];
+            }
+        }
+        return union;
+    }
+}
@@ -1,6 +1,7 @@
 package org.bromano.cplusplusparser.parser;
 
 import org.bromano.cplusplusparser.scanner.Token;
+import org.bromano.cplusplusparser.scanner.TokenSource;
 
 import java.util.List;
 import java.util.Stack;
@@ -8,5 +9,6 @@ import java.util.Stack;
 public interface Parser {
     Stack<String> getTree();
     void setTokens(List<Token> tokens);
+    void setTokens(TokenSource tokens);
     Stack<String> parse() throws ParserException;
 }
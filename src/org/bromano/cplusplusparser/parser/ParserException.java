@@ -1,7 +1,47 @@
 package org.bromano.cplusplusparser.parser;
 
+import org.bromano.cplusplusparser.scanner.LineMap;
+
 public class ParserException extends Exception {
+    private final int offset;
+    private final LineMap lineMap;
+
     public ParserException(String message) {
+        this(message, -1, null);
+    }
+
+    public ParserException(String message, int offset, LineMap lineMap) {
         super(message);
+        this.offset = offset;
+        this.lineMap = lineMap;
+    }
+
+    //For failures that are always caught, these carry no message position or stack trace
+    protected ParserException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+        this.offset = -1;
+        this.lineMap = null;
+    }
+
+    public int getOffset() {
+        return this.offset;
+    }
+
+    public int getLine() {
+        return this.lineMap == null || this.offset < 0 ? -1 : this.lineMap.getLine(this.offset);
+    }
+
+    public int getColumn() {
+        return this.lineMap == null || this.offset < 0 ? -1 : this.lineMap.getColumn(this.offset);
+    }
+
+    //NOTE: Line and column are only resolved when the exception is rendered
+    @Override
+    public String getLocalizedMessage() {
+        if(this.lineMap == null || this.offset < 0) {
+            return this.getMessage();
+        }
+
+        return this.getMessage() + " (line " + this.getLine() + ", column " + this.getColumn() + ")";
     }
 }
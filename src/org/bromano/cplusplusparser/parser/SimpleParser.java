@@ -1,7 +1,9 @@
 package org.bromano.cplusplusparser.parser;
 
 import org.bromano.cplusplusparser.scanner.Token;
+import org.bromano.cplusplusparser.scanner.TokenBuffer;
 import org.bromano.cplusplusparser.scanner.TokenKind;
+import org.bromano.cplusplusparser.scanner.TokenSource;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -12,19 +14,33 @@ import static org.bromano.cplusplusparser.parser.NodeType.ENUMERATOR_DEFINITION;
 import static org.bromano.cplusplusparser.parser.NodeType.PARAMETER_DECLARATION;
 
 public class SimpleParser implements Parser {
-    protected List<Token> tokens;
+    protected TokenSource tokens;
      Stack<String> tree;
 
     protected Stack<Integer> savedTreePos;
 
     protected int pos;
-    protected int end;
     protected Stack<Integer> savedPos;
 
+    private static final int RULE_COUNT = NodeType.values().length;
+
+    //Results of memoized rules keyed by rule and start position, null unless memoizing
+    protected MemoTable memo;
+
+    //The last failure, only turned into a ParserException if it reaches parse()
+    protected int failurePos;
+    protected String failureMessage;
+    protected TokenKind failureKind;
+    protected TokenKind[] failureKinds;
+
     public SimpleParser(List<Token> tokens) {
         this.setTokens(tokens);
     }
 
+    public SimpleParser(TokenSource tokens) {
+        this.setTokens(tokens);
+    }
+
     public SimpleParser() {
         this.setTokens(new ArrayList<>());
     }
@@ -34,18 +50,40 @@ public class SimpleParser implements Parser {
     }
 
     public void setTokens(List<Token> tokens) {
+        this.setTokens(TokenBuffer.fromTokens(this.filterEOFToken(tokens)));
+    }
+
+    public void setTokens(TokenSource tokens) {
         this.tree = new Stack<>();
         this.savedTreePos= new Stack<>();
         this.savedPos = new Stack<>();
-        this.tokens = this.filterEOFToken(tokens);
-        this.end = this.tokens.size();
+        this.tokens = tokens;
         this.pos = 0;
+        if(this.memo != null) {
+            this.memo.clear();
+        }
+    }
+
+    /*
+        Remembers the outcome of the rules that backtracking re-enters, so each runs at most once per
+        token position. Nested parentheses, casts and declarators otherwise cost exponential time.
+
+        NOTE: A replayed failure pushes no nodes, so after a failed parse getTree() can lack the partial
+        nodes of rules that failed again at a position they had failed at before.
+    */
+    public void setMemoize(boolean memoize) {
+        this.memo = memoize ? new MemoTable() : null;
     }
 
     protected List<Token> filterEOFToken(List<Token> tokens) {
         return tokens.stream().filter(token -> token.kind != TokenKind.EndOfFile).collect(Collectors.toList());
     }
 
+    //NOTE: The token source reads EndOfFile past the last token
+    protected boolean isAtEnd(int index) {
+        return this.tokens.getKind(index) == TokenKind.EndOfFile;
+    }
+
     //NOTE: For testing purposes
     protected void printTree() {
         Stack<String> stack = this.reverseStack(this.tree);
@@ -69,14 +107,22 @@ public class SimpleParser implements Parser {
 
     protected void savePos() {
         this.savedPos.push(this.pos);
+        this.tokens.mark(this.pos);
     }
 
     protected void unsavePos() {
         this.savedPos.pop();
+        this.tokens.unmark();
     }
 
     protected void resetPos() {
         this.pos = this.savedPos.pop();
+        this.tokens.unmark();
+    }
+
+    protected void advance() {
+        this.pos++;
+        this.tokens.release(this.pos);
     }
 
     protected void saveTreePos() {
@@ -95,15 +141,11 @@ public class SimpleParser implements Parser {
     }
 
     protected boolean check(TokenKind kind) {
-        return this.pos < this.end && this.tokens.get(this.pos).kind == kind;
+        return this.tokens.getKind(this.pos) == kind;
     }
 
     protected boolean check(TokenKind[] kinds) {
-        if (this.pos >= this.end) {
-            return false;
-        }
-
-        TokenKind currTokenKind = this.tokens.get(pos).kind;
+        TokenKind currTokenKind = this.tokens.getKind(pos);
         for (TokenKind kind : kinds) {
             if (currTokenKind == kind) {
                 return true;
@@ -113,8 +155,74 @@ public class SimpleParser implements Parser {
         return false;
     }
 
+    protected boolean check(long[] first) {
+        return FirstSets.contains(first, this.tokens.getKind(this.pos));
+    }
+
     protected boolean check(TokenKind kind, int lookahead) {
-        return this.pos + lookahead < this.end && this.tokens.get(this.pos + lookahead).kind == kind;
+        return this.tokens.getKind(this.pos + lookahead) == kind;
+    }
+
+    protected ParserException createException(String message) {
+        return this.createException(message, this.pos);
+    }
+
+    //Points the exception at the token, or at the end of the last token when out of tokens
+    protected ParserException createException(String message, int index) {
+        int offset = 0;
+        if(!this.isAtEnd(index)) {
+            offset = this.tokens.getStart(index);
+        } else if(index > 0) {
+            offset = this.tokens.getEnd(index - 1);
+        }
+
+        return new ParserException(message, offset, this.tokens.getLineMap());
+    }
+
+    /*
+        Records why the current alternative failed and returns the shared Backtrack to throw.
+        The message is only built by parse(), for the failure that is not caught.
+    */
+    protected ParserException fail(String message) {
+        return this.fail(this.pos, message, null, null);
+    }
+
+    protected ParserException fail(TokenKind kind) {
+        return this.fail(this.pos, null, kind, null);
+    }
+
+    protected ParserException fail(TokenKind[] kinds) {
+        return this.fail(this.pos, null, null, kinds);
+    }
+
+    private ParserException fail(int index, String message, TokenKind kind, TokenKind[] kinds) {
+        this.failurePos = index;
+        this.failureMessage = message;
+        this.failureKind = kind;
+        this.failureKinds = kinds;
+        return Backtrack.INSTANCE;
+    }
+
+    protected String getFailureMessage() {
+        if(this.failureKind != null) {
+            return "Expected: " + this.failureKind.name();
+        } else if(this.failureKinds == null) {
+            return this.failureMessage;
+        }
+
+        StringBuilder errorMessageBuilder = new StringBuilder();
+        errorMessageBuilder.append("Expected one of following: ");
+
+        if (this.failureKinds.length >= 1) {
+            errorMessageBuilder.append(this.failureKinds[0]);
+        }
+
+        for (int i = 1; i < this.failureKinds.length; i++) {
+            errorMessageBuilder.append(", ");
+            errorMessageBuilder.append(this.failureKinds[i]);
+        }
+
+        return errorMessageBuilder.toString();
     }
 
     protected String createNode(int depth, String text) {
@@ -127,13 +235,14 @@ public class SimpleParser implements Parser {
 
     }
 
-    protected void addTreeNode(int depth, Token token) {
-        if(token.lexeme == null) {
-            this.tree.push(this.createNode(depth, token.kind.name()));
+    protected void addTokenTreeNode(int depth, int index) {
+        TokenKind kind = this.tokens.getKind(index);
+        if(!kind.hasLexeme()) {
+            this.tree.push(this.createNode(depth, kind.name()));
             return;
         }
 
-        this.tree.push(this.createNode(depth, token.kind.name() + " - " + token.lexeme.toString()));
+        this.tree.push(this.createNode(depth, kind.name() + " - " + this.tokens.getLexeme(index).toString()));
 
     }
 
@@ -142,59 +251,48 @@ public class SimpleParser implements Parser {
 
     }
 
-    protected Token match(int depth) throws ParserException {
-        if (this.pos >= this.end) {
-            throw new ParserException("Expected: token");
+    //Puts the nodes from start under a new node at depth
+    protected void wrapTreeNodes(int depth, int start, NodeType node) {
+        for (int i = start; i < this.tree.size(); i++) {
+            this.tree.set(i, "  " + this.tree.get(i));
         }
-
-        Token token = this.tokens.get(this.pos);
-
-        this.addTreeNode(depth, token);
-
-        this.pos++;
-        return token;
-
+        this.tree.insertElementAt(this.createNode(depth, node.name()), start);
     }
 
-    protected Token match(int depth, TokenKind tokenKind) throws ParserException {
-        if (this.pos >= this.end || this.tokens.get(this.pos).kind != tokenKind) {
-            throw new ParserException("Expected: " + tokenKind.name());
+    protected TokenKind match(int depth) throws ParserException {
+        TokenKind kind = this.tokens.getKind(this.pos);
+        if (kind == TokenKind.EndOfFile) {
+            throw this.fail("Expected: token");
         }
 
-        Token token = this.tokens.get(this.pos);
-        this.addTreeNode(depth, token);
-        this.pos++;
-        return token;
-    }
-
-    protected Token match(int depth, TokenKind[] tokenKinds) throws ParserException {
-        StringBuilder errorMessageBuilder = new StringBuilder();
-        errorMessageBuilder.append("Expected one of following: ");
+        this.addTokenTreeNode(depth, this.pos);
 
-        if (tokenKinds.length >= 1) {
-            errorMessageBuilder.append(tokenKinds[0]);
-        }
+        this.advance();
+        return kind;
 
-        for (int i = 1; i < tokenKinds.length; i++) {
-            errorMessageBuilder.append(", ");
-            errorMessageBuilder.append(tokenKinds[i]);
+    }
 
+    protected TokenKind match(int depth, TokenKind tokenKind) throws ParserException {
+        if (this.tokens.getKind(this.pos) != tokenKind) {
+            throw this.fail(tokenKind);
         }
 
-        if (this.pos >= this.end) {
-            throw new ParserException(errorMessageBuilder.toString());
-        }
+        this.addTokenTreeNode(depth, this.pos);
+        this.advance();
+        return tokenKind;
+    }
 
-        Token token = this.tokens.get(this.pos);
+    protected TokenKind match(int depth, TokenKind[] tokenKinds) throws ParserException {
+        TokenKind kind = this.tokens.getKind(this.pos);
         for (TokenKind tokenKind : tokenKinds) {
-            if (token.kind == tokenKind) {
-                this.pos++;
-                this.addTreeNode(depth, token);
-                return token;
+            if (kind == tokenKind) {
+                this.addTokenTreeNode(depth, this.pos);
+                this.advance();
+                return kind;
             }
         }
 
-        throw new ParserException(errorMessageBuilder.toString());
+        throw this.fail(tokenKinds);
     }
 
     public <T> Stack<T> reverseStack(Stack<T> stack) {
@@ -214,7 +312,11 @@ public class SimpleParser implements Parser {
     }
 
     public Stack<String> parse() throws ParserException {
-        parseTranslationUnit(0);
+        try {
+            parseTranslationUnit(0);
+        } catch (Backtrack failure) {
+            throw this.createException(this.getFailureMessage(), this.failurePos);
+        }
 
         return reverseStack(this.tree);
     }
@@ -232,6 +334,47 @@ public class SimpleParser implements Parser {
         return false;
     }
 
+    /*
+        Runs a rule, or replays what it did the last time it ran at this position: the same failure,
+        or the same subtree and end position. Subtrees are kept without their indentation so they
+        can be replayed at another depth. A failure pushes nothing, whoever catches it resets the tree.
+    */
+    protected void memoize(NodeType rule, int depth, ParseFunction func) throws ParserException {
+        if(this.memo == null) {
+            func.execute();
+            return;
+        }
+
+        long key = (long) this.pos * RULE_COUNT + rule.ordinal();
+        Memo result = this.memo.get(key);
+        if(result != null) {
+            if(result.end < 0) {
+                throw this.fail(result.failurePos, result.failureMessage, result.failureKind, result.failureKinds);
+            }
+
+            for(String node : result.nodes) {
+                this.tree.push(this.createNode(depth, node));
+            }
+            this.pos = result.end;
+            this.tokens.release(this.pos);
+            return;
+        }
+
+        int treeSize = this.tree.size();
+        try {
+            func.execute();
+        } catch (ParserException exception) {
+            this.memo.put(key, new Memo(this));
+            throw exception;
+        }
+
+        String[] nodes = new String[this.tree.size() - treeSize];
+        for(int i = 0; i < nodes.length; i++) {
+            nodes[i] = this.tree.get(treeSize + i).substring(2 * depth);
+        }
+        this.memo.put(key, new Memo(this.pos, nodes));
+    }
+
     protected void parseTranslationUnit(int depth) throws ParserException {
         this.addTreeNode(depth, NodeType.TRANSLATION_UNIT);
 
@@ -244,31 +387,38 @@ public class SimpleParser implements Parser {
     protected void parseDeclarationSequence(int depth) throws ParserException {
         this.addTreeNode(depth, NodeType.DECLARATION_SEQUENCE);
 
-        parseDeclaration(depth + 1);
+        //Iterative so the stack does not grow with the number of declarations, they are all children of one node
+        do {
+            //Nothing can backtrack to before a top level declaration, so its results are not needed again
+            if(this.memo != null && this.savedPos.isEmpty()) {
+                this.memo.clear();
+            }
 
-        if(!this.checkDeclarationSequence()) return;
-        parseDeclarationSequence(depth + 1);
+            parseDeclaration(depth + 1);
+        } while(this.checkDeclarationSequence());
     }
 
     protected void parseDeclaration(int depth) throws ParserException {
-        this.addTreeNode(depth, NodeType.DECLARATION);
+        this.memoize(NodeType.DECLARATION, depth, () -> {
+            this.addTreeNode(depth, NodeType.DECLARATION);
 
-        if(this.check(TokenKind.Semicolon)) {
-            parseEmptyDeclaration(depth + 1);
-            return;
-        } else if (this.check(TokenKind.NamespaceKeyword)) {
-            parseNamespaceDefinition(depth + 1);
-            return;
-        }
+            if(this.check(TokenKind.Semicolon)) {
+                parseEmptyDeclaration(depth + 1);
+                return;
+            } else if (this.check(TokenKind.NamespaceKeyword)) {
+                parseNamespaceDefinition(depth + 1);
+                return;
+            }
 
-        if(this.checkFunctionDefinition() && tryParse(() -> parseFunctionDefinition(depth + 1))) return;
-        if(this.checkExplicitInstantiation() && tryParse(() -> parseExplicitInstantiation(depth + 1))) return;
-        if(this.checkExplicitSpecialization() && tryParse(() -> parseExplicitSpecialization(depth + 1))) return;
-        if(this.checkLinkageSpecification() && tryParse(() -> parseLinkageSpecification(depth + 1))) return;
-        if(this.checkNamespaceDefinition() && tryParse(() -> parseNamespaceDefinition(depth + 1))) return;
-        if(this.checkAttributeDeclaration() && tryParse(() -> parseAttributeDeclaration(depth + 1))) return;
+            if(this.checkFunctionDefinition() && tryParse(() -> parseFunctionDefinition(depth + 1))) return;
+            if(this.checkExplicitInstantiation() && tryParse(() -> parseExplicitInstantiation(depth + 1))) return;
+            if(this.checkExplicitSpecialization() && tryParse(() -> parseExplicitSpecialization(depth + 1))) return;
+            if(this.checkLinkageSpecification() && tryParse(() -> parseLinkageSpecification(depth + 1))) return;
+            if(this.checkNamespaceDefinition() && tryParse(() -> parseNamespaceDefinition(depth + 1))) return;
+            if(this.checkAttributeDeclaration() && tryParse(() -> parseAttributeDeclaration(depth + 1))) return;
 
-        parseBlockDeclaration(depth + 1);
+            parseBlockDeclaration(depth + 1);
+        });
     }
 
     protected void parseAttributeDeclaration(int depth) throws ParserException {
@@ -385,41 +535,43 @@ public class SimpleParser implements Parser {
     }
 
     protected void parseFunctionDefinition(int depth) throws ParserException {
-        this.addTreeNode(depth, NodeType.FUNCTION_DEFINITION);
+        this.memoize(NodeType.FUNCTION_DEFINITION, depth, () -> {
+            this.addTreeNode(depth, NodeType.FUNCTION_DEFINITION);
 
-        if(this.checkDeclSpecifierSequence() && tryParse(() -> {
-                parseDeclSpecifierSequence(depth + 1);
+            if(this.checkDeclSpecifierSequence() && tryParse(() -> {
+                    parseDeclSpecifierSequence(depth + 1);
 
-                parseDeclarator(depth + 1);
+                    parseDeclarator(depth + 1);
 
-                if (this.check(TokenKind.Equals)) {
-                    this.match(depth + 1, TokenKind.Equals);
+                    if (this.check(TokenKind.Equals)) {
+                        this.match(depth + 1, TokenKind.Equals);
 
-                    this.match(depth + 1,new TokenKind[] {
-                            TokenKind.DeleteKeyword,
-                            TokenKind.DefaultKeyword
-                    });
-                    return;
-                }
+                        this.match(depth + 1,new TokenKind[] {
+                                TokenKind.DeleteKeyword,
+                                TokenKind.DefaultKeyword
+                        });
+                        return;
+                    }
 
-                parseFunctionBody(depth + 1);
+                    parseFunctionBody(depth + 1);
 
-            })) return;
+                })) return;
 
-        parseDeclarator(depth + 1);
+            parseDeclarator(depth + 1);
 
-        if (this.check(TokenKind.Equals)) {
-            this.match(depth + 1, TokenKind.Equals);
+            if (this.check(TokenKind.Equals)) {
+                this.match(depth + 1, TokenKind.Equals);
 
-            this.match(depth + 1,new TokenKind[] {
-                    TokenKind.DeleteKeyword,
-                    TokenKind.DefaultKeyword
-            });
+                this.match(depth + 1,new TokenKind[] {
+                        TokenKind.DeleteKeyword,
+                        TokenKind.DefaultKeyword
+                });
 
-            return;
-        }
+                return;
+            }
 
-        parseFunctionBody(depth + 1);
+            parseFunctionBody(depth + 1);
+        });
     }
 
     protected void parseFunctionBody(int depth) throws ParserException {
@@ -505,50 +657,50 @@ public class SimpleParser implements Parser {
     protected void parseStatementSequence(int depth) throws ParserException {
         this.addTreeNode(depth, NodeType.STATEMENT_SEQUENCE);
 
-        parseStatement(depth + 1);
-
-        if(this.checkStatementSequence()) {
-            parseStatementSequence(depth + 1);
-        }
+        do {
+            parseStatement(depth + 1);
+        } while(this.checkStatementSequence());
     }
 
     protected void parseStatement(int depth) throws ParserException {
-        this.addTreeNode(depth, NodeType.STATEMENT);
-
-        if (this.check(TokenKind.Identifier)) {
-            if(this.checkLabeledStatement() && tryParse(() -> parseLabeledStatement(depth + 1))) return;
-            else if(this.checkDeclarationStatement() && tryParse(() -> parseDeclarationStatement(depth + 1))) return;
-            else {
-                parseExpressionStatement(depth + 1);
+        this.memoize(NodeType.STATEMENT, depth, () -> {
+            this.addTreeNode(depth, NodeType.STATEMENT);
+
+            if (this.check(TokenKind.Identifier)) {
+                if(this.checkLabeledStatement() && tryParse(() -> parseLabeledStatement(depth + 1))) return;
+                else if(this.checkDeclarationStatement() && tryParse(() -> parseDeclarationStatement(depth + 1))) return;
+                else {
+                    parseExpressionStatement(depth + 1);
+                    return;
+                }
+            } else if (this.checkLabeledStatement()) {
+                parseLabeledStatement(depth + 1);
+                return;
+            } else if (this.checkDeclarationStatement()) {
+                parseDeclarationStatement(depth + 1);
+                return;
+            } else if (this.checkExpressionStatement()) {
+                parseDeclarationStatement(depth + 1);
+                return;
+            } else if (this.checkDeclarationStatement()) {
+                parseDeclarationStatement(depth + 1);
+                return;
+            } else if (this.checkAttributeSpecifierSequence()) {
+                parseAttributeSpecifierSequence(depth + 1);
+                return;
+            } else if (this.checkCompoundStatement()) {
+                parseCompoundStatement(depth + 1);
+                return;
+            } else if (this.checkIterationStatement()) {
+                parseIterationStatement(depth + 1);
+                return;
+            } else if (this.checkSelectionStatement()) {
+                parseSelectionStatement(depth + 1);
                 return;
             }
-        } else if (this.checkLabeledStatement()) {
-            parseLabeledStatement(depth + 1);
-            return;
-        } else if (this.checkDeclarationStatement()) {
-            parseDeclarationStatement(depth + 1);
-            return;
-        } else if (this.checkExpressionStatement()) {
-            parseDeclarationStatement(depth + 1);
-            return;
-        } else if (this.checkDeclarationStatement()) {
-            parseDeclarationStatement(depth + 1);
-            return;
-        } else if (this.checkAttributeSpecifierSequence()) {
-            parseAttributeSpecifierSequence(depth + 1);
-            return;
-        } else if (this.checkCompoundStatement()) {
-            parseCompoundStatement(depth + 1);
-            return;
-        } else if (this.checkIterationStatement()) {
-            parseIterationStatement(depth + 1);
-            return;
-        } else if (this.checkSelectionStatement()) {
-            parseSelectionStatement(depth + 1);
-            return;
-        }
 
-        parseJumpStatement(depth + 1);
+            parseJumpStatement(depth + 1);
+        });
     }
 
     protected void parseDeclarationStatement(int depth) throws ParserException {
@@ -558,46 +710,50 @@ public class SimpleParser implements Parser {
     }
 
     protected void parseBlockDeclaration(int depth) throws ParserException {
-        this.addTreeNode(depth, NodeType.BLOCK_DECLARATION);
+        this.memoize(NodeType.BLOCK_DECLARATION, depth, () -> {
+            this.addTreeNode(depth, NodeType.BLOCK_DECLARATION);
 
-        if(this.checkOpaqueEnumDeclaration() && tryParse(() -> parseOpaqueEnumDeclaration(depth + 1))) return;
-        if(this.checkAsmDefinition() && tryParse(() -> parseAsmDefinition(depth + 1))) return;
-        if(this.checkUsingDeclaration() && tryParse(() -> parseUsingDeclaration(depth + 1))) return;
-        if(this.checkUsingDirective() && tryParse(() -> parseUsingDirective(depth + 1))) return;
-        if(this.checkStaticAssertDeclaration() && tryParse(() -> parseStaticAssertDeclaration(depth + 1))) return;
-        if(this.checkAliasDeclaration() && tryParse(() -> parseAliasDeclaration(depth + 1))) return;
+            if(this.checkOpaqueEnumDeclaration() && tryParse(() -> parseOpaqueEnumDeclaration(depth + 1))) return;
+            if(this.checkAsmDefinition() && tryParse(() -> parseAsmDefinition(depth + 1))) return;
+            if(this.checkUsingDeclaration() && tryParse(() -> parseUsingDeclaration(depth + 1))) return;
+            if(this.checkUsingDirective() && tryParse(() -> parseUsingDirective(depth + 1))) return;
+            if(this.checkStaticAssertDeclaration() && tryParse(() -> parseStaticAssertDeclaration(depth + 1))) return;
+            if(this.checkAliasDeclaration() && tryParse(() -> parseAliasDeclaration(depth + 1))) return;
 
-        parseSimpleDeclaration(depth + 1);
+            parseSimpleDeclaration(depth + 1);
+        });
     }
 
     protected void parseSimpleDeclaration(int depth) throws ParserException {
-        this.addTreeNode(depth, NodeType.SIMPLE_DECLARATION);
+        this.memoize(NodeType.SIMPLE_DECLARATION, depth, () -> {
+            this.addTreeNode(depth, NodeType.SIMPLE_DECLARATION);
 
-        if(this.checkAttributeSpecifierSequence()) {
-            tryParse(() -> parseAttributeSpecifierSequence(depth + 1));
-        }
+            if(this.checkAttributeSpecifierSequence()) {
+                tryParse(() -> parseAttributeSpecifierSequence(depth + 1));
+            }
 
-        if(this.checkDeclSpecifierSequence()) {
-            tryParse(() -> parseDeclSpecifierSequence(depth + 1));
-        }
+            if(this.checkDeclSpecifierSequence()) {
+                tryParse(() -> parseDeclSpecifierSequence(depth + 1));
+            }
 
-        if(this.checkInitDeclaratorList()) {
-            tryParse(() -> parseInitDeclaratorList(depth + 1));
-        }
+            if(this.checkInitDeclaratorList()) {
+                tryParse(() -> parseInitDeclaratorList(depth + 1));
+            }
 
-        this.match(depth + 1, TokenKind.Semicolon);
+            this.match(depth + 1, TokenKind.Semicolon);
+        });
     }
 
     protected void parseInitDeclaratorList(int depth) throws ParserException {
         this.addTreeNode(depth, NodeType.INIT_DECLARATOR_LIST);
 
-        parseInitDeclarator(depth + 1);
+        while (true) {
+            parseInitDeclarator(depth + 1);
 
-        if (!this.check(TokenKind.Comma)) return;
-
-        this.match(depth + 1, TokenKind.Comma);
+            if (!this.check(TokenKind.Comma)) return;
 
-        parseInitDeclaratorList(depth + 1);
+            this.match(depth + 1, TokenKind.Comma);
+        }
     }
 
     protected void parseInitDeclarator(int depth) throws ParserException {
@@ -965,16 +1121,10 @@ public class SimpleParser implements Parser {
     protected void parseBalancedTokenSequence(int depth) throws ParserException {
         this.addTreeNode(depth, NodeType.ATTRIBUTE_ARGUMENT_CLAUSE);
 
-        boolean success = tryParse(() -> {
-            parseBalancedToken(depth + 1);
-            parseBalancedTokenSequence(depth + 1);
-        });
-
-        if (success) {
-            return;
-        }
-
+        //As many balanced tokens as parse, at least one
         this.parseBalancedToken(depth + 1);
+        while (tryParse(() -> parseBalancedToken(depth + 1))) {
+        }
     }
 
     protected void parseBalancedToken(int depth) throws ParserException {
@@ -985,7 +1135,7 @@ public class SimpleParser implements Parser {
                 TokenKind.OpenBrace,
                 TokenKind.OpenParen
         })) {
-            Token token = this.match(depth + 1, new TokenKind[]{
+            TokenKind kind = this.match(depth + 1, new TokenKind[]{
                     TokenKind.OpenBracket,
                     TokenKind.OpenBrace,
                     TokenKind.OpenParen
@@ -993,9 +1143,9 @@ public class SimpleParser implements Parser {
 
             parseBalancedTokenSequence(depth + 1);
 
-            if (token.kind == TokenKind.OpenBracket) {
+            if (kind == TokenKind.OpenBracket) {
                 this.match(depth + 1, TokenKind.CloseBracket);
-            } else if (token.kind == TokenKind.OpenBrace) {
+            } else if (kind == TokenKind.OpenBrace) {
                 this.match(depth + 1, TokenKind.OpenBrace);
             } else {
                 this.match(depth + 1, TokenKind.OpenParen);
@@ -1027,13 +1177,15 @@ public class SimpleParser implements Parser {
     }
 
     protected void parseTypeId(int depth) throws ParserException {
-        this.addTreeNode(depth, NodeType.TYPE_ID);
+        this.memoize(NodeType.TYPE_ID, depth, () -> {
+            this.addTreeNode(depth, NodeType.TYPE_ID);
 
-        parseTypeSpecifierSequence(depth + 1);
+            parseTypeSpecifierSequence(depth + 1);
 
-        if (this.checkAbstractDeclarator()) {
-            tryParse(() -> parseAbstractDeclarator(depth + 1));
-        }
+            if (this.checkAbstractDeclarator()) {
+                tryParse(() -> parseAbstractDeclarator(depth + 1));
+            }
+        });
     }
 
     protected void parseAbstractDeclarator(int depth) throws ParserException {
@@ -1358,15 +1510,20 @@ public class SimpleParser implements Parser {
     protected void parseMemberSpecification(int depth) throws ParserException {
         this.addTreeNode(depth, NodeType.MEMBER_SPECIFICATION);
 
+        //As many members and access specifiers as parse, at least one
+        parseMemberSpecificationEntry(depth + 1);
+        while (tryParse(() -> parseMemberSpecificationEntry(depth + 1))) {
+        }
+    }
+
+    protected void parseMemberSpecificationEntry(int depth) throws ParserException {
         if (this.checkAccessSpecifier()) {
-            parseAccessSpecifier(depth + 1);
-            this.match(depth + 1, TokenKind.Colon);
-            tryParse(() -> parseMemberSpecification(depth + 1));
+            parseAccessSpecifier(depth);
+            this.match(depth, TokenKind.Colon);
             return;
         }
 
-        parseMemberDeclaration(depth + 1);
-        tryParse(() -> parseMemberSpecification(depth + 1));
+        parseMemberDeclaration(depth);
     }
 
     protected void parseAccessSpecifier(int depth) throws ParserException {
@@ -1434,12 +1591,13 @@ public class SimpleParser implements Parser {
     protected void parseTemplateParameterList(int depth) throws ParserException {
         this.addTreeNode(depth, NodeType.TEMPLATE_PARAMETER_LIST);
 
-        parseTemplateParameter(depth + 1);
+        while (true) {
+            parseTemplateParameter(depth + 1);
 
-        if(!this.check(TokenKind.Comma)) return;
+            if(!this.check(TokenKind.Comma)) return;
 
-        this.match(depth + 1, TokenKind.Comma);
-        parseTemplateParameterList(depth + 1);
+            this.match(depth + 1, TokenKind.Comma);
+        }
     }
 
     protected void parseTemplateParameter(int depth) throws ParserException {
@@ -1545,11 +1703,12 @@ public class SimpleParser implements Parser {
     protected void parseMemberDeclaratorList(int depth) throws ParserException {
         this.addTreeNode(depth, NodeType.MEMBER_DECLARATOR_LIST);
 
-        parseMemberDeclarator(depth + 1);
+        while (true) {
+            parseMemberDeclarator(depth + 1);
+
+            if(!this.check(TokenKind.Comma)) return;
 
-        if(this.check(TokenKind.Comma)) {
             this.match(depth + 1, TokenKind.Comma);
-            parseMemberDeclaratorList(depth + 1);
         }
     }
 
@@ -1684,10 +1843,11 @@ public class SimpleParser implements Parser {
     protected void parseEnumeratorList(int depth) throws ParserException {
         this.addTreeNode(depth, NodeType.ENUMERATOR_LIST);
 
-        parseEnumeratorDefinition(depth + 1);
+        while (true) {
+            parseEnumeratorDefinition(depth + 1);
 
-        if (!this.check(TokenKind.Comma)) return;
-        parseEnumeratorList(depth + 1);
+            if (!this.check(TokenKind.Comma)) return;
+        }
     }
 
     protected void parseEnumeratorDefinition(int depth) throws ParserException {
@@ -1849,7 +2009,7 @@ public class SimpleParser implements Parser {
         this.addTreeNode(depth, NodeType.TYPEDEF_NAME);
 
         //TODO: FORCING THIS TO THROW ERRORS
-        throw new ParserException("FORCED ERROR");
+        throw this.fail("FORCED ERROR");
 
         //this.match(depth + 1, TokenKind.Identifier);
     }
@@ -1966,16 +2126,15 @@ public class SimpleParser implements Parser {
     protected void parseTemplateArgumentList(int depth) throws ParserException {
         this.addTreeNode(depth, NodeType.TEMPLATE_ARGUMENT_LIST);
 
-        parseTemplateArgument(depth + 1);
-
-        if (this.check(TokenKind.DotDotDot)) {
-            this.match(depth + 1, TokenKind.DotDotDot);
-        }
-
-        if (!this.check(TokenKind.Comma)) return;
+        while (true) {
+            parseTemplateArgument(depth + 1);
 
-        parseTemplateArgumentList(depth + 1);
+            if (this.check(TokenKind.DotDotDot)) {
+                this.match(depth + 1, TokenKind.DotDotDot);
+            }
 
+            if (!this.check(TokenKind.Comma)) return;
+        }
     }
 
     protected void parseTemplateArgument(int depth) throws ParserException {
@@ -1993,32 +2152,36 @@ public class SimpleParser implements Parser {
     protected void parseExpression(int depth) throws ParserException {
         this.addTreeNode(depth, NodeType.EXPRESSION);
 
-        parseAssignmentExpression(depth + 1);
+        while (true) {
+            parseAssignmentExpression(depth + 1);
+
+            if (!this.check(TokenKind.Comma)) return;
 
-        if (this.check(TokenKind.Comma)) {
             this.match(depth + 1, TokenKind.Comma);
-            parseExpression(depth + 1);
         }
     }
 
     protected void parseAssignmentExpression(int depth) throws ParserException {
-        this.addTreeNode(depth, NodeType.ASSIGNMENT_EXPRESSION);
+        this.memoize(NodeType.ASSIGNMENT_EXPRESSION, depth, () -> {
+            this.addTreeNode(depth, NodeType.ASSIGNMENT_EXPRESSION);
 
-        if (this.checkThrowExpression()) {
-            parseThrowExpression(depth + 1);
-            return;
-        }
+            if (this.checkThrowExpression()) {
+                parseThrowExpression(depth + 1);
+                return;
+            }
 
-        if (this.checkLogicalOrExpression()) {
-            boolean success = tryParse(() -> {
-                parseLogicalOrExpression(depth + 1);
+            //The logical-or-expression is either the left side of an assignment or starts a conditional-expression
+            int start = this.tree.size();
+            parseBinaryExpression(depth + 1, BinaryOperators.LOWEST);
+
+            if (this.checkAssignmentOperator()) {
                 parseAssignmentOperator(depth + 1);
                 parseInitializerClause(depth + 1);
-            });
-            if (success) return;
-        }
+                return;
+            }
 
-        parseConditionalExpression(depth + 1);
+            parseConditionalTail(depth + 1, start);
+        });
     }
 
     protected void parseAssignmentOperator(int depth) throws ParserException {
@@ -2056,248 +2219,93 @@ public class SimpleParser implements Parser {
     }
 
     protected void parseConditionalExpression(int depth) throws ParserException {
-        this.addTreeNode(depth, NodeType.CONDITIONAL_EXPRESSION);
-
-        parseLogicalOrExpression(depth + 1);
+        int start = this.tree.size();
+        parseBinaryExpression(depth, BinaryOperators.LOWEST);
+        parseConditionalTail(depth, start);
+    }
 
+    //Makes the expression from start a condition if '?' follows it
+    protected void parseConditionalTail(int depth, int start) throws ParserException {
         if (!this.check(TokenKind.Question)) {
             return;
         }
 
+        this.wrapTreeNodes(depth, start, NodeType.CONDITIONAL_EXPRESSION);
         this.match(depth + 1, TokenKind.Question);
         parseExpression(depth + 1);
         this.match(depth + 1, TokenKind.Colon);
         parseAssignmentExpression(depth + 1);
     }
 
-    protected void parseLogicalOrExpression(int depth) throws ParserException {
-        this.addTreeNode(depth, NodeType.CONDITIONAL_EXPRESSION);
+    /*
+        Logical-or-expression down to pm-expression by precedence climbing: a cast-expression followed
+        by the binary operators that bind at least as tight as minPrecedence, see BinaryOperators.
+        A run of operators of one precedence shares one node, which is only added once its first
+        operator is seen, so the left operand parsed so far is moved under it. An operand alone
+        adds no node, only the levels that have an operator do.
+    */
+    protected void parseBinaryExpression(int depth, int minPrecedence) throws ParserException {
+        int start = this.tree.size();
+        int level = 0;
+
+        parseCastExpression(depth);
+
+        while (true) {
+            int precedence = BinaryOperators.getPrecedence(this.tokens.getKind(this.pos));
+            if (precedence < minPrecedence) {
+                return;
+            }
 
-        parseLogicalAndExpression(depth + 1);
+            //Operands are parsed with a higher minimum, so any later operator binds looser than level
+            if (precedence != level) {
+                this.wrapTreeNodes(depth, start, BinaryOperators.getNode(precedence));
+                level = precedence;
+            }
 
-        if (!this.check(TokenKind.BarBar)) {
-            return;
+            this.match(depth + 1);
+            parseBinaryExpression(depth + 1, precedence + 1);
         }
-
-        this.match(depth + 1, TokenKind.BarBar);
-        parseLogicalOrExpression(depth + 1);
     }
 
-    protected void parseLogicalAndExpression(int depth) throws ParserException {
-        this.addTreeNode(depth, NodeType.LOGICAL_AND_EXPRESSION);
-
-        parseInclusiveOrExpression(depth + 1);
+    protected void parseCastExpression(int depth) throws ParserException {
+        this.memoize(NodeType.CAST_EXPRESSION, depth, () -> {
+            this.addTreeNode(depth, NodeType.CAST_EXPRESSION);
 
-        if (!this.check(TokenKind.AmpersandAmpersand)) {
-            return;
-        }
+            tryParse(() -> {
+                this.match(depth + 1, TokenKind.OpenParen);
+                parseTypeId(depth + 1);
+                this.match(depth + 1, TokenKind.CloseParen);
+                parseCastExpression(depth + 1);
+            });
 
-        this.match(depth + 1, TokenKind.AmpersandAmpersand);
-        parseLogicalAndExpression(depth + 1);
+            parseUnaryExpression(depth + 1);
+        });
     }
 
-    protected void parseInclusiveOrExpression(int depth) throws ParserException {
-        this.addTreeNode(depth, NodeType.INCLUSIVE_OR_EXPRESSION);
-
-        parseExclusiveOrExpression(depth + 1);
+    protected void parseUnaryExpression(int depth) throws ParserException {
+        this.addTreeNode(depth, NodeType.UNARY_EXPRESSION);
 
-        if (!this.check(TokenKind.Bar)) {
+        //Alignof
+        if (this.check(TokenKind.AlignofKeyword)) {
+            this.match(depth + 1, TokenKind.AlignofKeyword);
+            this.match(depth + 1, TokenKind.OpenParen);
+            parseTypeId(depth + 1);
+            this.match(depth + 1, TokenKind.CloseParen);
             return;
         }
 
-        this.match(depth + 1, TokenKind.Bar);
-        parseInclusiveOrExpression(depth + 1);
-    }
+        boolean success;
+        //Sizeof
+        if (this.check(TokenKind.SizeofKeyword)) {
+            this.match(depth + 1, TokenKind.SizeofKeyword);
+            success = tryParse(() -> {
+                this.match(depth + 1, TokenKind.DotDotDot);
+                this.match(depth + 1, TokenKind.OpenParen);
+                this.match(depth + 1, TokenKind.Identifier);
+                this.match(depth + 1, TokenKind.CloseParen);
 
-    protected void parseExclusiveOrExpression(int depth) throws ParserException {
-        this.addTreeNode(depth, NodeType.EXCLUSIVE_OR_EXPRESSION);
-
-        parseAndExpression(depth + 1);
-
-        if (!this.check(TokenKind.Caret)) {
-            return;
-        }
-
-        this.match(depth + 1, TokenKind.Caret);
-        parseExclusiveOrExpression(depth + 1);
-    }
-
-    protected void parseAndExpression(int depth) throws ParserException {
-        this.addTreeNode(depth, NodeType.AND_EXPRESSION);
-
-        parseEqualityExpression(depth + 1);
-
-        if (!this.check(TokenKind.Ampersand)) {
-            return;
-        }
-
-        this.match(depth + 1, TokenKind.Ampersand);
-        parseAndExpression(depth + 1);
-    }
-
-    protected void parseEqualityExpression(int depth) throws ParserException {
-        this.addTreeNode(depth, NodeType.EQUALITY_EXPRESSION);
-
-        parseRelationalExpression(depth + 1);
-
-        if (!this.check(new TokenKind[]{
-                TokenKind.EqualsEquals,
-                TokenKind.ExclamationEquals
-        })) {
-            return;
-        }
-
-        this.match(depth + 1, new TokenKind[]{
-                TokenKind.EqualsEquals,
-                TokenKind.ExclamationEquals
-        });
-
-        parseEqualityExpression(depth + 1);
-    }
-
-    protected void parseRelationalExpression(int depth) throws ParserException {
-        this.addTreeNode(depth, NodeType.RELATIONAL_EXPRESSION);
-
-        parseShiftExpression(depth + 1);
-
-        if (!this.check(new TokenKind[]{
-                TokenKind.LessThan,
-                TokenKind.GreaterThan,
-                TokenKind.LessThanEquals,
-                TokenKind.GreaterThanEquals
-        })) {
-            return;
-        }
-
-        this.match(depth + 1, new TokenKind[]{
-                TokenKind.LessThan,
-                TokenKind.GreaterThan,
-                TokenKind.LessThanEquals,
-                TokenKind.GreaterThanEquals
-        });
-
-        parseRelationalExpression(depth + 1);
-    }
-
-    protected void parseShiftExpression(int depth) throws ParserException {
-        this.addTreeNode(depth, NodeType.SHIFT_EXPRESSION);
-
-        parseAdditiveExpression(depth + 1);
-
-        if (!this.check(new TokenKind[]{
-                TokenKind.LessThanLessThan,
-                TokenKind.GreaterThanGreaterThan,
-        })) {
-            return;
-        }
-
-        this.match(depth + 1, new TokenKind[]{
-                TokenKind.LessThanLessThan,
-                TokenKind.GreaterThanGreaterThan,
-        });
-
-        parseShiftExpression(depth + 1);
-    }
-
-    protected void parseAdditiveExpression(int depth) throws ParserException {
-        this.addTreeNode(depth, NodeType.ADDITIVE_EXPRESSION);
-
-        parseMultiplicativeExpression(depth + 1);
-
-        if (!this.check(new TokenKind[]{
-                TokenKind.Plus,
-                TokenKind.Minus,
-        })) {
-            return;
-        }
-
-        this.match(depth + 1, new TokenKind[]{
-                TokenKind.Plus,
-                TokenKind.Minus,
-        });
-
-        parseAdditiveExpression(depth + 1);
-    }
-
-    protected void parseMultiplicativeExpression(int depth) throws ParserException {
-        this.addTreeNode(depth, NodeType.MULTIPLICATIVE_EXPRESSION);
-
-        parsePmExpression(depth + 1);
-
-        if (!this.check(new TokenKind[]{
-                TokenKind.Asterisk,
-                TokenKind.Slash,
-                TokenKind.Percent
-        })) {
-            return;
-        }
-
-        this.match(depth + 1, new TokenKind[]{
-                TokenKind.Asterisk,
-                TokenKind.Slash,
-                TokenKind.Percent
-        });
-
-        parseMultiplicativeExpression(depth + 1);
-    }
-
-    protected void parsePmExpression(int depth) throws ParserException {
-        this.addTreeNode(depth, NodeType.PM_EXPRESSION);
-
-        parseCastExpression(depth + 1);
-
-        if (!this.check(new TokenKind[]{
-                TokenKind.DotAsterisk,
-                TokenKind.MinusGreaterThanAsterisk
-        })) {
-            return;
-        }
-
-        this.match(depth + 1, new TokenKind[]{
-                TokenKind.DotAsterisk,
-                TokenKind.MinusGreaterThanAsterisk
-        });
-
-        parsePmExpression(depth + 1);
-    }
-
-    protected void parseCastExpression(int depth) throws ParserException {
-        this.addTreeNode(depth, NodeType.CAST_EXPRESSION);
-
-        tryParse(() -> {
-            this.match(depth + 1, TokenKind.OpenParen);
-            parseTypeId(depth + 1);
-            this.match(depth + 1, TokenKind.CloseParen);
-            parseCastExpression(depth + 1);
-        });
-
-        parseUnaryExpression(depth + 1);
-    }
-
-    protected void parseUnaryExpression(int depth) throws ParserException {
-        this.addTreeNode(depth, NodeType.UNARY_EXPRESSION);
-
-        //Alignof
-        if (this.check(TokenKind.AlignofKeyword)) {
-            this.match(depth + 1, TokenKind.AlignofKeyword);
-            this.match(depth + 1, TokenKind.OpenParen);
-            parseTypeId(depth + 1);
-            this.match(depth + 1, TokenKind.CloseParen);
-            return;
-        }
-
-        boolean success;
-        //Sizeof
-        if (this.check(TokenKind.SizeofKeyword)) {
-            this.match(depth + 1, TokenKind.SizeofKeyword);
-            success = tryParse(() -> {
-                this.match(depth + 1, TokenKind.DotDotDot);
-                this.match(depth + 1, TokenKind.OpenParen);
-                this.match(depth + 1, TokenKind.Identifier);
-                this.match(depth + 1, TokenKind.CloseParen);
-
-            });
-            if (success) return;
+            });
+            if (success) return;
 
             success = tryParse(() -> {
                 this.match(depth + 1, TokenKind.OpenParen);
@@ -2635,13 +2643,13 @@ public class SimpleParser implements Parser {
     protected void parseParameterDeclarationList(int depth) throws ParserException {
         this.addTreeNode(depth, NodeType.PARAMETER_DECLARATION_LIST);
 
-        parseParameterDeclaration(depth + 1);
+        while (true) {
+            parseParameterDeclaration(depth + 1);
 
-        if (!this.check(TokenKind.Comma)) return;
-
-        this.match(depth + 1, TokenKind.Comma);
+            if (!this.check(TokenKind.Comma)) return;
 
-        parseParameterDeclarationList(depth + 1);
+            this.match(depth + 1, TokenKind.Comma);
+        }
     }
 
     protected void parseParameterDeclaration(int depth) throws ParserException {
@@ -2682,37 +2690,41 @@ public class SimpleParser implements Parser {
     }
 
     protected void parseDeclarator(int depth) throws ParserException {
-        this.addTreeNode(depth, NodeType.DECLARATOR);
+        this.memoize(NodeType.DECLARATOR, depth, () -> {
+            this.addTreeNode(depth, NodeType.DECLARATOR);
 
 
-        if(this.checkNoptrDeclarator()) {
-            if(tryParse(() -> {
-                parseNoptrDeclarator(depth + 1);
-                parseParametersAndQualifiers(depth + 1);
-                //NOTE: Changed
-                parseTrailingReturnType(depth + 1);
-            })) {
-                return;
+            if(this.checkNoptrDeclarator()) {
+                if(tryParse(() -> {
+                    parseNoptrDeclarator(depth + 1);
+                    parseParametersAndQualifiers(depth + 1);
+                    //NOTE: Changed
+                    parseTrailingReturnType(depth + 1);
+                })) {
+                    return;
+                }
             }
-        }
 
-        parsePtrDeclarator(depth + 1);
+            parsePtrDeclarator(depth + 1);
+        });
     }
 
     protected void parsePtrDeclarator(int depth) throws ParserException {
-        this.addTreeNode(depth, NodeType.PTR_DECLARATOR);
+        this.memoize(NodeType.PTR_DECLARATOR, depth, () -> {
+            this.addTreeNode(depth, NodeType.PTR_DECLARATOR);
 
-        if(this.checkPtrOperator()) {
-            boolean success = tryParse(() -> {
-                parsePtrOperator(depth + 1);
-            });
-            if(success) {
-                parsePtrDeclarator(depth + 1);
-                return;
+            if(this.checkPtrOperator()) {
+                boolean success = tryParse(() -> {
+                    parsePtrOperator(depth + 1);
+                });
+                if(success) {
+                    parsePtrDeclarator(depth + 1);
+                    return;
+                }
             }
-        }
 
-        parseNoptrDeclarator(depth + 1);
+            parseNoptrDeclarator(depth + 1);
+        });
     }
 
     protected void parseNoptrDeclaratorHelper(int depth) throws ParserException {
@@ -2812,41 +2824,43 @@ public class SimpleParser implements Parser {
     }
 
     protected void parseDeclSpecifierSequence(int depth) throws ParserException {
-        this.addTreeNode(depth, NodeType.DECL_SPECIFIER_SEQUENCE);
+        this.memoize(NodeType.DECL_SPECIFIER_SEQUENCE, depth, () -> {
+            this.addTreeNode(depth, NodeType.DECL_SPECIFIER_SEQUENCE);
 
-        if(this.checkStorageClassSpecifier()) {
-            parseStorageClassSpecifier(depth + 1);
-            if(this.checkFunctionSpecifier()) {
-                parseFunctionSpecifier(depth + 1);
-            }
-            this.parseTypeSpecifier(depth + 1);
-            return;
-        } else if (this.check(TokenKind.FriendKeyword)) {
-           this.match(depth + 1, TokenKind.FriendKeyword);
-            if(this.checkFunctionSpecifier()) {
+            if(this.checkStorageClassSpecifier()) {
+                parseStorageClassSpecifier(depth + 1);
+                if(this.checkFunctionSpecifier()) {
+                    parseFunctionSpecifier(depth + 1);
+                }
+                this.parseTypeSpecifier(depth + 1);
+                return;
+            } else if (this.check(TokenKind.FriendKeyword)) {
+               this.match(depth + 1, TokenKind.FriendKeyword);
+                if(this.checkFunctionSpecifier()) {
+                    parseFunctionSpecifier(depth + 1);
+                }
+                this.parseTypeSpecifier(depth + 1);
+                return;
+            } else if (this.checkFunctionSpecifier()) {
                 parseFunctionSpecifier(depth + 1);
-            }
-            this.parseTypeSpecifier(depth + 1);
-            return;
-        } else if (this.checkFunctionSpecifier()) {
-            parseFunctionSpecifier(depth + 1);
-            this.parseTypeSpecifier(depth + 1);
-            return;
-        } else if (this.check(TokenKind.ConstKeyword)) {
-            parseTypeSpecifier(depth + 1);
-            if(this.checkTypeSpecifier()) {
+                this.parseTypeSpecifier(depth + 1);
+                return;
+            } else if (this.check(TokenKind.ConstKeyword)) {
                 parseTypeSpecifier(depth + 1);
+                if(this.checkTypeSpecifier()) {
+                    parseTypeSpecifier(depth + 1);
+                }
+                return;
+            } else if (this.checkTypeSpecifier()) {
+                parseTypeSpecifier(depth + 1);
+                return;
             }
-            return;
-        } else if (this.checkTypeSpecifier()) {
-            parseTypeSpecifier(depth + 1);
-            return;
-        }
 
-        if (this.check(TokenKind.TypedefKeyword)) {
-            parseTypeSpecifier(depth + 1);
-            this.match(depth + 1, TokenKind.Identifier);
-        }
+            if (this.check(TokenKind.TypedefKeyword)) {
+                parseTypeSpecifier(depth + 1);
+                this.match(depth + 1, TokenKind.Identifier);
+            }
+        });
     }
 
     protected void parseStorageClassSpecifier(int depth) throws ParserException {
@@ -2893,17 +2907,17 @@ public class SimpleParser implements Parser {
     protected void parseTypeIdList(int depth) throws ParserException {
         this.addTreeNode(depth, NodeType.TYPE_ID_LIST);
 
-        parseTypeId(depth + 1);
-
-        if (this.check(TokenKind.DotDotDot)) {
-            this.match(depth + 1, TokenKind.DotDotDot);
-        }
+        while (true) {
+            parseTypeId(depth + 1);
 
-        if (!this.check(TokenKind.Comma)) return;
+            if (this.check(TokenKind.DotDotDot)) {
+                this.match(depth + 1, TokenKind.DotDotDot);
+            }
 
-        this.match(depth + 1, TokenKind.Comma);
+            if (!this.check(TokenKind.Comma)) return;
 
-        parseTypeIdList(depth + 1);
+            this.match(depth + 1, TokenKind.Comma);
+        }
     }
 
     protected void parseNoexceptSpecification(int depth) throws ParserException {
@@ -2973,18 +2987,19 @@ public class SimpleParser implements Parser {
     protected void parseCaptureList(int depth) throws ParserException {
         this.addTreeNode(depth, NodeType.CAPTURE_LIST);
 
-        parseCapture(depth + 1);
+        while (true) {
+            parseCapture(depth + 1);
 
-        if (this.check(TokenKind.DotDotDot)) {
-            this.match(depth + 1, TokenKind.DotDotDot);
-        }
+            if (this.check(TokenKind.DotDotDot)) {
+                this.match(depth + 1, TokenKind.DotDotDot);
+            }
 
-        if (!this.check(TokenKind.Comma)) {
-            return;
-        }
+            if (!this.check(TokenKind.Comma)) {
+                return;
+            }
 
-        this.match(depth + 1, TokenKind.Comma);
-        parseCaptureList(depth + 1);
+            this.match(depth + 1, TokenKind.Comma);
+        }
     }
 
     protected void parseCapture(int depth) throws ParserException {
@@ -3338,14 +3353,15 @@ public class SimpleParser implements Parser {
     protected void parseInitializerList(int depth) throws ParserException {
         this.addTreeNode(depth, NodeType.INITIALIZER_LIST);
 
-        parseInitializerClause(depth + 1);
-        if (this.check(TokenKind.DotDotDot)) {
-            this.match(depth + 1, TokenKind.DotDotDot);
-        }
+        while (true) {
+            parseInitializerClause(depth + 1);
+            if (this.check(TokenKind.DotDotDot)) {
+                this.match(depth + 1, TokenKind.DotDotDot);
+            }
+
+            if (!this.check(TokenKind.Comma)) return;
 
-        if (this.check(TokenKind.Comma)) {
             this.match(depth + 1, TokenKind.Comma);
-            parseInitializerList(depth + 1);
         }
     }
 
@@ -3432,391 +3448,276 @@ public class SimpleParser implements Parser {
      */
 
     protected boolean checkInitializerList() {
-        return this.checkInitializerClause();
+        return this.check(FirstSets.INITIALIZER_LIST);
     }
 
     protected boolean checkInitializerClause() {
-        return this.checkAssignmentExpression() ||
-                this.checkBracedInitList();
+        return this.check(FirstSets.INITIALIZER_CLAUSE);
     }
 
     protected boolean checkNewDeclarator() {
-        return this.checkPtrOperator() ||
-                this.checkNoPtrNewDeclarator();
+        return this.check(FirstSets.NEW_DECLARATOR);
     }
 
     protected boolean checkNoPtrNewDeclarator() {
-        return this.check(TokenKind.OpenBracket);
+        return this.check(FirstSets.NO_PTR_NEW_DECLARATOR);
     }
 
     protected boolean checkElaboratedTypeSpecifier() {
-        return this.check(TokenKind.EnumKeyword) ||
-                this.checkClassKey();
+        return this.check(FirstSets.ELABORATED_TYPE_SPECIFIER);
     }
 
     protected boolean checkClassKey() {
-        return this.check(new TokenKind[]{
-                TokenKind.ClassKeyword,
-                TokenKind.StructKeyword,
-                TokenKind.UnionKeyword
-        });
+        return this.check(FirstSets.CLASS_KEY);
     }
 
     protected boolean checkSimpleTypeSpecifier() {
-        return this.checkNestedNameSpecifier() ||
-                this.checkTypeName() ||
-                this.checkDeclTypeSpecifier() ||
-                this.check(new TokenKind[]{
-                        TokenKind.ColonColon,
-                        TokenKind.CharKeyword,
-                        TokenKind.Char16TKeyword,
-                        TokenKind.Char32TKeyword,
-                        TokenKind.WcharTKeyword,
-                        TokenKind.ShortKeyword,
-                        TokenKind.IntKeyword,
-                        TokenKind.LongKeyword,
-                        TokenKind.SignedKeyword,
-                        TokenKind.UnsignedKeyword,
-                        TokenKind.FloatKeyword,
-                        TokenKind.DoubleKeyword,
-                        TokenKind.VoidKeyword,
-                        TokenKind.AutoKeyword,
-                        TokenKind.BoolKeyword
-                });
+        return this.check(FirstSets.SIMPLE_TYPE_SPECIFIER);
     }
 
     protected boolean checkDeclTypeSpecifier() {
-        return this.check(TokenKind.DecltypeKeyword);
+        return this.check(FirstSets.DECL_TYPE_SPECIFIER);
     }
 
     protected boolean checkClassSpecifier() {
-        return this.checkClassHead();
+        return this.check(FirstSets.CLASS_SPECIFIER);
     }
 
     protected boolean checkClassHead() {
-        return this.checkClassKey();
+        return this.check(FirstSets.CLASS_HEAD);
     }
 
     protected boolean checkEnumSpecifier() {
-        return this.checkEnumHead();
+        return this.check(FirstSets.ENUM_SPECIFIER);
     }
 
     protected boolean checkEnumHead() {
-        return this.checkEnumKey();
+        return this.check(FirstSets.ENUM_HEAD);
     }
 
     protected boolean checkEnumKey() {
-        return this.check(TokenKind.EnumKeyword);
+        return this.check(FirstSets.ENUM_KEY);
     }
 
     protected boolean checkExpression() {
-        return this.checkAssignmentExpression();
+        return this.check(FirstSets.EXPRESSION);
     }
 
     protected boolean checkAssignmentExpression() {
-        return this.checkConditionalExpression() ||
-                this.checkLogicalOrExpression() ||
-                this.checkThrowExpression();
+        return this.check(FirstSets.ASSIGNMENT_EXPRESSION);
+    }
+
+    protected boolean checkAssignmentOperator() {
+        return this.check(FirstSets.ASSIGNMENT_OPERATOR);
     }
 
     protected boolean checkThrowExpression() {
-        return this.check(TokenKind.ThrowKeyword);
+        return this.check(FirstSets.THROW_EXPRESSION);
     }
 
     protected boolean checkConstantExpression() {
-        return this.checkConditionalExpression();
+        return this.check(FirstSets.CONSTANT_EXPRESSION);
     }
 
     protected boolean checkConditionalExpression() {
-        return this.checkLogicalOrExpression();
+        return this.check(FirstSets.CONDITIONAL_EXPRESSION);
     }
 
     protected boolean checkLogicalOrExpression() {
-        return this.checkLogicalAndExpression();
+        return this.check(FirstSets.LOGICAL_OR_EXPRESSION);
     }
 
     protected boolean checkLogicalAndExpression() {
-        return this.checkInclusiveOrExpression();
+        return this.check(FirstSets.LOGICAL_AND_EXPRESSION);
     }
 
     protected boolean checkInclusiveOrExpression() {
-        return this.checkExclusiveOrExpression();
+        return this.check(FirstSets.INCLUSIVE_OR_EXPRESSION);
     }
 
     protected boolean checkExclusiveOrExpression() {
-        return this.checkAndExpression();
+        return this.check(FirstSets.EXCLUSIVE_OR_EXPRESSION);
     }
 
     protected boolean checkAndExpression() {
-        return this.checkEqualityExpression();
+        return this.check(FirstSets.AND_EXPRESSION);
     }
 
     protected boolean checkEqualityExpression() {
-        return this.checkRelationalExpression();
+        return this.check(FirstSets.EQUALITY_EXPRESSION);
     }
 
     protected boolean checkRelationalExpression() {
-        return this.checkShiftExpression();
+        return this.check(FirstSets.RELATIONAL_EXPRESSION);
     }
 
     protected boolean checkShiftExpression() {
-        return this.checkAdditiveExpression();
+        return this.check(FirstSets.SHIFT_EXPRESSION);
     }
 
     protected boolean checkAdditiveExpression() {
-        return this.checkMultiplcativeExpression();
+        return this.check(FirstSets.ADDITIVE_EXPRESSION);
     }
 
     protected boolean checkMultiplcativeExpression() {
-        return this.checkPmExpression();
+        return this.check(FirstSets.MULTIPLCATIVE_EXPRESSION);
     }
 
     protected boolean checkPmExpression() {
-        return this.checkCastExpression();
+        return this.check(FirstSets.PM_EXPRESSION);
     }
 
     protected boolean checkCastExpression() {
-        return this.checkUnaryExpression();
+        return this.check(FirstSets.CAST_EXPRESSION);
     }
 
     protected boolean checkUnaryExpression() {
-        return this.checkPostfixExpression() ||
-                this.checkNoexceptExpression() ||
-                this.checkNewExpression() ||
-                this.checkUnaryOperator() ||
-                this.checkDeleteExpression() ||
-                this.check(new TokenKind[]{
-                        TokenKind.PlusPlus,
-                        TokenKind.MinusMinus,
-                        TokenKind.AlignofKeyword,
-                        TokenKind.SizeofKeyword
-                });
+        return this.check(FirstSets.UNARY_EXPRESSION);
     }
 
     protected boolean checkNewExpression() {
-        return this.check(TokenKind.ColonColon) ||
-                this.check(TokenKind.NewKeyword);
+        return this.check(FirstSets.NEW_EXPRESSION);
     }
 
     protected boolean checkDeleteExpression() {
-        return this.check(TokenKind.ColonColon) ||
-                this.check(TokenKind.DeleteKeyword);
+        return this.check(FirstSets.DELETE_EXPRESSION);
     }
 
     protected boolean checkNoexceptExpression() {
-        return this.check(TokenKind.NoexceptKeyword);
+        return this.check(FirstSets.NOEXCEPT_EXPRESSION);
     }
 
     protected boolean checkUnaryOperator() {
-        return this.check(new TokenKind[]{
-                TokenKind.Plus,
-                TokenKind.Minus,
-                TokenKind.Asterisk,
-                TokenKind.Ampersand,
-                TokenKind.Exclamation,
-                TokenKind.Tilde
-        });
+        return this.check(FirstSets.UNARY_OPERATOR);
     }
 
     protected boolean checkPostfixExpression() {
-        return this.checkPrimaryExpression() ||
-                this.checkSimpleTypeSpecifier() ||
-                this.checkTypenameSpecifier() ||
-                this.check(new TokenKind[]{
-                        TokenKind.DynamicCastKeyword,
-                        TokenKind.StaticCastKeyword,
-                        TokenKind.StaticCastKeyword,
-                        TokenKind.ReinterpretCastKeyword,
-                        TokenKind.ConstCastKeyword,
-                        TokenKind.TypeidKeyword
-                });
+        return this.check(FirstSets.POSTFIX_EXPRESSION);
     }
 
     protected boolean checkPrimaryExpression() {
-        return this.checkLiteral() ||
-                this.checkIdExpression() ||
-                this.checkLambdaExpression() ||
-                this.check(new TokenKind[]{
-                        TokenKind.ThisKeyword,
-                        TokenKind.OpenParen
-                });
+        return this.check(FirstSets.PRIMARY_EXPRESSION);
     }
 
     protected boolean checkLambdaExpression() {
-        return this.checkLambdaIntroducer();
+        return this.check(FirstSets.LAMBDA_EXPRESSION);
     }
 
     protected boolean checkLambdaIntroducer() {
-        return this.check(TokenKind.OpenBracket);
+        return this.check(FirstSets.LAMBDA_INTRODUCER);
     }
 
     protected boolean checkIdExpression() {
-        return this.checkUnqualifiedId() ||
-                this.checkQualifiedId();
+        return this.check(FirstSets.ID_EXPRESSION);
     }
 
     protected boolean checkUnqualifiedId() {
-        return this.checkOperatorFunctionId() ||
-                this.checkConversionFunctionId() ||
-                this.checkLiteralOperatorId() ||
-                this.checkTemplateId() ||
-                this.check(new TokenKind[]{
-                        TokenKind.Identifier,
-                        TokenKind.Tilde
-                });
+        return this.check(FirstSets.UNQUALIFIED_ID);
     }
 
     protected boolean checkOperatorFunctionId() {
-        return this.check(TokenKind.OperatorKeyword);
+        return this.check(FirstSets.OPERATOR_FUNCTION_ID);
     }
 
     protected boolean checkConversionFunctionId() {
-        return this.check(TokenKind.OperatorKeyword);
+        return this.check(FirstSets.CONVERSION_FUNCTION_ID);
     }
 
     //NOTE: Could possibly use double lookahead to remove ambiguity from conversion-function-id and operator-function-id
     protected boolean checkLiteralOperatorId() {
-        return this.check(TokenKind.OperatorKeyword);
+        return this.check(FirstSets.LITERAL_OPERATOR_ID);
     }
 
     protected boolean checkTemplateId() {
-        return this.checkSimpleTemplateId() ||
-                this.checkOperatorFunctionId() ||
-                this.checkLiteralOperatorId();
+        return this.check(FirstSets.TEMPLATE_ID);
     }
 
     protected boolean checkSimpleTemplateId() {
-        return this.checkTemplateName();
+        return this.check(FirstSets.SIMPLE_TEMPLATE_ID);
     }
 
     protected boolean checkTemplateName() {
-        return this.check(TokenKind.Identifier);
+        return this.check(FirstSets.TEMPLATE_NAME);
     }
 
     protected boolean checkQualifiedId() {
-        return this.check(new TokenKind[] {
-                TokenKind.ColonColon,
-                TokenKind.Identifier
-        });
+        return this.check(FirstSets.QUALIFIED_ID);
     }
 
     protected boolean checkLiteral() {
-        return this.checkUserDefinedLiteral() ||
-                this.check(new TokenKind[]{
-                        TokenKind.IntegerLiteral,
-                        TokenKind.CharacterLiteral,
-                        TokenKind.FloatingLiteral,
-                        TokenKind.StringLiteral,
-                        TokenKind.BooleanLiteral,
-                        TokenKind.PointerLiteral
-                });
+        return this.check(FirstSets.LITERAL);
     }
 
     protected boolean checkUserDefinedLiteral() {
-        return this.check(new TokenKind[]{
-                TokenKind.UserDefinedIntegerLiteral,
-                TokenKind.UserDefinedFloatingLiteral,
-                TokenKind.UserDefinedStringLiteral,
-                TokenKind.UserDefinedCharacterLiteral
-        });
+        return this.check(FirstSets.USER_DEFINED_LITERAL);
     }
 
     protected boolean checkTranslationUnit() {
-        return this.checkDeclarationSequence();
+        return this.check(FirstSets.TRANSLATION_UNIT);
     }
 
     protected boolean checkDeclarationSequence() {
-        return this.checkDeclaration();
+        return this.check(FirstSets.DECLARATION_SEQUENCE);
     }
 
     protected boolean checkDeclaration() {
-        return this.checkEmptyDeclaration() ||
-                this.checkFunctionDefinition() ||
-                this.checkBlockDeclaration() ||
-                this.checkTemplateDeclaration() ||
-                this.checkExplicitInstantiation() ||
-                this.checkExplicitSpecialization() ||
-                this.checkLinkageSpecification() ||
-                this.checkNamespaceDefinition() ||
-                this.checkAttributeDeclaration();
+        return this.check(FirstSets.DECLARATION);
     }
 
     protected boolean checkEmptyDeclaration() {
-        return this.check(TokenKind.Semicolon);
+        return this.check(FirstSets.EMPTY_DECLARATION);
     }
 
     protected boolean checkFunctionDefinition() {
-        return this.checkAttributeSpecifierSequence() ||
-                this.checkDeclSpecifierSequence() ||
-                this.checkDeclarator();
+        return this.check(FirstSets.FUNCTION_DEFINITION);
     }
 
     protected boolean checkDeclSpecifierSequence() {
-        return this.checkDeclSpecifier();
+        return this.check(FirstSets.DECL_SPECIFIER_SEQUENCE);
     }
 
     protected boolean checkDeclSpecifier() {
-        return this.checkStorageClassSpecifier() ||
-                this.checkTypeSpecifier() ||
-                this.checkFunctionSpecifier() ||
-                this.check(new TokenKind[]{
-                        TokenKind.FriendKeyword,
-                        TokenKind.TypedefKeyword,
-                        TokenKind.ConstexprKeyword
-                });
+        return this.check(FirstSets.DECL_SPECIFIER);
     }
 
     protected boolean checkStorageClassSpecifier() {
-        return this.check(new TokenKind[]{
-                TokenKind.AutoKeyword,
-                TokenKind.RegisterKeyword,
-                TokenKind.StaticKeyword,
-                TokenKind.ThreadLocalKeyword,
-                TokenKind.ExternKeyword,
-                TokenKind.MutableKeyword
-        });
+        return this.check(FirstSets.STORAGE_CLASS_SPECIFIER);
     }
 
     protected boolean checkFunctionSpecifier() {
-        return this.check(new TokenKind[]{
-                TokenKind.InlineKeyword,
-                TokenKind.VirtualKeyword,
-                TokenKind.ExplicitKeyword
-        });
+        return this.check(FirstSets.FUNCTION_SPECIFIER);
     }
 
     protected boolean checkAttributeSpecifierSequence() {
-        return this.checkAttributeSpecifier();
+        return this.check(FirstSets.ATTRIBUTE_SPECIFIER_SEQUENCE);
     }
 
     protected boolean checkAttributeSpecifier() {
-        return this.check(TokenKind.OpenBracket) ||
-                this.checkAlignmentSpecifier();
+        return this.check(FirstSets.ATTRIBUTE_SPECIFIER);
     }
 
     protected boolean checkAttributeList() {
-        return this.checkAttribute();
+        return this.check(FirstSets.ATTRIBUTE_LIST);
     }
 
     protected boolean checkAttribute() {
-        return this.check(TokenKind.Identifier);
+        return this.check(FirstSets.ATTRIBUTE);
     }
 
     protected boolean checkAttributeToken() {
-        return this.check(TokenKind.Identifier) ||
-                this.checkAttributeScopedToken();
+        return this.check(FirstSets.ATTRIBUTE_TOKEN);
     }
 
     protected boolean checkAttributeScopedToken() {
-        return this.checkAttributeNamespace();
+        return this.check(FirstSets.ATTRIBUTE_SCOPED_TOKEN);
     }
 
     protected boolean checkAttributeNamespace() {
-        return this.check(TokenKind.Identifier);
+        return this.check(FirstSets.ATTRIBUTE_NAMESPACE);
     }
 
     protected boolean checkAttributeArgumentClause() {
-        return this.check(TokenKind.OpenParen);
+        return this.check(FirstSets.ATTRIBUTE_ARGUMENT_CLAUSE);
     }
 
     protected boolean checkBalancedTokenSequence() {
@@ -3828,258 +3729,195 @@ public class SimpleParser implements Parser {
     }
 
     protected boolean checkAlignmentSpecifier() {
-        return this.check(TokenKind.AlignasKeyword);
+        return this.check(FirstSets.ALIGNMENT_SPECIFIER);
     }
 
     protected boolean checkTypeId() {
-        return this.checkTypeSpecifierSequence();
+        return this.check(FirstSets.TYPE_ID);
     }
 
     protected boolean checkTypeSpecifierSequence() {
-        return this.checkTypeSpecifier();
+        return this.check(FirstSets.TYPE_SPECIFIER_SEQUENCE);
     }
 
     protected boolean checkTypeSpecifier() {
-        return this.checkTrailingTypeSpecifier() ||
-                this.checkClassSpecifier() ||
-                this.checkEnumSpecifier();
+        return this.check(FirstSets.TYPE_SPECIFIER);
     }
 
     protected boolean checkTrailingTypeSpecifier() {
-        return this.checkSimpleTypeSpecifier() ||
-                this.checkElaboratedTypeSpecifier() ||
-                this.checkTypenameSpecifier() ||
-                this.checkCvQualifier();
+        return this.check(FirstSets.TRAILING_TYPE_SPECIFIER);
     }
 
     protected boolean checkCvQualifier() {
-        return this.check(new TokenKind[]{
-                TokenKind.ConstKeyword,
-                TokenKind.VolatileKeyword
-        });
+        return this.check(FirstSets.CV_QUALIFIER);
     }
 
     protected boolean checkTypenameSpecifier() {
-        return this.check(TokenKind.TypenameKeyword);
+        return this.check(FirstSets.TYPENAME_SPECIFIER);
     }
 
     protected boolean checkTemplateArgumentList() {
-        return this.checkConstantExpression() ||
-                this.checkTypeId() ||
-                this.checkIdExpression();
+        return this.check(FirstSets.TEMPLATE_ARGUMENT_LIST);
     }
 
     protected boolean checkAbstractDeclarator() {
-        return this.checkPtrAbstractDeclarator() ||
-                this.checkNoPtrAbstractDeclarator() ||
-                this.checkParametersAndQualifiers() ||
-                this.check(TokenKind.DotDotDot);
+        return this.check(FirstSets.ABSTRACT_DECLARATOR);
     }
 
     protected boolean checkParametersAndQualifiers() {
-        return this.check(TokenKind.OpenParen);
+        return this.check(FirstSets.PARAMETERS_AND_QUALIFIERS);
     }
 
     protected boolean checkPtrAbstractDeclarator() {
-        return this.checkNoPtrAbstractDeclarator() ||
-                this.checkPtrOperator();
+        return this.check(FirstSets.PTR_ABSTRACT_DECLARATOR);
     }
 
     protected boolean checkPtrOperator() {
-        return this.checkNestedNameSpecifier() ||
-                this.check(new TokenKind[]{
-                        TokenKind.Asterisk,
-                        TokenKind.Ampersand,
-                        TokenKind.AmpersandAmpersand,
-                        TokenKind.ColonColon
-                });
+        return this.check(FirstSets.PTR_OPERATOR);
     }
 
     protected boolean checkNestedNameSpecifier() {
-        return this.checkTypeName() ||
-                this.checkNamespaceName() ||
-                this.checkDeclTypeSpecifier() ||
-                this.checkSimpleTemplateId() ||
-                this.check(new TokenKind[] {
-                        TokenKind.Identifier,
-                        TokenKind.TemplateKeyword,
-                });
+        return this.check(FirstSets.NESTED_NAME_SPECIFIER);
     }
 
     protected boolean checkNamespaceName() {
-        return this.checkOriginalNamespaceName() ||
-                this.namespaceAlias();
+        return this.check(FirstSets.NAMESPACE_NAME);
     }
 
     protected boolean checkOriginalNamespaceName() {
-        return this.check(TokenKind.Identifier);
+        return this.check(FirstSets.ORIGINAL_NAMESPACE_NAME);
     }
 
     protected boolean namespaceAlias() {
-        return this.check(TokenKind.Identifier);
+        return this.check(FirstSets.NAMESPACE_ALIAS);
     }
 
     protected boolean checkTypeName() {
-        return this.checkClassName() ||
-                this.checkEnumName() ||
-                this.checkTypedefName() ||
-                this.checkSimpleTemplateId();
+        return this.check(FirstSets.TYPE_NAME);
     }
 
     protected boolean checkTypedefName() {
-        return this.check(TokenKind.Identifier);
+        return this.check(FirstSets.TYPEDEF_NAME);
     }
 
     protected boolean checkEnumName() {
-        return this.check(TokenKind.Identifier);
+        return this.check(FirstSets.ENUM_NAME);
     }
 
     protected boolean checkClassName() {
-        return this.check(TokenKind.Identifier) ||
-                this.checkSimpleTemplateId();
+        return this.check(FirstSets.CLASS_NAME);
     }
 
     protected boolean checkNoPtrAbstractDeclarator() {
-        return this.check(TokenKind.OpenParen) ||
-                this.check(TokenKind.OpenBracket);
-
+        return this.check(FirstSets.NO_PTR_ABSTRACT_DECLARATOR);
     }
 
     protected boolean checkNewInitializer() {
-        return this.check(TokenKind.OpenParen) ||
-                this.checkBracedInitList();
+        return this.check(FirstSets.NEW_INITIALIZER);
     }
 
     protected boolean checkBracedInitList() {
-        return this.check(TokenKind.OpenBrace);
+        return this.check(FirstSets.BRACED_INIT_LIST);
     }
 
     protected boolean checkExpressionList() {
-        return this.checkInitializerList();
+        return this.check(FirstSets.EXPRESSION_LIST);
     }
 
     protected boolean checkConversionDeclarator() {
-        return this.checkPtrOperator();
+        return this.check(FirstSets.CONVERSION_DECLARATOR);
     }
 
     protected boolean checkLambdaDeclarator() {
-        return this.check(TokenKind.OpenParen);
+        return this.check(FirstSets.LAMBDA_DECLARATOR);
     }
 
     protected boolean checkLambdaCapture() {
-        return this.checkCaptureDefault() ||
-                this.checkCaptureList();
+        return this.check(FirstSets.LAMBDA_CAPTURE);
     }
 
     protected boolean checkCaptureList() {
-        return this.checkCapture();
+        return this.check(FirstSets.CAPTURE_LIST);
     }
 
     protected boolean checkCapture() {
-        return this.check(new TokenKind[]{
-                TokenKind.Ampersand,
-                TokenKind.Identifier,
-                TokenKind.ThisKeyword
-        });
+        return this.check(FirstSets.CAPTURE);
     }
 
     protected boolean checkCaptureDefault() {
-        return this.check(new TokenKind[]{
-                TokenKind.Ampersand,
-                TokenKind.Equals
-        });
+        return this.check(FirstSets.CAPTURE_DEFAULT);
     }
 
     protected boolean checkExceptionSpecification() {
-        return this.checkDynamicExceptionSpecification() ||
-                this.checkNoexceptionSpecification();
+        return this.check(FirstSets.EXCEPTION_SPECIFICATION);
     }
 
     protected boolean checkNoexceptionSpecification() {
-        return this.check(TokenKind.NoexceptKeyword);
+        return this.check(FirstSets.NOEXCEPTION_SPECIFICATION);
     }
 
     protected boolean checkDynamicExceptionSpecification() {
-        return this.check(TokenKind.ThrowKeyword);
+        return this.check(FirstSets.DYNAMIC_EXCEPTION_SPECIFICATION);
     }
 
     protected boolean checkTrailingReturnType() {
-        return this.check(TokenKind.MinusGreaterThan);
+        return this.check(FirstSets.TRAILING_RETURN_TYPE);
     }
 
     protected boolean checkTrailingTypeSpecifierSequence() {
-        return this.checkTrailingTypeSpecifier();
+        return this.check(FirstSets.TRAILING_TYPE_SPECIFIER_SEQUENCE);
     }
 
     protected boolean checkCvQualifierSequence() {
-        return this.checkCvQualifier();
+        return this.check(FirstSets.CV_QUALIFIER_SEQUENCE);
     }
 
     protected boolean checkRefQualifier() {
-        return this.check(new TokenKind[]{
-                TokenKind.Ampersand,
-                TokenKind.AmpersandAmpersand
-        });
+        return this.check(FirstSets.REF_QUALIFIER);
     }
 
     protected boolean checkParameterDeclarationList() {
-        return this.checkParameterDeclaration();
+        return this.check(FirstSets.PARAMETER_DECLARATION_LIST);
     }
 
     protected boolean checkParameterDeclaration() {
-        return this.checkAttributeSpecifierSequence() ||
-                this.checkDeclSpecifierSequence();
+        return this.check(FirstSets.PARAMETER_DECLARATION);
     }
 
     protected boolean checkEnumeratorList() {
-        return this.checkEnumeratorDefinition();
+        return this.check(FirstSets.ENUMERATOR_LIST);
     }
 
     protected boolean checkEnumeratorDefinition() {
-        return this.checkEnumerator();
+        return this.check(FirstSets.ENUMERATOR_DEFINITION);
     }
 
     protected boolean checkEnumerator() {
-        return this.check(TokenKind.Identifier);
+        return this.check(FirstSets.ENUMERATOR);
     }
 
     protected boolean checkAccessSpecifier() {
-        return this.check(new TokenKind[]{
-                TokenKind.PrivateKeyword,
-                TokenKind.ProtectedKeyword,
-                TokenKind.PublicKeyword
-        });
+        return this.check(FirstSets.ACCESS_SPECIFIER);
     }
 
     protected boolean checkClassHeadName() {
-        return this.checkClassName() ||
-                this.checkNestedNameSpecifier();
+        return this.check(FirstSets.CLASS_HEAD_NAME);
     }
 
     protected boolean checkBaseTypeSpecifier() {
-        return this.checkClassOrDecltype();
+        return this.check(FirstSets.BASE_TYPE_SPECIFIER);
     }
 
     protected boolean checkClassOrDecltype() {
-        return this.check(TokenKind.ColonColon) ||
-                this.checkDeclTypeSpecifier() ||
-                this.checkNestedNameSpecifier() ||
-                this.checkClassName();
+        return this.check(FirstSets.CLASS_OR_DECLTYPE);
     }
 
     protected boolean checkMemberDeclaratorList() {
-        return this.checkMemberDeclarator();
+        return this.check(FirstSets.MEMBER_DECLARATOR_LIST);
     }
 
     protected boolean checkMemberDeclarator() {
-        return this.checkDeclarator() ||
-                this.check(new TokenKind[] {
-                        TokenKind.Identifier,
-                        TokenKind.Colon
-                }) ||
-                this.checkVirtSpecifierSequence() ||
-                this.braceOrEqualInitializer() ||
-                this.checkPureSpecifier();
+        return this.check(FirstSets.MEMBER_DECLARATOR);
     }
 
     protected boolean checkPureSpecifier() {
@@ -4088,246 +3926,284 @@ public class SimpleParser implements Parser {
     }
 
     protected boolean braceOrEqualInitializer() {
-        return this.check(TokenKind.Equals) ||
-                this.checkBracedInitList();
+        return this.check(FirstSets.BRACE_OR_EQUAL_INITIALIZER);
     }
 
     protected boolean checkVirtSpecifierSequence() {
-        return this.checkVirtSpecifier();
+        return this.check(FirstSets.VIRT_SPECIFIER_SEQUENCE);
     }
 
     protected boolean checkVirtSpecifier() {
-        return this.check(new TokenKind[] {
-                TokenKind.FinalKeyword,
-                TokenKind.ExplicitKeyword
-        });
+        return this.check(FirstSets.VIRT_SPECIFIER);
     }
 
     protected boolean checkDeclarator() {
-        return this.checkPtrOperator() ||
-                this.checkNoptrDeclarator();
+        return this.check(FirstSets.DECLARATOR);
     }
 
     protected boolean checkNoptrDeclarator() {
-        return this.checkDeclaratorId() ||
-                this.check(TokenKind.OpenParen);
+        return this.check(FirstSets.NOPTR_DECLARATOR);
     }
 
     protected boolean checkDeclaratorId() {
-        return this.check(new TokenKind[] {
-                TokenKind.DotDotDot,
-                TokenKind.ColonColon
-            }) ||
-                this.checkIdExpression() ||
-                this.checkNestedNameSpecifier() ||
-                this.checkClassName();
+        return this.check(FirstSets.DECLARATOR_ID);
     }
 
     protected boolean checkUsingDeclaration() {
-        return this.check(TokenKind.UsingKeyword);
+        return this.check(FirstSets.USING_DECLARATION);
     }
 
     protected boolean checkTemplateDeclaration() {
-        return this.check(TokenKind.TemplateKeyword);
+        return this.check(FirstSets.TEMPLATE_DECLARATION);
     }
 
     protected boolean checkStaticAssertDeclaration() {
-        return this.check(TokenKind.StaticAssertKeyword);
+        return this.check(FirstSets.STATIC_ASSERT_DECLARATION);
     }
 
     protected boolean checkFunctionTryBlock() {
-        return this.check(TokenKind.TryKeyword);
+        return this.check(FirstSets.FUNCTION_TRY_BLOCK);
     }
     protected boolean checkHandlerSequence() {
-        return this.checkHandler();
+        return this.check(FirstSets.HANDLER_SEQUENCE);
     }
 
     protected boolean checkHandler() {
-        return this.check(TokenKind.CatchKeyword);
+        return this.check(FirstSets.HANDLER);
     }
 
     protected boolean checkCtorInitializer() {
-        return this.check(TokenKind.Colon);
+        return this.check(FirstSets.CTOR_INITIALIZER);
     }
 
     protected boolean checkStatementSequence() {
-        return this.checkStatement();
+        return this.check(FirstSets.STATEMENT_SEQUENCE);
     }
 
     protected boolean checkCompoundStatement() {
-        return this.check(TokenKind.OpenBrace);
+        return this.check(FirstSets.COMPOUND_STATEMENT);
     }
 
     protected boolean checkStatement() {
-        return this.checkLabeledStatement() ||
-                this.checkExpressionStatement() ||
-                this.checkDeclarationStatement() ||
-                this.checkSelectionStatement() ||
-                this.checkIterationStatement() ||
-                this.checkJumpStatement() ||
-                this.declarationStatement() ||
-                this.checkTryBlock() ||
-                this.checkAttributeSpecifierSequence();
+        return this.check(FirstSets.STATEMENT);
     }
 
     protected boolean checkDeclarationStatement() {
-        return this.checkBlockDeclaration();
+        return this.check(FirstSets.DECLARATION_STATEMENT);
     }
     protected boolean checkLabeledStatement() {
-        return this.checkAttributeSpecifierSequence() ||
-                this.check(new TokenKind[] {
-                TokenKind.Identifier,
-                TokenKind.CaseKeyword,
-                TokenKind.DefaultKeyword
-        });
+        return this.check(FirstSets.LABELED_STATEMENT);
     }
 
     protected boolean checkExpressionStatement() {
-        return this.checkExpression() ||
-                this.check(TokenKind.Semicolon);
+        return this.check(FirstSets.EXPRESSION_STATEMENT);
     }
 
     protected boolean checkSelectionStatement() {
-        return this.check(new TokenKind[] {
-                TokenKind.IfKeyword,
-                TokenKind.SwitchKeyword
-        });
+        return this.check(FirstSets.SELECTION_STATEMENT);
     }
 
     protected boolean checkIterationStatement() {
-        return this.check(new TokenKind[] {
-                TokenKind.WhileKeyword,
-                TokenKind.DoKeyword,
-                TokenKind.ForKeyword
-        });
+        return this.check(FirstSets.ITERATION_STATEMENT);
     }
 
     protected boolean checkJumpStatement() {
-        return this.check(new TokenKind[] {
-                TokenKind.ReturnKeyword,
-                TokenKind.BreakKeyword,
-                TokenKind.GotoKeyword,
-                TokenKind.ContinueKeyword
-        });
+        return this.check(FirstSets.JUMP_STATEMENT);
     }
 
     protected boolean declarationStatement() {
-        return this.checkBlockDeclaration();
+        return this.check(FirstSets.DECLARATION_STATEMENT);
     }
 
     protected boolean checkBlockDeclaration() {
-        return this.checkSimpleDeclaration() ||
-                this.checkAsmDefinition() ||
-                this.checkNamespaceAliasDefinition() ||
-                this.checkUsingDeclaration() ||
-                this.checkUsingDirective() ||
-                this.checkStaticAssertDeclaration() ||
-                this.checkAliasDeclaration() ||
-                this.checkOpaqueEnumDeclaration();
+        return this.check(FirstSets.BLOCK_DECLARATION);
     }
 
     protected boolean checkSimpleDeclaration() {
-        return this.checkAttributeSpecifierSequence() ||
-                this.checkDeclSpecifierSequence() ||
-                this.checkInitDeclaratorList() ||
-                this.check(TokenKind.Semicolon);
+        return this.check(FirstSets.SIMPLE_DECLARATION);
     }
 
     protected boolean checkInitDeclaratorList() {
-        return this.checkInitDeclarator();
+        return this.check(FirstSets.INIT_DECLARATOR_LIST);
     }
 
     protected boolean checkInitDeclarator() {
-        return this.checkDeclarator();
+        return this.check(FirstSets.INIT_DECLARATOR);
     }
 
     protected boolean checkAsmDefinition() {
-        return this.check(TokenKind.AsmKeyword);
+        return this.check(FirstSets.ASM_DEFINITION);
     }
 
     protected boolean checkNamespaceAliasDefinition() {
-        return this.check(TokenKind.NamespaceKeyword);
+        return this.check(FirstSets.NAMESPACE_ALIAS_DEFINITION);
     }
 
     protected boolean checkUsingDirective() {
-        return this.checkAttributeSpecifierSequence() ||
-            this.check(TokenKind.UsingKeyword);
+        return this.check(FirstSets.USING_DIRECTIVE);
     }
 
     protected boolean checkAliasDeclaration() {
-        return this.check(TokenKind.UsingKeyword);
+        return this.check(FirstSets.ALIAS_DECLARATION);
     }
 
     protected boolean checkOpaqueEnumDeclaration() {
-        return this.checkEnumKey();
+        return this.check(FirstSets.OPAQUE_ENUM_DECLARATION);
     }
 
     protected boolean checkTryBlock() {
-        return this.check(TokenKind.TryKeyword);
+        return this.check(FirstSets.TRY_BLOCK);
     }
 
     protected boolean checkCondition() {
-        return this.checkAttributeSpecifierSequence() ||
-                this.checkExpression() ||
-                this.checkDeclSpecifierSequence();
+        return this.check(FirstSets.CONDITION);
     }
 
     protected boolean checkEnumBase() {
-        return this.check(TokenKind.Colon);
+        return this.check(FirstSets.ENUM_BASE);
     }
 
     protected boolean checkInitializer() {
-        return this.checkBraceOrEqualInitializer() ||
-                this.check(TokenKind.OpenParen);
+        return this.check(FirstSets.INITIALIZER);
     }
 
     protected boolean checkBraceOrEqualInitializer() {
-        return this.checkBracedInitList() ||
-                this.check(TokenKind.Equals);
+        return this.check(FirstSets.BRACE_OR_EQUAL_INITIALIZER);
     }
 
     protected boolean checkExplicitInstantiation() {
-        return this.check(new TokenKind[] {
-                TokenKind.ExternKeyword,
-                TokenKind.TemplateKeyword,
-        });
+        return this.check(FirstSets.EXPLICIT_INSTANTIATION);
     }
 
     protected boolean checkExplicitSpecialization() {
-        return this.check(TokenKind.TemplateKeyword);
+        return this.check(FirstSets.EXPLICIT_SPECIALIZATION);
     }
 
     protected boolean checkLinkageSpecification() {
-        return this.check(TokenKind.ExternKeyword);
+        return this.check(FirstSets.LINKAGE_SPECIFICATION);
     }
 
     protected boolean checkNamespaceDefinition() {
-        return this.checkNamedNamespaceDefinition() ||
-                this.checkUnnamedNamespaceDefinition();
+        return this.check(FirstSets.NAMESPACE_DEFINITION);
     }
 
     protected boolean checkUnnamedNamespaceDefinition() {
-        return this.check(TokenKind.InlineKeyword) ||
-                this.check(TokenKind.NamespaceKeyword);
+        return this.check(FirstSets.UNNAMED_NAMESPACE_DEFINITION);
     }
 
     protected boolean checkNamedNamespaceDefinition() {
-        return this.checkOriginalNamespaceDefinition() ||
-                this.checkExtensionNamespaceDefinition();
+        return this.check(FirstSets.NAMED_NAMESPACE_DEFINITION);
     }
 
     protected boolean checkOriginalNamespaceDefinition() {
-        return this.check(TokenKind.InlineKeyword) ||
-                this.check(TokenKind.NamespaceKeyword);
+        return this.check(FirstSets.ORIGINAL_NAMESPACE_DEFINITION);
     }
 
     protected boolean checkExtensionNamespaceDefinition() {
-        return this.check(TokenKind.InlineKeyword) ||
-                this.check(TokenKind.NamespaceKeyword);
+        return this.check(FirstSets.EXTENSION_NAMESPACE_DEFINITION);
     }
 
     protected boolean checkAttributeDeclaration() {
-        return this.checkAttributeSpecifierSequence();
+        return this.check(FirstSets.ATTRIBUTE_DECLARATION);
     }
 
+    /*
+        Open addressing map from a memo key to its Memo, so lookups box nothing. Clearing bumps the
+        generation instead of touching the slots, entries of older generations count as empty.
+    */
+    protected static class MemoTable {
+        private long[] keys = new long[256];
+        private int[] generations = new int[256];
+        private Memo[] values = new Memo[256];
+        private int generation = 1;
+        private int size;
+
+        Memo get(long key) {
+            int mask = this.keys.length - 1;
+            for(int slot = hash(key) & mask; this.generations[slot] == this.generation; slot = (slot + 1) & mask) {
+                if(this.keys[slot] == key) {
+                    return this.values[slot];
+                }
+            }
+            return null;
+        }
+
+        void put(long key, Memo value) {
+            if(2 * (this.size + 1) > this.keys.length) {
+                this.grow();
+            }
+
+            int mask = this.keys.length - 1;
+            int slot = hash(key) & mask;
+            while(this.generations[slot] == this.generation && this.keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+
+            if(this.generations[slot] != this.generation) {
+                this.generations[slot] = this.generation;
+                this.keys[slot] = key;
+                this.size++;
+            }
+            this.values[slot] = value;
+        }
+
+        void clear() {
+            if(this.size > 0) {
+                this.generation++;
+                this.size = 0;
+            }
+        }
+
+        private void grow() {
+            long[] keys = this.keys;
+            int[] generations = this.generations;
+            Memo[] values = this.values;
+
+            this.keys = new long[keys.length * 2];
+            this.generations = new int[keys.length * 2];
+            this.values = new Memo[keys.length * 2];
+            this.size = 0;
+            for(int i = 0; i < keys.length; i++) {
+                if(generations[i] == this.generation) {
+                    this.put(keys[i], values[i]);
+                }
+            }
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h >>> 32);
+        }
+    }
+
+    protected static class Memo {
+        //Position after the rule, -1 if it failed
+        final int end;
+        //Nodes the rule pushed, without the indentation of its depth
+        final String[] nodes;
+
+        //The parser's failure when the rule failed
+        final int failurePos;
+        final String failureMessage;
+        final TokenKind failureKind;
+        final TokenKind[] failureKinds;
+
+        Memo(int end, String[] nodes) {
+            this.end = end;
+            this.nodes = nodes;
+            this.failurePos = -1;
+            this.failureMessage = null;
+            this.failureKind = null;
+            this.failureKinds = null;
+        }
+
+        Memo(SimpleParser failed) {
+            this.end = -1;
+            this.nodes = null;
+            this.failurePos = failed.failurePos;
+            this.failureMessage = failed.failureMessage;
+            this.failureKind = failed.failureKind;
+            this.failureKinds = failed.failureKinds;
+        }
+    }
 }
@@ -0,0 +1,348 @@
+package org.bromano.cplusplusparser.preprocessor;
+
+import java.util.Arrays;
+
+/*
+    Splits a file at its conditional directives (#if, #ifdef, #ifndef, #elif, #else, #endif) and the
+    directives that take free text (#error, #warning, #pragma, #ident, #line) without tokenizing it.
+    The file becomes a list of pieces: each such directive line is a piece, and so is the text between
+    two of them. Free text does not have to lex, so the preprocessor reads those lines raw. The preprocessor lexes a body piece only if it is in an active group,
+    so code for other targets is only ever looked at by this scanner.
+
+    Only line-leading '#' can start a directive, so the scanner looks at the start of each line and
+    otherwise only tracks what can hide a line start: comments, string, character and raw string
+    literals, and spliced lines. Quotes left open end at the end of the line, as they do when a
+    compiler skips a group.
+*/
+final class ConditionalScanner {
+    static final byte BODY = 0;
+    static final byte IF = 1;
+    static final byte IFDEF = 2;
+    static final byte IFNDEF = 3;
+    static final byte ELIF = 4;
+    static final byte ELSE = 5;
+    static final byte ENDIF = 6;
+    static final byte TEXT = 7;
+
+    private static final int MAX_DELIMITER_LENGTH = 16;
+
+    private final CharSequence text;
+    private final int length;
+    private int pos;
+
+    //Piece i is [starts[i], starts[i + 1])
+    private int[] starts = new int[16];
+    private byte[] kinds = new byte[16];
+    private int count;
+
+    //Range of the text that is not whitespace or comments, used to find include guards
+    private int firstSignificant = -1;
+    private int lastSignificantEnd;
+
+    ConditionalScanner(CharSequence text) {
+        this.text = text;
+        this.length = text.length();
+    }
+
+    void scan() {
+        int bodyStart = 0;
+
+        while(this.pos < this.length) {
+            this.skipBlanks();
+
+            if(this.pos < this.length && this.isHash()) {
+                int hash = this.pos;
+                this.markSignificant(hash, hash + 1);
+                this.pos += this.text.charAt(hash) == '#' ? 1 : 2;
+                this.skipBlanks();
+
+                byte kind = this.directiveKind();
+                this.skipLine();
+                if(kind != BODY) {
+                    if(hash > bodyStart) {
+                        this.addPiece(bodyStart, BODY);
+                    }
+                    this.addPiece(hash, kind);
+                    bodyStart = this.pos;
+                }
+            } else {
+                this.skipLine();
+            }
+        }
+
+        if(bodyStart < this.length || this.count == 0) {
+            this.addPiece(bodyStart, BODY);
+        }
+
+        this.starts = Arrays.copyOf(this.starts, this.count + 1);
+        this.starts[this.count] = this.length;
+        this.kinds = Arrays.copyOf(this.kinds, this.count);
+    }
+
+    //Where the operands of the directive whose '#' is at hash start, just past its name
+    int findOperands(int hash) {
+        this.pos = hash + (this.text.charAt(hash) == '#' ? 1 : 2);
+        this.skipBlanks();
+        this.directiveKind();
+        return this.pos;
+    }
+
+    int[] getStarts() {
+        return this.starts;
+    }
+
+    byte[] getKinds() {
+        return this.kinds;
+    }
+
+    int getFirstSignificant() {
+        return this.firstSignificant;
+    }
+
+    int getLastSignificantEnd() {
+        return this.lastSignificantEnd;
+    }
+
+    private void addPiece(int start, byte kind) {
+        if(this.count == this.kinds.length) {
+            this.starts = Arrays.copyOf(this.starts, this.count * 2);
+            this.kinds = Arrays.copyOf(this.kinds, this.count * 2);
+        }
+
+        this.starts[this.count] = start;
+        this.kinds[this.count] = kind;
+        this.count++;
+    }
+
+    private void markSignificant(int start, int end) {
+        if(this.firstSignificant < 0) {
+            this.firstSignificant = start;
+        }
+        this.lastSignificantEnd = end;
+    }
+
+    private boolean isHash() {
+        char ch = this.text.charAt(this.pos);
+        return ch == '#' || (ch == '%' && this.pos + 1 < this.length && this.text.charAt(this.pos + 1) == ':');
+    }
+
+    private byte directiveKind() {
+        int start = this.pos;
+        while(this.pos < this.length && isIdentifierChar(this.text.charAt(this.pos))) {
+            this.pos++;
+        }
+
+        switch(this.text.subSequence(start, this.pos).toString()) {
+            case "if":
+                return IF;
+            case "ifdef":
+                return IFDEF;
+            case "ifndef":
+                return IFNDEF;
+            case "elif":
+                return ELIF;
+            case "else":
+                return ELSE;
+            case "endif":
+                return ENDIF;
+            case "error":
+            case "warning":
+            case "pragma":
+            case "ident":
+            case "line":
+                return TEXT;
+            default:
+                return BODY;
+        }
+    }
+
+    //Skips whitespace, block comments and splices within the line
+    private void skipBlanks() {
+        while(this.pos < this.length) {
+            char ch = this.text.charAt(this.pos);
+            if(ch == ' ' || ch == '\t' || ch == '\r' || ch == '\f' || ch == 0x0B) {
+                this.pos++;
+            } else if(ch == '\\' && this.isSplice(this.pos)) {
+                this.skipSplice();
+            } else if(ch == '/' && this.peek(1) == '*') {
+                this.skipBlockComment();
+            } else {
+                return;
+            }
+        }
+    }
+
+    //Moves past the newline ending the logical line
+    private void skipLine() {
+        while(this.pos < this.length) {
+            char ch = this.text.charAt(this.pos);
+            switch(ch) {
+                case '\n':
+                    this.pos++;
+                    return;
+                case ' ':
+                case '\t':
+                case '\r':
+                case '\f':
+                case 0x0B:
+                    this.pos++;
+                    break;
+                case '\\':
+                    if(this.isSplice(this.pos)) {
+                        this.skipSplice();
+                    } else {
+                        this.markSignificant(this.pos, this.pos + 1);
+                        this.pos++;
+                    }
+                    break;
+                case '/':
+                    if(this.peek(1) == '/') {
+                        this.skipLineComment();
+                    } else if(this.peek(1) == '*') {
+                        this.skipBlockComment();
+                    } else {
+                        this.markSignificant(this.pos, this.pos + 1);
+                        this.pos++;
+                    }
+                    break;
+                case '"': {
+                    int start = this.pos;
+                    if(!this.isRawStringStart() || !this.skipRawString()) {
+                        this.skipQuoted('"');
+                    }
+                    this.markSignificant(start, this.pos);
+                    break;
+                }
+                case '\'': {
+                    int start = this.pos;
+                    this.skipQuoted('\'');
+                    this.markSignificant(start, this.pos);
+                    break;
+                }
+                default:
+                    this.markSignificant(this.pos, this.pos + 1);
+                    this.pos++;
+            }
+        }
+    }
+
+    private char peek(int offset) {
+        int index = this.pos + offset;
+        return index < this.length ? this.text.charAt(index) : '\0';
+    }
+
+    private boolean isSplice(int index) {
+        if(index + 1 < this.length && this.text.charAt(index + 1) == '\n') {
+            return true;
+        }
+        return index + 2 < this.length && this.text.charAt(index + 1) == '\r' && this.text.charAt(index + 2) == '\n';
+    }
+
+    private void skipSplice() {
+        this.pos += this.text.charAt(this.pos + 1) == '\n' ? 2 : 3;
+    }
+
+    //A spliced line comment continues on the next line
+    private void skipLineComment() {
+        while(this.pos < this.length) {
+            char ch = this.text.charAt(this.pos);
+            if(ch == '\n') {
+                return;
+            } else if(ch == '\\' && this.isSplice(this.pos)) {
+                this.skipSplice();
+            } else {
+                this.pos++;
+            }
+        }
+    }
+
+    private void skipBlockComment() {
+        this.pos += 2;
+        while(this.pos < this.length) {
+            if(this.text.charAt(this.pos) == '*' && this.peek(1) == '/') {
+                this.pos += 2;
+                return;
+            }
+            this.pos++;
+        }
+    }
+
+    private void skipQuoted(char quote) {
+        this.pos++;
+        while(this.pos < this.length) {
+            char ch = this.text.charAt(this.pos);
+            if(ch == quote) {
+                this.pos++;
+                return;
+            } else if(ch == '\n') {
+                return;
+            } else if(ch == '\\' && this.isSplice(this.pos)) {
+                this.skipSplice();
+            } else if(ch == '\\') {
+                this.pos += 2;
+            } else {
+                this.pos++;
+            }
+        }
+        this.pos = Math.min(this.pos, this.length);
+    }
+
+    //R", u8R", uR", UR" or LR" not preceded by more of an identifier
+    private boolean isRawStringStart() {
+        int index = this.pos - 1;
+        if(index < 0 || this.text.charAt(index) != 'R') {
+            return false;
+        }
+
+        if(index >= 2 && this.text.charAt(index - 2) == 'u' && this.text.charAt(index - 1) == '8') {
+            index -= 2;
+        } else if(index >= 1 && "uUL".indexOf(this.text.charAt(index - 1)) >= 0) {
+            index--;
+        }
+        return index == 0 || !isIdentifierChar(this.text.charAt(index - 1));
+    }
+
+    //False if the delimiter is malformed, the quote is then skipped like a plain string
+    private boolean skipRawString() {
+        int delimiterStart = this.pos + 1;
+        int open = delimiterStart;
+        while(open < this.length && open - delimiterStart <= MAX_DELIMITER_LENGTH && this.text.charAt(open) != '(') {
+            char ch = this.text.charAt(open);
+            if(ch == ' ' || ch == ')' || ch == '\\' || ch == '\t' || ch == '\n' || ch == '"') {
+                return false;
+            }
+            open++;
+        }
+        if(open >= this.length || this.text.charAt(open) != '(') {
+            return false;
+        }
+
+        int delimiterLength = open - delimiterStart;
+        for(int i = open + 1; i < this.length; i++) {
+            if(this.text.charAt(i) == ')' && this.closesRawString(i + 1, delimiterStart, delimiterLength)) {
+                this.pos = i + delimiterLength + 2;
+                return true;
+            }
+        }
+
+        this.pos = this.length;
+        return true;
+    }
+
+    private boolean closesRawString(int index, int delimiterStart, int delimiterLength) {
+        if(index + delimiterLength >= this.length) {
+            return false;
+        }
+
+        for(int i = 0; i < delimiterLength; i++) {
+            if(this.text.charAt(index + i) != this.text.charAt(delimiterStart + i)) {
+                return false;
+            }
+        }
+        return this.text.charAt(index + delimiterLength) == '"';
+    }
+
+    static boolean isIdentifierChar(char ch) {
+        return (ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z') || (ch >= '0' && ch <= '9') || ch == '_' || ch > 0x7F;
+    }
+}
@@ -0,0 +1,355 @@
+package org.bromano.cplusplusparser.preprocessor;
+
+import org.bromano.cplusplusparser.scanner.TokenKind;
+
+import java.util.List;
+
+/*
+    Evaluates the controlling expression of #if and #elif after macro expansion and 'defined'.
+    Values are 64-bit and signed unless a u-suffixed or too large literal makes them unsigned,
+    identifiers that are left evaluate to 0. Operands that && || and ?: do not evaluate are still
+    parsed, but cannot fail on a division by zero.
+*/
+class ExpressionEvaluator {
+    private final List<PreprocessingToken> tokens;
+    private final Preprocessor preprocessor;
+    //Name of the #if or #elif, where an empty expression is reported
+    private final PreprocessingToken directive;
+    private int pos;
+    //Greater than 0 while parsing an operand that is not evaluated
+    private int skipDepth;
+    //Whether the value returned by the last parse method is unsigned
+    private boolean unsigned;
+
+    ExpressionEvaluator(List<PreprocessingToken> tokens, Preprocessor preprocessor, PreprocessingToken directive) {
+        this.tokens = tokens;
+        this.preprocessor = preprocessor;
+        this.directive = directive;
+    }
+
+    long evaluate() throws PreprocessorException {
+        if(this.tokens.isEmpty()) {
+            throw this.preprocessor.error("Expected an expression", this.directive);
+        }
+
+        long value = this.parseConditional();
+        if(this.pos < this.tokens.size()) {
+            throw this.preprocessor.error("Unexpected token in expression", this.tokens.get(this.pos));
+        }
+        return value;
+    }
+
+    private TokenKind peek() {
+        return this.pos < this.tokens.size() ? this.tokens.get(this.pos).kind : TokenKind.EndOfFile;
+    }
+
+    private PreprocessingToken current() {
+        return this.pos < this.tokens.size() ? this.tokens.get(this.pos) : this.tokens.get(this.tokens.size() - 1);
+    }
+
+    private void expect(TokenKind kind) throws PreprocessorException {
+        if(this.peek() != kind) {
+            throw this.preprocessor.error("Expected: " + kind.name(), this.current());
+        }
+        this.pos++;
+    }
+
+    private long parseConditional() throws PreprocessorException {
+        long condition = this.parseBinary(0);
+        if(this.peek() != TokenKind.Question) {
+            return condition;
+        }
+
+        this.pos++;
+        //Only the branch that is taken is evaluated
+        boolean taken = condition != 0;
+        this.skip(!taken);
+        long whenTrue = this.parseConditional();
+        boolean trueUnsigned = this.unsigned;
+        this.expect(TokenKind.Colon);
+        this.unskip(!taken);
+        this.skip(taken);
+        long whenFalse = this.parseConditional();
+        this.unskip(taken);
+        this.unsigned |= trueUnsigned;
+        return condition != 0 ? whenTrue : whenFalse;
+    }
+
+    //Binding strength of a binary operator, 0 when the kind is not one
+    private static int precedence(TokenKind kind) {
+        switch(kind) {
+            case BarBar:
+            case Or:
+                return 1;
+            case AmpersandAmpersand:
+            case And:
+                return 2;
+            case Bar:
+            case Bitor:
+                return 3;
+            case Caret:
+            case Xor:
+                return 4;
+            case Ampersand:
+            case Bitand:
+                return 5;
+            case EqualsEquals:
+            case ExclamationEquals:
+            case NotEq:
+                return 6;
+            case LessThan:
+            case GreaterThan:
+            case LessThanEquals:
+            case GreaterThanEquals:
+                return 7;
+            case LessThanLessThan:
+            case GreaterThanGreaterThan:
+                return 8;
+            case Plus:
+            case Minus:
+                return 9;
+            case Asterisk:
+            case Slash:
+            case Percent:
+                return 10;
+            default:
+                return 0;
+        }
+    }
+
+    private long parseBinary(int minPrecedence) throws PreprocessorException {
+        long left = this.parseUnary();
+
+        while(true) {
+            PreprocessingToken operator = this.current();
+            int precedence = precedence(this.peek());
+            if(precedence == 0 || precedence <= minPrecedence) {
+                return left;
+            }
+
+            this.pos++;
+            boolean leftUnsigned = this.unsigned;
+            //The right side of a decided && or || is not evaluated
+            boolean skip = left == 0 ? isAnd(operator.kind) : isOr(operator.kind);
+            this.skip(skip);
+            long right = this.parseBinary(precedence);
+            this.unskip(skip);
+            left = this.apply(operator, left, right, leftUnsigned);
+        }
+    }
+
+    private void skip(boolean skip) {
+        if(skip) {
+            this.skipDepth++;
+        }
+    }
+
+    private void unskip(boolean skip) {
+        if(skip) {
+            this.skipDepth--;
+        }
+    }
+
+    private static boolean isAnd(TokenKind kind) {
+        return kind == TokenKind.AmpersandAmpersand || kind == TokenKind.And;
+    }
+
+    private static boolean isOr(TokenKind kind) {
+        return kind == TokenKind.BarBar || kind == TokenKind.Or;
+    }
+
+    //Applies a binary operator, this.unsigned holds the signedness of the right operand and then of the result
+    private long apply(PreprocessingToken operator, long left, long right, boolean leftUnsigned) throws PreprocessorException {
+        boolean unsigned = leftUnsigned || this.unsigned;
+        switch(operator.kind) {
+            case LessThanLessThan:
+            case GreaterThanGreaterThan:
+                this.unsigned = leftUnsigned;
+                break;
+            case BarBar:
+            case Or:
+            case AmpersandAmpersand:
+            case And:
+            case EqualsEquals:
+            case ExclamationEquals:
+            case NotEq:
+            case LessThan:
+            case GreaterThan:
+            case LessThanEquals:
+            case GreaterThanEquals:
+                this.unsigned = false;
+                break;
+            default:
+                this.unsigned = unsigned;
+        }
+
+        switch(operator.kind) {
+            case BarBar:
+            case Or:
+                return left != 0 || right != 0 ? 1 : 0;
+            case AmpersandAmpersand:
+            case And:
+                return left != 0 && right != 0 ? 1 : 0;
+            case Bar:
+            case Bitor:
+                return left | right;
+            case Caret:
+            case Xor:
+                return left ^ right;
+            case Ampersand:
+            case Bitand:
+                return left & right;
+            case EqualsEquals:
+                return left == right ? 1 : 0;
+            case ExclamationEquals:
+            case NotEq:
+                return left != right ? 1 : 0;
+            case LessThan:
+                return compare(left, right, unsigned) < 0 ? 1 : 0;
+            case GreaterThan:
+                return compare(left, right, unsigned) > 0 ? 1 : 0;
+            case LessThanEquals:
+                return compare(left, right, unsigned) <= 0 ? 1 : 0;
+            case GreaterThanEquals:
+                return compare(left, right, unsigned) >= 0 ? 1 : 0;
+            case LessThanLessThan:
+                return left << right;
+            case GreaterThanGreaterThan:
+                return leftUnsigned ? left >>> right : left >> right;
+            case Plus:
+                return left + right;
+            case Minus:
+                return left - right;
+            case Asterisk:
+                return left * right;
+            default:
+                if(right == 0) {
+                    if(this.skipDepth > 0) {
+                        return 0;
+                    }
+                    throw this.preprocessor.error("Division by zero in preprocessor expression", operator);
+                }
+                if(unsigned) {
+                    return operator.kind == TokenKind.Slash ? Long.divideUnsigned(left, right) : Long.remainderUnsigned(left, right);
+                }
+                return operator.kind == TokenKind.Slash ? left / right : left % right;
+        }
+    }
+
+    private static int compare(long left, long right, boolean unsigned) {
+        return unsigned ? Long.compareUnsigned(left, right) : Long.compare(left, right);
+    }
+
+    private long parseUnary() throws PreprocessorException {
+        PreprocessingToken token = this.current();
+        switch(this.peek()) {
+            case Plus:
+                this.pos++;
+                return this.parseUnary();
+            case Minus:
+                this.pos++;
+                return -this.parseUnary();
+            case Exclamation:
+            case Not: {
+                this.pos++;
+                long value = this.parseUnary();
+                this.unsigned = false;
+                return value == 0 ? 1 : 0;
+            }
+            case Tilde:
+            case Compl:
+                this.pos++;
+                return ~this.parseUnary();
+            case OpenParen: {
+                this.pos++;
+                long value = this.parseConditional();
+                this.expect(TokenKind.CloseParen);
+                return value;
+            }
+            case IntegerLiteral: {
+                this.pos++;
+                long value = parseInteger(token);
+                this.unsigned = value < 0 || isUnsigned(token);
+                return value;
+            }
+            case CharacterLiteral:
+                this.pos++;
+                this.unsigned = false;
+                return parseCharacter(token);
+            case TrueKeyword:
+                this.pos++;
+                this.unsigned = false;
+                return 1;
+            case EndOfFile:
+                throw this.preprocessor.error("Expected an expression", token);
+            default:
+                if(token.symbol >= 0) {
+                    this.pos++;
+                    this.unsigned = false;
+                    return 0;
+                }
+                throw this.preprocessor.error("Unexpected token in expression", token);
+        }
+    }
+
+    private static long parseInteger(PreprocessingToken token) {
+        CharSequence text = token.file.text;
+        int start = token.start;
+        int end = token.end;
+        while(end > start && "uUlL".indexOf(text.charAt(end - 1)) >= 0) {
+            end--;
+        }
+
+        int radix = 10;
+        if(end - start > 2 && text.charAt(start) == '0' && (text.charAt(start + 1) | 0x20) == 'x') {
+            radix = 16;
+            start += 2;
+        } else if(end - start > 1 && text.charAt(start) == '0') {
+            radix = 8;
+        }
+
+        long value = 0;
+        for(int i = start; i < end; i++) {
+            value = value * radix + Character.digit(text.charAt(i), radix);
+        }
+        return value;
+    }
+
+    private static boolean isUnsigned(PreprocessingToken token) {
+        CharSequence text = token.file.text;
+        for(int i = token.end - 1; i > token.start && "uUlL".indexOf(text.charAt(i)) >= 0; i--) {
+            if((text.charAt(i) | 0x20) == 'u') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //Plain and simply escaped character literals, the value of anything else is its first char
+    private static long parseCharacter(PreprocessingToken token) {
+        CharSequence text = token.file.text;
+        int quote = token.start;
+        while(text.charAt(quote) != '\'') {
+            quote++;
+        }
+
+        char ch = text.charAt(quote + 1);
+        if(ch != '\\') {
+            return ch;
+        }
+
+        char escaped = text.charAt(quote + 2);
+        switch(escaped) {
+            case 'n':
+                return '\n';
+            case 't':
+                return '\t';
+            case 'r':
+                return '\r';
+            case '0':
+                return 0;
+            default:
+                return escaped;
+        }
+    }
+}
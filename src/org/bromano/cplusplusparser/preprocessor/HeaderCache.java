@@ -0,0 +1,65 @@
+package org.bromano.cplusplusparser.preprocessor;
+
+import org.bromano.cplusplusparser.scanner.Scanner;
+import org.bromano.cplusplusparser.scanner.SourceLoader;
+import org.bromano.cplusplusparser.scanner.SymbolTable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+    Lexed headers shared by every preprocessor of the process (or of a batch), so a header included
+    by many translation units is read and lexed once.
+
+    Entries are keyed by canonical path and checked against the file's last modified time and size
+    before use, a header that changed on disk is lexed again. Entries are immutable, lookups do not
+    lock, and two threads missing on the same header at once both lex it and one result is kept.
+
+    Token symbols are ids of the cache's SymbolTable, so only preprocessors using that table
+    (the default) read from the cache.
+*/
+public class HeaderCache {
+    private static final HeaderCache SHARED = new HeaderCache(new SymbolTable());
+
+    private final SymbolTable symbols;
+    private final ConcurrentHashMap<Path, LexedFile> entries = new ConcurrentHashMap<>();
+
+    public HeaderCache(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    public static HeaderCache getShared() {
+        return SHARED;
+    }
+
+    public SymbolTable getSymbolTable() {
+        return this.symbols;
+    }
+
+    public int size() {
+        return this.entries.size();
+    }
+
+    public void clear() {
+        this.entries.clear();
+    }
+
+    //Path must be canonical, the scanner must keep directives and use the cache's symbol table
+    LexedFile get(Path path, Scanner scanner) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        long modified = attributes.lastModifiedTime().toMillis();
+        long size = attributes.size();
+
+        LexedFile file = this.entries.get(path);
+        if(file != null && file.modified == modified && file.size == size) {
+            return file;
+        }
+
+        file = LexedFile.lex(SourceLoader.loadUtf8File(path), scanner, modified, size);
+        this.entries.put(path, file);
+        return file;
+    }
+}
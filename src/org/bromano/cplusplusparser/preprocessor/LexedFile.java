@@ -0,0 +1,246 @@
+package org.bromano.cplusplusparser.preprocessor;
+
+import org.bromano.cplusplusparser.scanner.Scanner;
+import org.bromano.cplusplusparser.scanner.ScannerException;
+import org.bromano.cplusplusparser.scanner.TokenBuffer;
+import org.bromano.cplusplusparser.scanner.TokenKind;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/*
+    The run-independent part of a source file: its text split at conditional directives (see
+    ConditionalScanner), the tokens of the pieces lexed so far and the include guard if it has one.
+
+    A piece is lexed, with '#' kept, the first time a run needs it, so pieces that are never in an
+    active group are never lexed. Lexed pieces are never changed and are published through an
+    AtomicReferenceArray, so a HeaderCache can hand the same instance to preprocessors on any thread.
+*/
+final class LexedFile {
+    final CharSequence text;
+    //Symbol of X for a file wrapped in #ifndef X ... #endif, -1 otherwise
+    final int guard;
+    //Last modified time and size the text was read with, only used for cached headers
+    final long modified;
+    final long size;
+
+    private final int[] starts;
+    private final byte[] kinds;
+    private final AtomicReferenceArray<Piece> pieces;
+
+    private LexedFile(CharSequence text, Scanner scanner, long modified, long size) {
+        this.text = text;
+        this.modified = modified;
+        this.size = size;
+
+        ConditionalScanner conditionals = new ConditionalScanner(text);
+        conditionals.scan();
+        this.starts = conditionals.getStarts();
+        this.kinds = conditionals.getKinds();
+        this.pieces = new AtomicReferenceArray<>(this.kinds.length);
+        this.guard = this.findGuard(conditionals, scanner);
+    }
+
+    //The scanner has to keep directives
+    static LexedFile lex(CharSequence text, Scanner scanner, long modified, long size) {
+        return new LexedFile(text, scanner, modified, size);
+    }
+
+    int getPieceCount() {
+        return this.kinds.length;
+    }
+
+    //ConditionalScanner.BODY, TEXT or the kind of conditional directive
+    byte getPieceKind(int piece) {
+        return this.kinds[piece];
+    }
+
+    int getPieceStart(int piece) {
+        return this.starts[piece];
+    }
+
+    Piece getPiece(int piece, Scanner scanner) throws ScannerException {
+        Piece lexed = this.pieces.get(piece);
+        if(lexed != null) {
+            return lexed;
+        }
+
+        lexed = this.lexPiece(this.starts[piece], this.starts[piece + 1], this.kinds[piece] != ConditionalScanner.BODY, scanner);
+        return this.pieces.compareAndSet(piece, null, lexed) ? lexed : this.pieces.get(piece);
+    }
+
+    /*
+        A body ends at the '#' of a directive, so scanning stops at that token. A directive line is
+        followed by a body that may not even lex, so it is scanned from a copy ending with the line.
+    */
+    private Piece lexPiece(int start, int end, boolean directive, Scanner scanner) throws ScannerException {
+        CharSequence source = directive ? new Prefix(this.text, end) : this.text;
+        TokenBuffer tokens = new TokenBuffer(this.text, Math.max(4, (end - start) / 4));
+        TokenBuffer scratch = new TokenBuffer(this.text, 1);
+
+        scanner.setText(source);
+        scanner.seek(start);
+        while(true) {
+            scratch.clear();
+            TokenKind kind = scanner.scanInto(scratch);
+            if(kind == TokenKind.EndOfFile || scratch.getStart(0) >= end) {
+                break;
+            }
+            tokens.addRange(scratch, 0, 1);
+        }
+        tokens.add(TokenKind.EndOfFile, end, end);
+
+        return new Piece(tokens, findLineStarts(this.text, start, tokens));
+    }
+
+    /*
+        A token starts a line if a newline precedes it, ignoring newlines inside block comments
+        and spliced lines, as only those end a directive. Pieces always start at a line start.
+    */
+    static boolean[] findLineStarts(CharSequence text, int from, TokenBuffer tokens) {
+        int size = tokens.size();
+        boolean[] lineStarts = new boolean[size];
+
+        boolean newline = true;
+        for(int i = 0; i < size; i++) {
+            int start = tokens.getStart(i);
+            for(int j = from; j < start; j++) {
+                char ch = text.charAt(j);
+                if(ch == '\n') {
+                    newline = true;
+                } else if(ch == '\\' && j + 1 < start && text.charAt(j + 1) == '\n') {
+                    j++;
+                } else if(ch == '\\' && j + 2 < start && text.charAt(j + 1) == '\r' && text.charAt(j + 2) == '\n') {
+                    j += 2;
+                } else if(ch == '/' && j + 1 < start && text.charAt(j + 1) == '/') {
+                    while(j + 1 < start && text.charAt(j + 1) != '\n') {
+                        j++;
+                    }
+                } else if(ch == '/' && j + 1 < start && text.charAt(j + 1) == '*') {
+                    j += 2;
+                    while(j + 1 < start && !(text.charAt(j) == '*' && text.charAt(j + 1) == '/')) {
+                        j++;
+                    }
+                    j++;
+                }
+            }
+
+            lineStarts[i] = newline;
+            newline = false;
+            from = tokens.getEnd(i);
+        }
+        return lineStarts;
+    }
+
+    /*
+        Finds the include guard idiom: the file starts with '#ifndef X' or '#if !defined X' and the
+        matching #endif ends it, with no #else or #elif in between. Such a file contributes nothing
+        once X is defined, whatever the #define in between looks like.
+    */
+    private int findGuard(ConditionalScanner conditionals, Scanner scanner) {
+        int first = this.kinds[0] == ConditionalScanner.BODY ? 1 : 0;
+        if(first >= this.kinds.length || this.starts[first] != conditionals.getFirstSignificant()) {
+            return -1;
+        }
+
+        byte kind = this.kinds[first];
+        if(kind != ConditionalScanner.IFNDEF && kind != ConditionalScanner.IF) {
+            return -1;
+        }
+
+        int depth = 0;
+        for(int piece = first; piece < this.kinds.length; piece++) {
+            switch(this.kinds[piece]) {
+                case ConditionalScanner.IF:
+                case ConditionalScanner.IFDEF:
+                case ConditionalScanner.IFNDEF:
+                    depth++;
+                    break;
+                case ConditionalScanner.ELIF:
+                case ConditionalScanner.ELSE:
+                    if(depth == 1) {
+                        return -1;
+                    }
+                    break;
+                case ConditionalScanner.ENDIF:
+                    depth--;
+                    if(depth == 0) {
+                        boolean last = conditionals.getLastSignificantEnd() <= this.starts[piece + 1];
+                        return last ? this.findGuardSymbol(first, scanner) : -1;
+                    }
+                    break;
+            }
+        }
+        return -1;
+    }
+
+    private int findGuardSymbol(int piece, Scanner scanner) {
+        TokenBuffer tokens;
+        try {
+            tokens = this.getPiece(piece, scanner).tokens;
+        } catch (ScannerException e) {
+            return -1;
+        }
+
+        //Tokens of '#ifndef X', '#if !defined X' or '#if !defined(X)' and the EndOfFile of the piece
+        int size = tokens.size();
+        if(this.kinds[piece] == ConditionalScanner.IFNDEF) {
+            return size == 4 && tokens.getKind(2) == TokenKind.Identifier ? tokens.getSymbol(2) : -1;
+        }
+
+        TokenKind not = tokens.getKind(2);
+        if((not != TokenKind.Exclamation && not != TokenKind.Not) || tokens.getKind(3) != TokenKind.Identifier
+                || !"defined".contentEquals(tokens.getLexeme(3))) {
+            return -1;
+        }
+
+        boolean paren = tokens.getKind(4) == TokenKind.OpenParen;
+        int symbol = paren ? 5 : 4;
+        if(tokens.getKind(symbol) != TokenKind.Identifier || size != (paren ? 8 : 6)
+                || (paren && tokens.getKind(6) != TokenKind.CloseParen)) {
+            return -1;
+        }
+        return tokens.getSymbol(symbol);
+    }
+
+    static final class Piece {
+        final TokenBuffer tokens;
+        //Whether each token is the first of its logical line
+        final boolean[] lineStarts;
+
+        Piece(TokenBuffer tokens, boolean[] lineStarts) {
+            this.tokens = tokens;
+            this.lineStarts = lineStarts;
+        }
+    }
+
+    //The text up to end, so the scanner sees the end of a directive line as the end of the file
+    private static final class Prefix implements CharSequence {
+        private final CharSequence text;
+        private final int length;
+
+        Prefix(CharSequence text, int length) {
+            this.text = text;
+            this.length = length;
+        }
+
+        public int length() {
+            return this.length;
+        }
+
+        public char charAt(int index) {
+            if(index >= this.length) {
+                throw new IndexOutOfBoundsException(Integer.toString(index));
+            }
+            return this.text.charAt(index);
+        }
+
+        public CharSequence subSequence(int start, int end) {
+            return this.text.subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return this.text.subSequence(0, this.length).toString();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package org.bromano.cplusplusparser.preprocessor;
+
+import java.util.List;
+
+class Macro {
+    final int symbol;
+    final boolean functionLike;
+    //Parameter symbols, __VA_ARGS__ (or the named variadic parameter) is the last one of a variadic macro
+    final int[] parameters;
+    final boolean variadic;
+    final List<PreprocessingToken> body;
+
+    Macro(int symbol, boolean functionLike, int[] parameters, boolean variadic, List<PreprocessingToken> body) {
+        this.symbol = symbol;
+        this.functionLike = functionLike;
+        this.parameters = parameters;
+        this.variadic = variadic;
+        this.body = body;
+    }
+
+    int indexOfParameter(PreprocessingToken token) {
+        if(!this.functionLike || token.symbol < 0) {
+            return -1;
+        }
+
+        for(int i = 0; i < this.parameters.length; i++) {
+            if(this.parameters[i] == token.symbol) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
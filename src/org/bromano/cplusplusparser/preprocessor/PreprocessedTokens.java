@@ -0,0 +1,111 @@
+package org.bromano.cplusplusparser.preprocessor;
+
+import org.bromano.cplusplusparser.scanner.*;
+
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+/*
+    Output of a preprocessor run, the token stream the parser sees.
+    Like a TokenBuffer it is a set of parallel primitive arrays, but tokens come from many files:
+    starts and ends are global offsets (see SourceMap) and every token records its file.
+*/
+public class PreprocessedTokens implements TokenSource {
+    private static final TokenKind[] KINDS = TokenKind.values();
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private final SourceMap sourceMap;
+    private short[] kinds = new short[DEFAULT_CAPACITY];
+    private int[] starts = new int[DEFAULT_CAPACITY];
+    private int[] ends = new int[DEFAULT_CAPACITY];
+    private int[] files = new int[DEFAULT_CAPACITY];
+    private int[] symbols = new int[DEFAULT_CAPACITY];
+    private int size;
+
+    PreprocessedTokens(SourceMap sourceMap) {
+        this.sourceMap = sourceMap;
+    }
+
+    void add(TokenKind kind, SourceFile file, int start, int end, int symbol) {
+        if(this.size == this.kinds.length) {
+            int capacity = this.size * 2;
+            this.kinds = Arrays.copyOf(this.kinds, capacity);
+            this.starts = Arrays.copyOf(this.starts, capacity);
+            this.ends = Arrays.copyOf(this.ends, capacity);
+            this.files = Arrays.copyOf(this.files, capacity);
+            this.symbols = Arrays.copyOf(this.symbols, capacity);
+        }
+
+        this.kinds[this.size] = (short) kind.ordinal();
+        this.starts[this.size] = file.base + start;
+        this.ends[this.size] = file.base + end;
+        this.files[this.size] = file.id;
+        this.symbols[this.size] = symbol;
+        this.size++;
+    }
+
+    void add(PreprocessingToken token) {
+        this.add(token.kind, token.file, token.start, token.end, token.kind == TokenKind.Identifier ? token.symbol : -1);
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public TokenKind getKind(int index) {
+        if(index >= this.size) {
+            return TokenKind.EndOfFile;
+        }
+        return KINDS[this.kinds[index]];
+    }
+
+    public int getStart(int index) {
+        if(index >= this.size) {
+            return this.size == 0 ? 0 : this.ends[this.size - 1];
+        }
+        return this.starts[index];
+    }
+
+    public int getEnd(int index) {
+        if(index >= this.size) {
+            return this.size == 0 ? 0 : this.ends[this.size - 1];
+        }
+        return this.ends[index];
+    }
+
+    //NOTE: Returns a view into the file the token was spelled in (the macro definition for expanded tokens)
+    public CharSequence getLexeme(int index) {
+        if(index >= this.size || !this.getKind(index).hasLexeme()) {
+            return null;
+        }
+
+        SourceFile file = this.sourceMap.get(this.files[index]);
+        return CharBuffer.wrap(file.text, this.starts[index] - file.base, this.ends[index] - file.base);
+    }
+
+    public int getSymbol(int index) {
+        return index >= this.size ? -1 : this.symbols[index];
+    }
+
+    public String getFileName(int index) {
+        return this.sourceMap.get(this.files[index]).name;
+    }
+
+    public Token getToken(int index) {
+        SourceFile file = this.sourceMap.get(this.files[index]);
+        return new Token(this.getKind(index), file.text, this.starts[index] - file.base, this.ends[index] - file.base, this.symbols[index]);
+    }
+
+    public SourceMap getLineMap() {
+        return this.sourceMap;
+    }
+
+    public void mark(int index) {
+    }
+
+    public void unmark() {
+    }
+
+    public void release(int index) {
+    }
+}
@@ -0,0 +1,99 @@
+package org.bromano.cplusplusparser.preprocessor;
+
+import org.bromano.cplusplusparser.scanner.TokenKind;
+
+import java.util.Arrays;
+
+/*
+    A token taking part in macro expansion. Tokens that are not near a macro invocation are copied
+    straight from a file's TokenBuffer to the output and never become one of these.
+    The hide set lists the macros (by symbol) the token came out of, which may not expand it again.
+*/
+final class PreprocessingToken {
+    static final int[] EMPTY_HIDE_SET = new int[0];
+    //Stands in for an empty argument next to ## until pasting is done
+    static final PreprocessingToken PLACEMARKER = new PreprocessingToken(null, null, 0, 0, -1, false, EMPTY_HIDE_SET);
+
+    final TokenKind kind;
+    final SourceFile file;
+    final int start;
+    final int end;
+    //SymbolTable id of identifiers and keywords, -1 for everything else
+    final int symbol;
+    //Preceded by whitespace, only used for stringizing
+    final boolean space;
+    final int[] hideSet;
+
+    PreprocessingToken(TokenKind kind, SourceFile file, int start, int end, int symbol, boolean space, int[] hideSet) {
+        this.kind = kind;
+        this.file = file;
+        this.start = start;
+        this.end = end;
+        this.symbol = symbol;
+        this.space = space;
+        this.hideSet = hideSet;
+    }
+
+    PreprocessingToken withHideSet(int[] hideSet, boolean space) {
+        return new PreprocessingToken(this.kind, this.file, this.start, this.end, this.symbol, space, hideSet);
+    }
+
+    CharSequence getText() {
+        return this.file.text.subSequence(this.start, this.end);
+    }
+
+    boolean textEquals(String text) {
+        if(this.end - this.start != text.length()) {
+            return false;
+        }
+
+        for(int i = 0; i < text.length(); i++) {
+            if(this.file.text.charAt(this.start + i) != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    int getGlobalStart() {
+        return this.file.base + this.start;
+    }
+
+    //Hide sets are small sorted arrays
+    static boolean contains(int[] hideSet, int symbol) {
+        return Arrays.binarySearch(hideSet, symbol) >= 0;
+    }
+
+    static int[] add(int[] hideSet, int symbol) {
+        int index = Arrays.binarySearch(hideSet, symbol);
+        if(index >= 0) {
+            return hideSet;
+        }
+
+        index = -index - 1;
+        int[] result = new int[hideSet.length + 1];
+        System.arraycopy(hideSet, 0, result, 0, index);
+        result[index] = symbol;
+        System.arraycopy(hideSet, index, result, index + 1, hideSet.length - index);
+        return result;
+    }
+
+    static int[] union(int[] a, int[] b) {
+        int[] result = a;
+        for(int symbol : b) {
+            result = add(result, symbol);
+        }
+        return result;
+    }
+
+    static int[] intersect(int[] a, int[] b) {
+        int count = 0;
+        int[] result = new int[Math.min(a.length, b.length)];
+        for(int symbol : a) {
+            if(contains(b, symbol)) {
+                result[count++] = symbol;
+            }
+        }
+        return count == 0 ? EMPTY_HIDE_SET : Arrays.copyOf(result, count);
+    }
+}
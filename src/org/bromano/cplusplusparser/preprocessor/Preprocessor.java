@@ -0,0 +1,974 @@
+package org.bromano.cplusplusparser.preprocessor;
+
+import org.bromano.cplusplusparser.scanner.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/*
+    Runs #include, #define/#undef and the conditional directives between scanning and parsing.
+
+    Every physical file is lexed at most once (keeping '#' tokens) and the preprocessor works on those tokens:
+    tokens outside macro invocations are copied straight to the output arrays, and only macro
+    invocations become PreprocessingToken objects. Macros are indexed by SymbolTable id, so finding
+    out whether an identifier is a macro is an array load.
+
+    Expansion follows the usual hide-set algorithm: a token expanded from a macro remembers it and
+    never expands it again, function-like arguments are fully expanded unless they are stringized
+    or pasted, and expansions are rescanned together with the tokens that follow them.
+
+    Headers come from a HeaderCache, and one that is included again after '#pragma once' or with
+    its include guard defined is skipped without looking at its tokens. Groups of a false #if are
+    never lexed at all, see ConditionalScanner.
+*/
+public class Preprocessor {
+    private static final int MAX_INCLUDE_DEPTH = 200;
+    private static final int SCRATCH_CAPACITY = 1 << 16;
+
+    private final Supplier<Scanner> scannerFactory;
+    private final List<Path> includePaths = new ArrayList<>();
+    private final StringBuilder predefined = new StringBuilder();
+    private HeaderCache headerCache = HeaderCache.getShared();
+    private SymbolTable symbols = this.headerCache.getSymbolTable();
+
+    //State of the current run
+    private Scanner scanner;
+    private SourceMap sourceMap;
+    private PreprocessedTokens output;
+    private Map<Path, SourceFile> files;
+    //Include names already resolved, by the including file for "..." names
+    private Map<String, SourceFile> includes;
+    private BitSet onceFiles;
+    private Macro[] macros;
+    //Keyword kinds that have been #defined, so other keywords are copied without looking up their spelling
+    private boolean[] keywordMacros;
+    private SourceFile scratch;
+    private StringBuilder scratchText;
+    private int nextBase;
+    private int includeDepth;
+    private int definedSymbol;
+    private int variadicSymbol;
+    private int lineSymbol;
+    private int fileSymbol;
+    private PreprocessingToken one;
+    private PreprocessingToken zero;
+
+    public Preprocessor() {
+        this(SimpleScanner::new);
+    }
+
+    public Preprocessor(Supplier<Scanner> scannerFactory) {
+        this.scannerFactory = scannerFactory;
+        this.define("__cplusplus", "201103L");
+    }
+
+    //Searched in order for <...> includes, and after the including file's directory for "..." includes
+    public void addIncludePath(Path path) {
+        this.includePaths.add(path);
+    }
+
+    //Same as -Dname=value on a compiler command line
+    public void define(String name, String value) {
+        this.predefined.append("#define ").append(name).append(' ').append(value).append('\n');
+    }
+
+    //Share a table with other preprocessors (or scanners) of a batch so their symbol ids agree, headers are only cached while it is the cache's table
+    public void setSymbolTable(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    //Defaults to the process-wide cache, null lexes every header again on each run
+    public void setHeaderCache(HeaderCache headerCache) {
+        this.headerCache = headerCache;
+        if(headerCache != null) {
+            this.symbols = headerCache.getSymbolTable();
+        }
+    }
+
+    public SymbolTable getSymbolTable() {
+        return this.symbols;
+    }
+
+    public PreprocessedTokens preprocess(Path path) throws IOException, PreprocessorException {
+        return this.preprocess(SourceLoader.loadUtf8File(path), path);
+    }
+
+    //Path may be null for text that was not read from a file, "..." includes are then resolved against the working directory
+    public PreprocessedTokens preprocess(CharSequence text, Path path) throws PreprocessorException {
+        this.begin();
+
+        this.processFile(this.addFile("<command line>", null, this.predefined));
+
+        SourceFile main = this.addFile(path == null ? "<stdin>" : path.toString(), path, text);
+        if(path != null) {
+            this.files.put(canonical(path), main);
+        }
+        this.sourceMap.setMain(main);
+        this.processFile(main);
+
+        this.output.add(TokenKind.EndOfFile, main, text.length(), text.length(), -1);
+        return this.output;
+    }
+
+    private void begin() throws PreprocessorException {
+        this.scanner = this.scannerFactory.get();
+        this.scanner.setKeepDirectives(true);
+        this.scanner.setSymbolTable(this.symbols);
+
+        this.sourceMap = new SourceMap();
+        this.output = new PreprocessedTokens(this.sourceMap);
+        this.files = new HashMap<>();
+        this.includes = new HashMap<>();
+        this.onceFiles = new BitSet();
+        this.macros = new Macro[Math.max(256, this.symbols.size())];
+        this.keywordMacros = new boolean[TokenKind.values().length];
+        this.scratch = null;
+        this.nextBase = 0;
+        this.includeDepth = 0;
+
+        this.definedSymbol = this.symbols.intern("defined");
+        this.variadicSymbol = this.symbols.intern("__VA_ARGS__");
+        this.lineSymbol = this.symbols.intern("__LINE__");
+        this.fileSymbol = this.symbols.intern("__FILE__");
+        this.setMacro(this.lineSymbol, new Macro(this.lineSymbol, false, new int[0], false, null));
+        this.setMacro(this.fileSymbol, new Macro(this.fileSymbol, false, new int[0], false, null));
+
+        this.one = this.scratchToken("1", false);
+        this.zero = this.scratchToken("0", false);
+    }
+
+    private SourceFile addFile(String name, Path path, CharSequence text) throws PreprocessorException {
+        return this.addFile(name, path, LexedFile.lex(text, this.scanner, 0, text.length()));
+    }
+
+    private SourceFile addFile(String name, Path path, LexedFile lexed) {
+        CharSequence text = lexed.text;
+        SourceFile file = new SourceFile(this.sourceMap.size(), name, path, text, this.nextBase, text.length());
+        file.lexed = lexed;
+        this.nextBase += text.length() + 1;
+        this.sourceMap.add(file);
+        return file;
+    }
+
+    //Bodies of inactive groups are skipped without being lexed
+    private void processFile(SourceFile file) throws PreprocessorException {
+        LexedFile lexed = file.lexed;
+        Deque<Conditional> conditionals = new ArrayDeque<>();
+
+        for(int piece = 0; piece < lexed.getPieceCount(); piece++) {
+            byte kind = lexed.getPieceKind(piece);
+            boolean active = conditionals.isEmpty() || conditionals.peek().active;
+            if(kind == ConditionalScanner.BODY) {
+                if(active) {
+                    this.processTokens(this.getPiece(file, piece));
+                }
+            } else if(kind == ConditionalScanner.TEXT) {
+                if(active) {
+                    this.textDirective(file, piece);
+                }
+            } else {
+                this.conditional(file, piece, kind, conditionals);
+            }
+        }
+
+        if(!conditionals.isEmpty()) {
+            throw this.error("Unterminated conditional directive", conditionals.peek().offset);
+        }
+    }
+
+    private SourceFile getPiece(SourceFile file, int piece) throws PreprocessorException {
+        try {
+            return new SourceFile(file, file.lexed.getPiece(piece, this.scanner));
+        } catch (ScannerException e) {
+            throw new PreprocessorException(e.getMessage(), file.base + e.getOffset(), this.sourceMap, e);
+        }
+    }
+
+    private void processTokens(SourceFile file) throws PreprocessorException {
+        TokenBuffer tokens = file.tokens;
+
+        int i = 0;
+        while(true) {
+            TokenKind kind = tokens.getKind(i);
+            if(kind == TokenKind.EndOfFile) {
+                break;
+            }
+
+            if(file.lineStarts[i] && isHash(kind)) {
+                i = this.directive(file, i);
+            } else if(this.findMacro(file, i) == null) {
+                this.output.add(kind, file, tokens.getStart(i), tokens.getEnd(i), tokens.getSymbol(i));
+                i++;
+            } else {
+                TokenReader reader = new TokenReader(file, i);
+                this.expand(reader, this.output::add, true);
+                i = reader.index;
+            }
+        }
+    }
+
+    private static boolean isHash(TokenKind kind) {
+        return kind == TokenKind.Hash || kind == TokenKind.PercentColon;
+    }
+
+    private static boolean isHashHash(TokenKind kind) {
+        return kind == TokenKind.HashHash || kind == TokenKind.PercentColonPercentColen;
+    }
+
+    //Index of the first token of the next line (or of EndOfFile)
+    private static int nextLine(SourceFile file, int index) {
+        int next = index + 1;
+        while(file.tokens.getKind(next) != TokenKind.EndOfFile && !file.lineStarts[next]) {
+            next++;
+        }
+        return next;
+    }
+
+    //Identifiers carry their symbol from the scanner, keywords can name macros too but are rarely defined
+    private int symbolOf(SourceFile file, int index) {
+        TokenBuffer tokens = file.tokens;
+        TokenKind kind = tokens.getKind(index);
+        if(kind == TokenKind.Identifier) {
+            return tokens.getSymbol(index);
+        } else if(Keywords.isKeyword(kind)) {
+            return this.symbols.intern(file.text, tokens.getStart(index), tokens.getEnd(index));
+        }
+        return -1;
+    }
+
+    private Macro findMacro(SourceFile file, int index) {
+        TokenBuffer tokens = file.tokens;
+        TokenKind kind = tokens.getKind(index);
+
+        int symbol;
+        if(kind == TokenKind.Identifier) {
+            symbol = tokens.getSymbol(index);
+        } else if(this.keywordMacros[kind.ordinal()]) {
+            symbol = this.symbols.lookup(file.text, tokens.getStart(index), tokens.getEnd(index));
+        } else {
+            return null;
+        }
+
+        return this.getMacro(symbol);
+    }
+
+    private Macro getMacro(int symbol) {
+        return symbol >= 0 && symbol < this.macros.length ? this.macros[symbol] : null;
+    }
+
+    private void setMacro(int symbol, Macro macro) {
+        if(symbol >= this.macros.length) {
+            this.macros = Arrays.copyOf(this.macros, Math.max(symbol + 1, this.macros.length * 2));
+        }
+        this.macros[symbol] = macro;
+    }
+
+    private PreprocessingToken fileToken(SourceFile file, int index) {
+        TokenBuffer tokens = file.tokens;
+        int start = tokens.getStart(index);
+        boolean space = index == 0 || file.lineStarts[index] || start > tokens.getEnd(index - 1);
+        return new PreprocessingToken(tokens.getKind(index), file, start, tokens.getEnd(index),
+                this.symbolOf(file, index), space, PreprocessingToken.EMPTY_HIDE_SET);
+    }
+
+    //Lexes spelling as a single token in the scratch source, null if it is not exactly one token
+    private PreprocessingToken scratchToken(CharSequence spelling, boolean space) {
+        if(this.scratch == null || this.scratchText.length() + spelling.length() + 1 > this.scratch.capacity) {
+            int capacity = Math.max(SCRATCH_CAPACITY, spelling.length() + 1);
+            this.scratchText = new StringBuilder(capacity);
+            this.scratch = new SourceFile(this.sourceMap.size(), "<scratch>", null, this.scratchText, this.nextBase, capacity);
+            this.nextBase += capacity + 1;
+            this.sourceMap.add(this.scratch);
+        }
+
+        int start = this.scratchText.length();
+        int end = start + spelling.length();
+        this.scratchText.append(spelling).append('\n');
+
+        TokenBuffer lexed = new TokenBuffer(this.scratchText, 2);
+        this.scanner.setText(this.scratchText);
+        this.scanner.seek(start);
+        try {
+            this.scanner.scanInto(lexed);
+            this.scanner.scanInto(lexed);
+        } catch (ScannerException e) {
+            return null;
+        }
+
+        if(lexed.getStart(0) != start || lexed.getEnd(0) != end || lexed.getKind(1) != TokenKind.EndOfFile) {
+            return null;
+        }
+
+        TokenKind kind = lexed.getKind(0);
+        int symbol = kind == TokenKind.Identifier || Keywords.isKeyword(kind) ? this.symbols.intern(this.scratchText, start, end) : -1;
+        return new PreprocessingToken(kind, this.scratch, start, end, symbol, space, PreprocessingToken.EMPTY_HIDE_SET);
+    }
+
+    PreprocessorException error(String message, PreprocessingToken token) {
+        return this.error(message, token == null ? -1 : token.getGlobalStart());
+    }
+
+    private PreprocessorException error(String message, int offset) {
+        return new PreprocessorException(message, offset, this.sourceMap, null);
+    }
+
+    //Directive lines of an inactive group are not lexed, their kind is known from the ConditionalScanner
+    private void conditional(SourceFile file, int piece, byte kind, Deque<Conditional> conditionals) throws PreprocessorException {
+        boolean active = conditionals.isEmpty() || conditionals.peek().active;
+        int offset = file.base + file.lexed.getPieceStart(piece);
+
+        switch(kind) {
+            case ConditionalScanner.IF:
+            case ConditionalScanner.IFDEF:
+            case ConditionalScanner.IFNDEF: {
+                Conditional conditional = new Conditional(offset, active);
+                if(active) {
+                    conditional.active = this.evaluateCondition(kind, this.getPiece(file, piece));
+                    conditional.taken = conditional.active;
+                }
+                conditionals.push(conditional);
+                break;
+            }
+            case ConditionalScanner.ELIF: {
+                Conditional conditional = this.current(conditionals, "elif", offset);
+                if(conditional.sawElse) {
+                    throw this.error("#elif after #else", offset);
+                }
+                conditional.active = conditional.parentActive && !conditional.taken
+                        && this.evaluateCondition(ConditionalScanner.IF, this.getPiece(file, piece));
+                conditional.taken |= conditional.active;
+                break;
+            }
+            case ConditionalScanner.ELSE: {
+                Conditional conditional = this.current(conditionals, "else", offset);
+                if(conditional.sawElse) {
+                    throw this.error("#else after #else", offset);
+                }
+                conditional.sawElse = true;
+                conditional.active = conditional.parentActive && !conditional.taken;
+                conditional.taken = true;
+                break;
+            }
+            case ConditionalScanner.ENDIF:
+                this.current(conditionals, "endif", offset);
+                conditionals.pop();
+                break;
+        }
+    }
+
+    private int directive(SourceFile file, int hash) throws PreprocessorException {
+        TokenBuffer tokens = file.tokens;
+        int lineEnd = nextLine(file, hash);
+        int nameIndex = hash + 1;
+
+        //Null directive
+        if(nameIndex == lineEnd) {
+            return lineEnd;
+        }
+
+        CharSequence lexeme = tokens.getLexeme(nameIndex);
+        String name = lexeme == null ? "" : lexeme.toString();
+        int offset = file.base + tokens.getStart(hash);
+
+        switch(name) {
+            case "define":
+                this.define(file, nameIndex + 1, lineEnd);
+                break;
+            case "undef":
+                this.setMacro(this.expectMacroName(file, nameIndex + 1, lineEnd), null);
+                break;
+            case "include":
+                this.include(file, nameIndex + 1, lineEnd);
+                break;
+            default:
+                throw this.error("Unknown preprocessing directive #" + name, offset);
+        }
+
+        return lineEnd;
+    }
+
+    //#error, #warning, #pragma, #ident and #line take free text, so their line is read without lexing it
+    private void textDirective(SourceFile file, int piece) throws PreprocessorException {
+        CharSequence text = file.text;
+        int hash = file.lexed.getPieceStart(piece);
+        int end = file.lexed.getPieceStart(piece + 1);
+        while(end > hash && (text.charAt(end - 1) == '\n' || text.charAt(end - 1) == '\r')) {
+            end--;
+        }
+
+        int operands = new ConditionalScanner(text).findOperands(hash);
+        int nameStart = operands;
+        while(ConditionalScanner.isIdentifierChar(text.charAt(nameStart - 1))) {
+            nameStart--;
+        }
+
+        switch(text.subSequence(nameStart, operands).toString()) {
+            case "error":
+                throw this.error("#error" + text.subSequence(operands, end), file.base + hash);
+            case "pragma": {
+                int word = operands;
+                while(word < end && (text.charAt(word) == ' ' || text.charAt(word) == '\t')) {
+                    word++;
+                }
+                int wordEnd = word;
+                while(wordEnd < end && ConditionalScanner.isIdentifierChar(text.charAt(wordEnd))) {
+                    wordEnd++;
+                }
+                if("once".contentEquals(text.subSequence(word, wordEnd))) {
+                    this.onceFiles.set(file.id);
+                }
+                break;
+            }
+        }
+    }
+
+    private Conditional current(Deque<Conditional> conditionals, String name, int offset) throws PreprocessorException {
+        if(conditionals.isEmpty()) {
+            throw this.error("#" + name + " without #if", offset);
+        }
+        return conditionals.peek();
+    }
+
+    private int expectMacroName(SourceFile file, int index, int lineEnd) throws PreprocessorException {
+        int symbol = index < lineEnd ? this.symbolOf(file, index) : -1;
+        if(symbol < 0) {
+            throw this.error("Macro name must be an identifier", file.base + file.tokens.getStart(Math.min(index, lineEnd - 1)));
+        }
+        return symbol;
+    }
+
+    //The line is the piece of a single directive, its last token is EndOfFile
+    private boolean evaluateCondition(byte kind, SourceFile file) throws PreprocessorException {
+        int from = 2;
+        int lineEnd = file.tokens.size() - 1;
+        if(kind != ConditionalScanner.IF) {
+            boolean defined = this.getMacro(this.expectMacroName(file, from, lineEnd)) != null;
+            return (kind == ConditionalScanner.IFDEF) == defined;
+        }
+
+        //'defined' is resolved before expansion
+        List<PreprocessingToken> line = new ArrayList<>();
+        for(int i = from; i < lineEnd; i++) {
+            PreprocessingToken token = this.fileToken(file, i);
+            if(token.symbol != this.definedSymbol) {
+                line.add(token);
+                continue;
+            }
+
+            boolean paren = i + 1 < lineEnd && file.tokens.getKind(i + 1) == TokenKind.OpenParen;
+            int nameIndex = paren ? i + 2 : i + 1;
+            boolean defined = this.getMacro(this.expectMacroName(file, nameIndex, lineEnd)) != null;
+            if(paren && (nameIndex + 1 >= lineEnd || file.tokens.getKind(nameIndex + 1) != TokenKind.CloseParen)) {
+                throw this.error("Expected: CloseParen", token);
+            }
+
+            line.add(defined ? this.one : this.zero);
+            i = paren ? nameIndex + 1 : nameIndex;
+        }
+
+        List<PreprocessingToken> expanded = new ArrayList<>();
+        this.expand(new TokenReader(line), expanded::add, false);
+        return new ExpressionEvaluator(expanded, this, this.fileToken(file, 1)).evaluate() != 0;
+    }
+
+    private void define(SourceFile file, int from, int lineEnd) throws PreprocessorException {
+        TokenBuffer tokens = file.tokens;
+        int symbol = this.expectMacroName(file, from, lineEnd);
+        if(Keywords.isKeyword(tokens.getKind(from))) {
+            this.keywordMacros[tokens.getKind(from).ordinal()] = true;
+        }
+
+        //A function-like macro has its '(' right after the name
+        int i = from + 1;
+        boolean functionLike = i < lineEnd && tokens.getKind(i) == TokenKind.OpenParen && tokens.getStart(i) == tokens.getEnd(from);
+        List<Integer> parameters = new ArrayList<>();
+        boolean variadic = false;
+
+        if(functionLike) {
+            i++;
+            if(i < lineEnd && tokens.getKind(i) == TokenKind.CloseParen) {
+                i++;
+            } else {
+                while(true) {
+                    if(i >= lineEnd) {
+                        throw this.error("Expected: CloseParen", file.base + tokens.getEnd(lineEnd - 1));
+                    }
+
+                    if(tokens.getKind(i) == TokenKind.DotDotDot) {
+                        variadic = true;
+                        parameters.add(this.variadicSymbol);
+                    } else if(this.symbolOf(file, i) >= 0) {
+                        parameters.add(this.symbolOf(file, i));
+                        if(i + 1 < lineEnd && tokens.getKind(i + 1) == TokenKind.DotDotDot) {
+                            variadic = true;
+                            i++;
+                        }
+                    } else {
+                        throw this.error("Expected a macro parameter name", file.base + tokens.getStart(i));
+                    }
+                    i++;
+
+                    if(i < lineEnd && tokens.getKind(i) == TokenKind.Comma && !variadic) {
+                        i++;
+                    } else if(i < lineEnd && tokens.getKind(i) == TokenKind.CloseParen) {
+                        i++;
+                        break;
+                    } else {
+                        throw this.error("Expected: CloseParen", file.base + tokens.getStart(Math.min(i, lineEnd - 1)));
+                    }
+                }
+            }
+        }
+
+        List<PreprocessingToken> body = new ArrayList<>(lineEnd - i);
+        for(; i < lineEnd; i++) {
+            body.add(this.fileToken(file, i));
+        }
+
+        int[] parameterSymbols = new int[parameters.size()];
+        for(int p = 0; p < parameterSymbols.length; p++) {
+            parameterSymbols[p] = parameters.get(p);
+        }
+        Macro macro = new Macro(symbol, functionLike, parameterSymbols, variadic, body);
+
+        for(int b = 0; b < body.size(); b++) {
+            TokenKind kind = body.get(b).kind;
+            if(isHashHash(kind) && (b == 0 || b == body.size() - 1)) {
+                throw this.error("'##' cannot appear at either end of a macro expansion", body.get(b));
+            } else if(functionLike && isHash(kind) && (b == body.size() - 1 || macro.indexOfParameter(body.get(b + 1)) < 0)) {
+                throw this.error("'#' is not followed by a macro parameter", body.get(b));
+            }
+        }
+
+        this.setMacro(symbol, macro);
+    }
+
+    private void include(SourceFile file, int from, int lineEnd) throws PreprocessorException {
+        TokenBuffer tokens = file.tokens;
+        if(from >= lineEnd) {
+            throw this.error("Expected \"FILENAME\" or <FILENAME>", file.base + tokens.getStart(lineEnd - 1));
+        }
+
+        PreprocessingToken directive = this.fileToken(file, from);
+        String name = null;
+        boolean angled = false;
+
+        if(tokens.getKind(from) == TokenKind.StringLiteral && from + 1 == lineEnd) {
+            name = unquote(tokens.getLexeme(from));
+        } else if(tokens.getKind(from) == TokenKind.LessThan) {
+            for(int i = from + 1; i < lineEnd && name == null; i++) {
+                if(tokens.getKind(i) == TokenKind.GreaterThan) {
+                    name = file.text.subSequence(tokens.getEnd(from), tokens.getStart(i)).toString();
+                }
+            }
+            angled = true;
+        } else {
+            //Computed include, the expansion has to give one of the forms above
+            List<PreprocessingToken> line = new ArrayList<>();
+            for(int i = from; i < lineEnd; i++) {
+                line.add(this.fileToken(file, i));
+            }
+            List<PreprocessingToken> expanded = new ArrayList<>();
+            this.expand(new TokenReader(line), expanded::add, false);
+
+            int last = expanded.size() - 1;
+            if(expanded.size() == 1 && expanded.get(0).kind == TokenKind.StringLiteral) {
+                name = unquote(expanded.get(0).getText());
+            } else if(last > 0 && expanded.get(0).kind == TokenKind.LessThan && expanded.get(last).kind == TokenKind.GreaterThan) {
+                StringBuilder sb = new StringBuilder();
+                for(int i = 1; i < last; i++) {
+                    if(i > 1 && expanded.get(i).space) {
+                        sb.append(' ');
+                    }
+                    sb.append(expanded.get(i).getText());
+                }
+                name = sb.toString();
+                angled = true;
+            }
+        }
+
+        if(name == null) {
+            throw this.error("Expected \"FILENAME\" or <FILENAME>", directive);
+        }
+
+        String key = angled ? "<" + name : file.id + "\"" + name;
+        SourceFile included = this.includes.get(key);
+        if(included == null) {
+            Path path = this.findInclude(name, angled, file);
+            if(path == null) {
+                throw this.error("Cannot find include file " + name, directive);
+            }
+            included = this.load(path, directive);
+            this.includes.put(key, included);
+        }
+
+        //Including a header again after '#pragma once' or with its guard defined costs these lookups and nothing more
+        if(this.onceFiles.get(included.id) || (included.lexed.guard >= 0 && this.getMacro(included.lexed.guard) != null)) {
+            return;
+        } else if(this.includeDepth >= MAX_INCLUDE_DEPTH) {
+            throw this.error("#include nested too deeply", directive);
+        }
+
+        this.includeDepth++;
+        try {
+            this.processFile(included);
+        } finally {
+            this.includeDepth--;
+        }
+    }
+
+    private static String unquote(CharSequence literal) {
+        String text = literal.toString();
+        return text.substring(text.indexOf('"') + 1, text.length() - 1);
+    }
+
+    private Path findInclude(String name, boolean angled, SourceFile from) {
+        try {
+            if(!angled) {
+                Path directory = from.path != null ? from.path.toAbsolutePath().getParent() : Paths.get("").toAbsolutePath();
+                Path candidate = directory.resolve(name);
+                if(Files.isRegularFile(candidate)) {
+                    return candidate;
+                }
+            }
+
+            for(Path directory : this.includePaths) {
+                Path candidate = directory.resolve(name);
+                if(Files.isRegularFile(candidate)) {
+                    return candidate;
+                }
+            }
+        } catch (InvalidPathException e) {
+            return null;
+        }
+
+        return null;
+    }
+
+    private static Path canonical(Path path) {
+        try {
+            return path.toRealPath();
+        } catch (IOException e) {
+            return path.toAbsolutePath().normalize();
+        }
+    }
+
+    //Each physical file is lexed once per run however often it is included, and once per process with the header cache
+    private SourceFile load(Path path, PreprocessingToken directive) throws PreprocessorException {
+        Path key = canonical(path);
+        SourceFile file = this.files.get(key);
+        if(file != null) {
+            return file;
+        }
+
+        LexedFile lexed;
+        try {
+            if(this.headerCache != null && this.headerCache.getSymbolTable() == this.symbols) {
+                lexed = this.headerCache.get(key, this.scanner);
+            } else {
+                lexed = LexedFile.lex(SourceLoader.loadUtf8File(key), this.scanner, 0, 0);
+            }
+        } catch (IOException e) {
+            throw new PreprocessorException("Cannot read include file " + path, directive.getGlobalStart(), this.sourceMap, e);
+        }
+
+        file = this.addFile(path.toString(), key, lexed);
+        this.files.put(key, file);
+        return file;
+    }
+
+    /*
+        Expands the tokens of reader into sink. With untilDrained it returns as soon as no expanded
+        tokens are waiting to be rescanned, so the caller can go back to copying file tokens.
+    */
+    private void expand(TokenReader reader, Consumer<PreprocessingToken> sink, boolean untilDrained) throws PreprocessorException {
+        do {
+            PreprocessingToken token = reader.next();
+            if(token == null) {
+                return;
+            }
+
+            Macro macro = this.getMacro(token.symbol);
+            if(macro == null || PreprocessingToken.contains(token.hideSet, macro.symbol)) {
+                sink.accept(token);
+                continue;
+            }
+
+            if(macro.body == null) {
+                sink.accept(this.expandBuiltin(macro, token));
+            } else if(!macro.functionLike) {
+                int[] hideSet = PreprocessingToken.add(token.hideSet, macro.symbol);
+                reader.pushFront(this.substitute(macro, null, hideSet, token));
+            } else {
+                PreprocessingToken open = reader.peek();
+                if(open == null || open.kind != TokenKind.OpenParen) {
+                    sink.accept(token);
+                    continue;
+                }
+                reader.next();
+
+                List<List<PreprocessingToken>> arguments = new ArrayList<>();
+                PreprocessingToken close = this.readArguments(reader, macro, token, arguments);
+                int[] hideSet = PreprocessingToken.add(PreprocessingToken.intersect(token.hideSet, close.hideSet), macro.symbol);
+                reader.pushFront(this.substitute(macro, arguments, hideSet, token));
+            }
+        } while(!untilDrained || reader.hasPending());
+    }
+
+    private PreprocessingToken expandBuiltin(Macro macro, PreprocessingToken token) throws PreprocessorException {
+        String spelling;
+        if(macro.symbol == this.lineSymbol) {
+            spelling = Integer.toString(this.sourceMap.getLine(token.getGlobalStart()));
+        } else {
+            String name = this.sourceMap.getFileName(token.getGlobalStart());
+            spelling = '"' + name.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+        }
+
+        PreprocessingToken result = this.scratchToken(spelling, token.space);
+        if(result == null) {
+            throw this.error("Cannot expand " + token.getText(), token);
+        }
+        return result;
+    }
+
+    //Returns the closing paren, whose hide set takes part in the hide set of the expansion
+    private PreprocessingToken readArguments(TokenReader reader, Macro macro, PreprocessingToken name,
+                                             List<List<PreprocessingToken>> arguments) throws PreprocessorException {
+        List<PreprocessingToken> argument = new ArrayList<>();
+        int depth = 0;
+
+        PreprocessingToken close;
+        while(true) {
+            PreprocessingToken token = reader.next();
+            if(token == null) {
+                throw this.error("Unterminated argument list invoking macro " + name.getText(), name);
+            }
+
+            if(token.kind == TokenKind.OpenParen) {
+                depth++;
+            } else if(token.kind == TokenKind.CloseParen && depth > 0) {
+                depth--;
+            } else if(token.kind == TokenKind.CloseParen) {
+                arguments.add(argument);
+                close = token;
+                break;
+            } else if(token.kind == TokenKind.Comma && depth == 0
+                    && !(macro.variadic && arguments.size() == macro.parameters.length - 1)) {
+                arguments.add(argument);
+                argument = new ArrayList<>();
+                continue;
+            }
+
+            argument.add(token);
+        }
+
+        int expected = macro.parameters.length;
+        if(expected == 0 && arguments.size() == 1 && arguments.get(0).isEmpty()) {
+            arguments.clear();
+        } else if(macro.variadic && arguments.size() == expected - 1) {
+            arguments.add(new ArrayList<>());
+        }
+
+        if(arguments.size() != expected) {
+            throw this.error("Macro " + name.getText() + " expects " + expected + " arguments, got " + arguments.size(), name);
+        }
+        return close;
+    }
+
+    private List<PreprocessingToken> substitute(Macro macro, List<List<PreprocessingToken>> arguments,
+                                                int[] hideSet, PreprocessingToken name) throws PreprocessorException {
+        List<PreprocessingToken> body = macro.body;
+        List<PreprocessingToken> result = new ArrayList<>(body.size());
+        List<List<PreprocessingToken>> expandedArguments = null;
+
+        for(int i = 0; i < body.size(); i++) {
+            PreprocessingToken token = body.get(i);
+            boolean pasteNext = i + 1 < body.size() && isHashHash(body.get(i + 1).kind);
+
+            if(macro.functionLike && isHash(token.kind)) {
+                int parameter = macro.indexOfParameter(body.get(i + 1));
+                result.add(this.stringize(arguments.get(parameter), token));
+                i++;
+                continue;
+            }
+
+            if(isHashHash(token.kind)) {
+                PreprocessingToken left = result.remove(result.size() - 1);
+                PreprocessingToken operand = body.get(++i);
+                int parameter = macro.indexOfParameter(operand);
+                List<PreprocessingToken> right = parameter >= 0 ? arguments.get(parameter) : Collections.singletonList(operand);
+
+                result.add(this.paste(left, right.isEmpty() ? PreprocessingToken.PLACEMARKER : right.get(0)));
+                for(int r = 1; r < right.size(); r++) {
+                    result.add(right.get(r));
+                }
+                continue;
+            }
+
+            int parameter = macro.indexOfParameter(token);
+            if(parameter < 0) {
+                result.add(token);
+                continue;
+            }
+
+            //Operands of ## are not expanded, other arguments are expanded once and reused
+            List<PreprocessingToken> argument;
+            if(pasteNext) {
+                argument = arguments.get(parameter);
+                if(argument.isEmpty()) {
+                    result.add(PreprocessingToken.PLACEMARKER);
+                    continue;
+                }
+            } else {
+                if(expandedArguments == null) {
+                    expandedArguments = new ArrayList<>(Collections.<List<PreprocessingToken>>nCopies(arguments.size(), null));
+                }
+                argument = expandedArguments.get(parameter);
+                if(argument == null) {
+                    argument = new ArrayList<>();
+                    this.expand(new TokenReader(arguments.get(parameter)), argument::add, false);
+                    expandedArguments.set(parameter, argument);
+                }
+            }
+
+            for(int a = 0; a < argument.size(); a++) {
+                PreprocessingToken copy = argument.get(a);
+                result.add(a == 0 ? copy.withHideSet(copy.hideSet, token.space) : copy);
+            }
+        }
+
+        List<PreprocessingToken> expansion = new ArrayList<>(result.size());
+        for(PreprocessingToken token : result) {
+            if(token != PreprocessingToken.PLACEMARKER) {
+                boolean space = expansion.isEmpty() ? name.space : token.space;
+                expansion.add(token.withHideSet(PreprocessingToken.union(token.hideSet, hideSet), space));
+            }
+        }
+        return expansion;
+    }
+
+    private PreprocessingToken paste(PreprocessingToken left, PreprocessingToken right) throws PreprocessorException {
+        if(left == PreprocessingToken.PLACEMARKER) {
+            return right;
+        } else if(right == PreprocessingToken.PLACEMARKER) {
+            return left;
+        }
+
+        String spelling = left.getText().toString() + right.getText();
+        PreprocessingToken pasted = this.scratchToken(spelling, left.space);
+        if(pasted == null) {
+            throw this.error("Pasting \"" + left.getText() + "\" and \"" + right.getText() + "\" does not give a valid preprocessing token", left);
+        }
+        return pasted;
+    }
+
+    private PreprocessingToken stringize(List<PreprocessingToken> argument, PreprocessingToken hash) throws PreprocessorException {
+        StringBuilder sb = new StringBuilder("\"");
+        for(int i = 0; i < argument.size(); i++) {
+            PreprocessingToken token = argument.get(i);
+            if(i > 0 && token.space) {
+                sb.append(' ');
+            }
+
+            boolean literal = token.kind == TokenKind.StringLiteral || token.kind == TokenKind.CharacterLiteral
+                    || token.kind == TokenKind.UserDefinedStringLiteral || token.kind == TokenKind.UserDefinedCharacterLiteral;
+            CharSequence text = token.getText();
+            for(int c = 0; c < text.length(); c++) {
+                char ch = text.charAt(c);
+                if(literal && (ch == '"' || ch == '\\')) {
+                    sb.append('\\');
+                }
+                sb.append(ch);
+            }
+        }
+        sb.append('"');
+
+        PreprocessingToken result = this.scratchToken(sb, hash.space);
+        if(result == null) {
+            throw this.error("Stringizing does not give a valid string literal", hash);
+        }
+        return result;
+    }
+
+    private static class Conditional {
+        final int offset;
+        final boolean parentActive;
+        boolean active;
+        //Whether one of the groups has been taken, so later #elif and #else are skipped
+        boolean taken;
+        boolean sawElse;
+
+        Conditional(int offset, boolean parentActive) {
+            this.offset = offset;
+            this.parentActive = parentActive;
+        }
+    }
+
+    /*
+        Tokens being rescanned come first, then either the tokens of a list or those of a file.
+        A file reader stops at the next directive, since a directive cannot be part of an invocation.
+    */
+    private class TokenReader {
+        private final ArrayDeque<PreprocessingToken> pending = new ArrayDeque<>();
+        private final List<PreprocessingToken> list;
+        private final SourceFile file;
+        private int index;
+
+        TokenReader(List<PreprocessingToken> list) {
+            this.list = list;
+            this.file = null;
+        }
+
+        TokenReader(SourceFile file, int index) {
+            this.list = null;
+            this.file = file;
+            this.index = index;
+        }
+
+        boolean hasPending() {
+            return !this.pending.isEmpty();
+        }
+
+        PreprocessingToken next() {
+            if(!this.pending.isEmpty()) {
+                return this.pending.poll();
+            } else if(this.list != null) {
+                return this.index < this.list.size() ? this.list.get(this.index++) : null;
+            }
+
+            TokenKind kind = this.file.tokens.getKind(this.index);
+            if(kind == TokenKind.EndOfFile || (this.file.lineStarts[this.index] && isHash(kind))) {
+                return null;
+            }
+            return Preprocessor.this.fileToken(this.file, this.index++);
+        }
+
+        PreprocessingToken peek() {
+            PreprocessingToken token = this.next();
+            if(token != null) {
+                this.pending.addFirst(token);
+            }
+            return token;
+        }
+
+        void pushFront(List<PreprocessingToken> tokens) {
+            for(int i = tokens.size() - 1; i >= 0; i--) {
+                this.pending.addFirst(tokens.get(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package org.bromano.cplusplusparser.preprocessor;
+
+public class PreprocessorException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    private final int offset;
+    private final SourceMap sourceMap;
+
+    public PreprocessorException(String message) {
+        this(message, -1, null, null);
+    }
+
+    public PreprocessorException(String message, int offset, SourceMap sourceMap, Throwable cause) {
+        super(message, cause);
+        this.offset = offset;
+        this.sourceMap = sourceMap;
+    }
+
+    //Offset in the global offset space of the run, see SourceMap
+    public int getOffset() {
+        return this.offset;
+    }
+
+    public String getFileName() {
+        return this.sourceMap == null || this.offset < 0 ? null : this.sourceMap.getFileName(this.offset);
+    }
+
+    public int getLine() {
+        return this.sourceMap == null || this.offset < 0 ? -1 : this.sourceMap.getLine(this.offset);
+    }
+
+    public int getColumn() {
+        return this.sourceMap == null || this.offset < 0 ? -1 : this.sourceMap.getColumn(this.offset);
+    }
+
+    //NOTE: Line and column are only resolved when the exception is rendered
+    @Override
+    public String getLocalizedMessage() {
+        if(this.sourceMap == null || this.offset < 0) {
+            return this.getMessage();
+        }
+
+        return this.getMessage() + " (" + this.getFileName() + ", line " + this.getLine() + ", column " + this.getColumn() + ")";
+    }
+}
@@ -0,0 +1,61 @@
+package org.bromano.cplusplusparser.preprocessor;
+
+import org.bromano.cplusplusparser.scanner.LineMap;
+import org.bromano.cplusplusparser.scanner.TokenBuffer;
+
+import java.nio.file.Path;
+
+/*
+    A physical file (or a scratch source for pasted and stringized tokens) taking part in one run.
+    Its chars occupy [base, base + capacity) of the run's global offset space, so a single int
+    locates a token in any file, see SourceMap.
+*/
+class SourceFile {
+    final int id;
+    final String name;
+    final Path path;
+    final CharSequence text;
+    final int base;
+    final int capacity;
+
+    //Null for scratch sources
+    LexedFile lexed;
+    //Set on the view of a single piece, see LexedFile
+    final TokenBuffer tokens;
+    final boolean[] lineStarts;
+    private LineMap lineMap;
+
+    SourceFile(int id, String name, Path path, CharSequence text, int base, int capacity) {
+        this.id = id;
+        this.name = name;
+        this.path = path;
+        this.text = text;
+        this.base = base;
+        this.capacity = capacity;
+        this.tokens = null;
+        this.lineStarts = null;
+    }
+
+    //View of one lexed piece of file, the offsets of its tokens are those of the file
+    SourceFile(SourceFile file, LexedFile.Piece piece) {
+        this.id = file.id;
+        this.name = file.name;
+        this.path = file.path;
+        this.text = file.text;
+        this.base = file.base;
+        this.capacity = file.capacity;
+        this.lexed = file.lexed;
+        this.tokens = piece.tokens;
+        this.lineStarts = piece.lineStarts;
+    }
+
+    //Scratch sources keep growing, so their line map is not cached
+    LineMap getLineMap() {
+        if(this.lexed == null) {
+            return new LineMap(this.text);
+        } else if(this.lineMap == null) {
+            this.lineMap = new LineMap(this.text);
+        }
+        return this.lineMap;
+    }
+}
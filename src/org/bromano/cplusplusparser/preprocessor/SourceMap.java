@@ -0,0 +1,72 @@
+package org.bromano.cplusplusparser.preprocessor;
+
+import org.bromano.cplusplusparser.scanner.LineMap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+    Line map over the global offsets of a preprocessor run: an offset is resolved to the file
+    containing it, and lines and columns are those within that file.
+*/
+public class SourceMap extends LineMap {
+    private final List<SourceFile> files = new ArrayList<>();
+    private SourceFile main;
+
+    SourceMap() {
+        super("");
+    }
+
+    void add(SourceFile file) {
+        this.files.add(file);
+    }
+
+    void setMain(SourceFile main) {
+        this.main = main;
+    }
+
+    SourceFile get(int id) {
+        return this.files.get(id);
+    }
+
+    int size() {
+        return this.files.size();
+    }
+
+    //Files are added in order of their base
+    SourceFile find(int offset) {
+        int low = 0;
+        int high = this.files.size() - 1;
+        while(low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if(this.files.get(mid).base <= offset) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return this.files.get(low);
+    }
+
+    public String getFileName(int offset) {
+        return this.find(offset).name;
+    }
+
+    @Override
+    public int getLine(int offset) {
+        SourceFile file = this.find(offset);
+        return file.getLineMap().getLine(offset - file.base);
+    }
+
+    @Override
+    public int getColumn(int offset) {
+        SourceFile file = this.find(offset);
+        return file.getLineMap().getColumn(offset - file.base);
+    }
+
+    //Lines of the main file
+    @Override
+    public int getLineCount() {
+        return this.main == null ? 1 : this.main.getLineMap().getLineCount();
+    }
+}
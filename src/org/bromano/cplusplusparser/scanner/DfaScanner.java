@@ -0,0 +1,264 @@
+package org.bromano.cplusplusparser.scanner;
+
+import java.util.Map;
+
+/*
+    Scanner driven by a character-class table and a DFA transition table built at class init
+    from the punctuator spellings in TokenKind and the Keywords table.
+
+    Only whitespace, identifiers, keywords and punctuators are table-driven. Keywords are paths in the DFA,
+    so an identifier is classified by the state it ends in rather than by a lookup afterwards.
+    Numeric and character/string literals, comments, directives and universal character names are not
+    in the tables: they are handed to the SimpleScanner routines from the same start offset, after a
+    failed DFA step, so input heavy in them scans no faster (and somewhat slower) than with SimpleScanner.
+*/
+public class DfaScanner extends SimpleScanner {
+    private static final int ASCII = 128;
+
+    private static final int DEAD = 0;
+    private static final int START = 1;
+    private static final int IDENTIFIER = 2;
+    private static final int WHITESPACE = 3;
+
+    //Class 0 is every char that cannot continue a DFA token (quotes, '#', '\', non-ASCII...)
+    private static final byte[] classes = new byte[ASCII];
+    private static final boolean[] identifierClasses;
+    private static final boolean[] digitClasses;
+    private static final int classCount;
+
+    /*
+        States are stored as row offsets (state * classCount) so a step is one add and one load:
+        transitions[row + class] is the next row, DEAD when there is none.
+        Accepting rows are numbered first, so a row below acceptingLimit is accepting without a lookup.
+    */
+    private static final char[] transitions;
+    private static final int startRow;
+    private static final int whitespaceRow;
+    private static final int acceptingLimit;
+    //Kind of the token ending in each state, indexed by row / classCount
+    private static final TokenKind[] kinds;
+
+    static {
+        Map<String, TokenKind> keywords = Keywords.getKeywordMap();
+
+        int count = 1;
+        int maxStates = 4;
+        for(TokenKind kind : TokenKind.values()) {
+            if(kind.getSpelling() != null) {
+                count = assignClasses(kind.getSpelling(), count);
+                maxStates += kind.getSpelling().length();
+            }
+        }
+        for(String keyword : keywords.keySet()) {
+            count = assignClasses(keyword, count);
+            maxStates += keyword.length();
+        }
+
+        //Identifier chars that appear in no keyword share two classes, whitespace gets one
+        int letterClass = count++;
+        int digitClass = count++;
+        int whitespaceClass = count++;
+        for(char ch = 0; ch < ASCII; ch++) {
+            if(classes[ch] == 0 && isIdentifierChar(ch)) {
+                classes[ch] = (byte) (ch >= '0' && ch <= '9' ? digitClass : letterClass);
+            }
+        }
+        for(char ch : new char[] { '\t', '\n', '\r', '\f', ' ' }) {
+            classes[ch] = (byte) whitespaceClass;
+        }
+
+        classCount = count;
+        identifierClasses = new boolean[classCount];
+        digitClasses = new boolean[classCount];
+        for(char ch = 0; ch < ASCII; ch++) {
+            identifierClasses[classes[ch]] |= isIdentifierChar(ch);
+            digitClasses[classes[ch]] |= ch >= '0' && ch <= '9';
+        }
+
+        short[] table = new short[maxStates * classCount];
+        TokenKind[] accepting = new TokenKind[maxStates];
+        int states = 4;
+
+        table[START * classCount + whitespaceClass] = WHITESPACE;
+        table[WHITESPACE * classCount + whitespaceClass] = WHITESPACE;
+
+        for(TokenKind kind : TokenKind.values()) {
+            if(kind.getSpelling() != null) {
+                states = addPath(table, accepting, states, kind.getSpelling(), kind);
+            }
+        }
+
+        //Every prefix of a keyword is itself an identifier
+        int keywordStart = states;
+        for(Map.Entry<String, TokenKind> keyword : keywords.entrySet()) {
+            states = addPath(table, accepting, states, keyword.getKey(), keyword.getValue());
+        }
+        for(int state = keywordStart; state < states; state++) {
+            if(accepting[state] == null) {
+                accepting[state] = TokenKind.Identifier;
+            }
+        }
+
+        //Leaving the keyword paths falls back to a plain identifier, identifiers cannot start with a digit
+        accepting[IDENTIFIER] = TokenKind.Identifier;
+        for(int c = 0; c < classCount; c++) {
+            if(!identifierClasses[c]) {
+                continue;
+            }
+
+            fill(table, IDENTIFIER, c);
+            if(!digitClasses[c]) {
+                fill(table, START, c);
+            }
+            for(int state = keywordStart; state < states; state++) {
+                fill(table, state, c);
+            }
+        }
+
+        //Renumber so that DEAD stays 0, accepting states (and whitespace) come next and the rest follow
+        int[] numbers = new int[states];
+        int next = 1;
+        for(int state = 1; state < states; state++) {
+            if(accepting[state] != null || state == WHITESPACE) {
+                numbers[state] = next++;
+            }
+        }
+        int acceptingCount = next;
+        for(int state = 1; state < states; state++) {
+            if(accepting[state] == null && state != WHITESPACE) {
+                numbers[state] = next++;
+            }
+        }
+
+        if(states * classCount > Character.MAX_VALUE) {
+            throw new IllegalStateException("DFA rows do not fit in a char: " + states + " states, " + classCount + " classes");
+        }
+
+        transitions = new char[states * classCount];
+        kinds = new TokenKind[states];
+        for(int state = 1; state < states; state++) {
+            int row = numbers[state] * classCount;
+            kinds[numbers[state]] = accepting[state];
+            for(int c = 0; c < classCount; c++) {
+                transitions[row + c] = (char) (numbers[table[state * classCount + c]] * classCount);
+            }
+        }
+
+        startRow = numbers[START] * classCount;
+        whitespaceRow = numbers[WHITESPACE] * classCount;
+        acceptingLimit = acceptingCount * classCount;
+    }
+
+    public DfaScanner() {
+        super();
+    }
+
+    public DfaScanner(CharSequence text) {
+        super(text);
+    }
+
+    private static boolean isIdentifierChar(char ch) {
+        return (ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z') || (ch >= '0' && ch <= '9') || ch == '_';
+    }
+
+    private static int assignClasses(String spelling, int count) {
+        for(int i = 0; i < spelling.length(); i++) {
+            if(classes[spelling.charAt(i)] == 0) {
+                classes[spelling.charAt(i)] = (byte) count++;
+            }
+        }
+        return count;
+    }
+
+    private static int addPath(short[] table, TokenKind[] accepting, int states, String spelling, TokenKind kind) {
+        int state = START;
+        for(int i = 0; i < spelling.length(); i++) {
+            int index = state * classCount + classes[spelling.charAt(i)];
+            if(table[index] == DEAD) {
+                table[index] = (short) states++;
+            }
+            state = table[index];
+        }
+        accepting[state] = kind;
+        return states;
+    }
+
+    private static void fill(short[] table, int state, int c) {
+        if(table[state * classCount + c] == DEAD) {
+            table[state * classCount + c] = IDENTIFIER;
+        }
+    }
+
+    @Override
+    protected TokenKind scanTokenKind() throws ScannerException {
+
+        while(true) {
+            tokenStart = pos;
+            if(pos >= end) {
+                return TokenKind.EndOfFile;
+            }
+
+            if(this.startsEncodedLiteral()) {
+                return super.scanTokenKind();
+            }
+
+            //Longest match: run until the DFA dies and keep the last accepting row
+            int row = startRow;
+            int acceptRow = DEAD;
+            int acceptPos = pos;
+            for(int i = pos; i < end; i++) {
+                char ch = text.charAt(i);
+                row = transitions[row + (ch < ASCII ? classes[ch] : 0)];
+                if(row == DEAD) {
+                    break;
+                } else if(row < acceptingLimit) {
+                    acceptRow = row;
+                    acceptPos = i + 1;
+                }
+            }
+
+            if(acceptRow == whitespaceRow) {
+                pos = acceptPos;
+                continue;
+            }
+
+            TokenKind kind = acceptRow == DEAD ? null : kinds[acceptRow / classCount];
+            if(kind == null || this.needsFallback(kind, acceptPos)) {
+                return super.scanTokenKind();
+            }
+
+            pos = acceptPos;
+            return kind;
+        }
+    }
+
+    //Tokens that only look like a DFA token up to acceptPos: .5, // and /*, identifiers with \\u escapes, and '#' (a directive unless kept)
+    private boolean needsFallback(TokenKind kind, int acceptPos) {
+        if(kind == TokenKind.Hash || kind == TokenKind.HashHash) {
+            return true;
+        } else if(acceptPos >= end) {
+            return false;
+        }
+
+        char next = text.charAt(acceptPos);
+        if(kind == TokenKind.Dot) {
+            return next >= '0' && next <= '9';
+        } else if(kind == TokenKind.Slash) {
+            return next == '/' || next == '*';
+        }
+
+        return next == '\\' && kind.hasLexeme();
+    }
+
+    //The prefixes SimpleScanner checks before scanning an identifier: u8R", u8", [uUL]', [uUL]", [uUL]R", R"
+    private boolean startsEncodedLiteral() {
+        char ch = text.charAt(pos);
+        if(ch == 'u' && isAMatch(pos + 1, "8")) {
+            return isAMatch(pos + 2, "\"") || isAMatch(pos + 2, "R\"");
+        } else if(ch == 'u' || ch == 'U' || ch == 'L') {
+            return isAMatch(pos + 1, "'") || isAMatch(pos + 1, "\"") || isAMatch(pos + 1, "R\"");
+        }
+
+        return ch == 'R' && isAMatch(pos + 1, "\"");
+    }
+}
@@ -0,0 +1,91 @@
+package org.bromano.cplusplusparser.scanner;
+
+/*
+    Keeps the tokens of a text up to date across edits by re-lexing only around the edit.
+
+    The scanner keeps no state between tokens: comments and raw strings are consumed whole inside
+    one scan, so the end of every token is a checkpoint that lexing can resume from with seek().
+    An edit re-lexes from the end of the last token it cannot affect, up to the first new token past
+    the edit that starts where an old token started (shifted by the edit). From there on the text
+    and the scanner state are the same as before, so the old tokens are kept.
+*/
+public class IncrementalLexer {
+    //Chars a scanner may read past the end of a token (longest punctuator, u8R" prefixes...)
+    private static final int LOOKAHEAD = 8;
+
+    private final Scanner scanner;
+    private final TokenBuffer scratch;
+    private CharSequence text;
+    private TokenBuffer tokens;
+
+    public IncrementalLexer(Scanner scanner, CharSequence text) throws ScannerException {
+        this.scanner = scanner;
+        this.text = text;
+        this.scanner.setText(text);
+        this.tokens = this.scanner.lexToBuffer();
+        this.scratch = new TokenBuffer(text, 1);
+    }
+
+    public TokenBuffer getTokenBuffer() {
+        return this.tokens;
+    }
+
+    public CharSequence getText() {
+        return this.text;
+    }
+
+    /*
+        Updates the tokens for text, which is the previous text with [start, oldEnd) replaced by
+        [start, newEnd) of text. If the new text does not lex, the error is thrown and the tokens
+        (and text) stay those of the previous text.
+    */
+    public TokenDelta edit(CharSequence text, int start, int oldEnd, int newEnd) throws ScannerException {
+        TokenBuffer old = this.tokens;
+        int shift = newEnd - oldEnd;
+
+        //First token whose lexing could have seen the edit, ends are non-decreasing
+        int first = 0;
+        int high = old.size() - 1;
+        while(first <= high) {
+            int mid = (first + high) >>> 1;
+            if(old.getEnd(mid) + LOOKAHEAD <= start) {
+                first = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        TokenBuffer inserted = new TokenBuffer(text, 16);
+        this.scanner.setText(text);
+        this.scanner.seek(first > 0 ? old.getEnd(first - 1) : 0);
+
+        //Old token that the new stream is compared against
+        int next = first;
+        while(true) {
+            this.scratch.clear();
+            TokenKind kind = this.scanner.scanInto(this.scratch);
+            int tokenStart = this.scratch.getStart(0);
+
+            if(tokenStart >= newEnd) {
+                int oldStart = tokenStart - shift;
+                while(next < old.size() && old.getStart(next) < oldStart) {
+                    next++;
+                }
+                if(next < old.size() && old.getStart(next) == oldStart && old.getKind(next) == kind) {
+                    break;
+                }
+            }
+
+            inserted.addRange(this.scratch, 0, 1);
+            if(kind == TokenKind.EndOfFile) {
+                next = old.size();
+                break;
+            }
+        }
+
+        old.replaceRange(first, next, inserted, shift);
+        old.setSource(text);
+        this.text = text;
+        return new TokenDelta(first, next - first, inserted, shift);
+    }
+}
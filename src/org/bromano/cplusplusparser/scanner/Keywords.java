@@ -0,0 +1,199 @@
+package org.bromano.cplusplusparser.scanner;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+    Immutable keyword table shared by every scanner.
+    Keywords are bucketed by length and first character so an identifier can be classified
+    straight from the source range without allocating a String for it.
+*/
+public final class Keywords {
+    private static final int MAX_LENGTH = 16;
+    private static final int FIRST_CHARS = 26;
+
+    private static final Map<String, TokenKind> keywordMap = new LinkedHashMap<>();
+    private static final String[][] spellings = new String[(MAX_LENGTH + 1) * FIRST_CHARS][];
+    private static final TokenKind[][] kinds = new TokenKind[(MAX_LENGTH + 1) * FIRST_CHARS][];
+    private static final Token[][] tokens = new Token[(MAX_LENGTH + 1) * FIRST_CHARS][];
+    private static final boolean[] keywordKinds = new boolean[TokenKind.values().length];
+
+    static {
+        add("true", TokenKind.BooleanLiteral);
+        add("false", TokenKind.BooleanLiteral);
+        add("nullptr", TokenKind.PointerLiteral);
+        add("alignas", TokenKind.AlignasKeyword);
+        add("alignof", TokenKind.AlignofKeyword);
+        add("asm", TokenKind.AsmKeyword);
+        add("auto", TokenKind.AutoKeyword);
+        add("bool", TokenKind.BoolKeyword);
+        add("break", TokenKind.BreakKeyword);
+        add("case", TokenKind.CaseKeyword);
+        add("catch", TokenKind.CatchKeyword);
+        add("char", TokenKind.CharKeyword);
+        add("char16_t", TokenKind.Char16TKeyword);
+        add("char32_t", TokenKind.Char32TKeyword);
+        add("class", TokenKind.ClassKeyword);
+        add("const", TokenKind.ConstKeyword);
+        add("constexpr", TokenKind.ConstexprKeyword);
+        add("const_cast", TokenKind.ConstCastKeyword);
+        add("continue", TokenKind.ContinueKeyword);
+        add("decltype", TokenKind.DecltypeKeyword);
+        add("default", TokenKind.DefaultKeyword);
+        add("delete", TokenKind.DeleteKeyword);
+        add("do", TokenKind.DoKeyword);
+        add("double", TokenKind.DoubleKeyword);
+        add("dynamic_cast", TokenKind.DynamicCastKeyword);
+        add("else", TokenKind.ElseKeyword);
+        add("enum", TokenKind.EnumKeyword);
+        add("explicit", TokenKind.ExplicitKeyword);
+        add("export", TokenKind.ExportKeyword);
+        add("extern", TokenKind.ExternKeyword);
+        add("float", TokenKind.FloatKeyword);
+        add("for", TokenKind.ForKeyword);
+        add("friend", TokenKind.FriendKeyword);
+        add("goto", TokenKind.GotoKeyword);
+        add("if", TokenKind.IfKeyword);
+        add("inline", TokenKind.InlineKeyword);
+        add("int", TokenKind.IntKeyword);
+        add("long", TokenKind.LongKeyword);
+        add("mutable", TokenKind.MutableKeyword);
+        add("namespace", TokenKind.NamespaceKeyword);
+        add("new", TokenKind.NewKeyword);
+        add("noexcept", TokenKind.NoexceptKeyword);
+        add("operator", TokenKind.OperatorKeyword);
+        add("private", TokenKind.PrivateKeyword);
+        add("protected", TokenKind.ProtectedKeyword);
+        add("public", TokenKind.PublicKeyword);
+        add("register", TokenKind.RegisterKeyword);
+        add("reinterpret_cast", TokenKind.ReinterpretCastKeyword);
+        add("return", TokenKind.ReturnKeyword);
+        add("short", TokenKind.ShortKeyword);
+        add("signed", TokenKind.SignedKeyword);
+        add("sizeof", TokenKind.SizeofKeyword);
+        add("static", TokenKind.StaticKeyword);
+        add("static_assert", TokenKind.StaticAssertKeyword);
+        add("static_cast", TokenKind.StaticCastKeyword);
+        add("struct", TokenKind.StructKeyword);
+        add("switch", TokenKind.SwitchKeyword);
+        add("template", TokenKind.TemplateKeyword);
+        add("this", TokenKind.ThisKeyword);
+        add("thread_local", TokenKind.ThreadLocalKeyword);
+        add("throw", TokenKind.ThrowKeyword);
+        add("try", TokenKind.TryKeyword);
+        add("typedef", TokenKind.TypedefKeyword);
+        add("typeid", TokenKind.TypeidKeyword);
+        add("typename", TokenKind.TypenameKeyword);
+        add("union", TokenKind.UnionKeyword);
+        add("unsigned", TokenKind.UnsignedKeyword);
+        add("using", TokenKind.UsingKeyword);
+        add("virtual", TokenKind.VirtualKeyword);
+        add("void", TokenKind.VoidKeyword);
+        add("volatile", TokenKind.VolatileKeyword);
+        add("wchar_t", TokenKind.WcharTKeyword);
+        add("while", TokenKind.WhileKeyword);
+        add("and", TokenKind.And);
+        add("and_eq", TokenKind.AndEq);
+        add("bitand", TokenKind.Bitand);
+        add("bitor", TokenKind.Bitor);
+        add("compl", TokenKind.Compl);
+        add("not", TokenKind.Not);
+        add("not_eq", TokenKind.NotEq);
+        add("or", TokenKind.Or);
+        add("or_eq", TokenKind.OrEq);
+        add("xor", TokenKind.Xor);
+        add("xor_eq", TokenKind.XorEq);
+        add("final", TokenKind.FinalKeyword);
+        add("override", TokenKind.OverrideKeyword);
+    }
+
+    private Keywords() {
+    }
+
+    private static void add(String spelling, TokenKind kind) {
+        keywordMap.put(spelling, kind);
+        keywordKinds[kind.ordinal()] = true;
+
+        int bucket = getBucket(spelling.length(), spelling.charAt(0));
+        String[] bucketSpellings = spellings[bucket];
+        TokenKind[] bucketKinds = kinds[bucket];
+        Token[] bucketTokens = tokens[bucket];
+        int size = bucketSpellings == null ? 0 : bucketSpellings.length;
+
+        String[] newSpellings = new String[size + 1];
+        TokenKind[] newKinds = new TokenKind[size + 1];
+        Token[] newTokens = new Token[size + 1];
+        for(int i = 0; i < size; i++) {
+            newSpellings[i] = bucketSpellings[i];
+            newKinds[i] = bucketKinds[i];
+            newTokens[i] = bucketTokens[i];
+        }
+        newSpellings[size] = spelling;
+        newKinds[size] = kind;
+        newTokens[size] = new Token(kind, spelling);
+
+        spellings[bucket] = newSpellings;
+        kinds[bucket] = newKinds;
+        tokens[bucket] = newTokens;
+    }
+
+    private static int getBucket(int length, char firstChar) {
+        return length * FIRST_CHARS + (firstChar - 'a');
+    }
+
+    public static Map<String, TokenKind> getKeywordMap() {
+        return Collections.unmodifiableMap(keywordMap);
+    }
+
+    public static boolean isKeyword(TokenKind kind) {
+        return keywordKinds[kind.ordinal()];
+    }
+
+    //Returns the keyword kind for text[start, end) or null when it is an ordinary identifier
+    public static TokenKind lookup(CharSequence text, int start, int end) {
+        int index = find(text, start, end);
+        return index < 0 ? null : kinds[getBucket(end - start, text.charAt(start))][index];
+    }
+
+    //Returns the shared token for the keyword text[start, end), it carries no position
+    public static Token lookupToken(CharSequence text, int start, int end) {
+        int index = find(text, start, end);
+        return index < 0 ? null : tokens[getBucket(end - start, text.charAt(start))][index];
+    }
+
+    private static int find(CharSequence text, int start, int end) {
+        int length = end - start;
+        if(length < 2 || length > MAX_LENGTH) {
+            return -1;
+        }
+
+        char firstChar = text.charAt(start);
+        if(firstChar < 'a' || firstChar > 'z') {
+            return -1;
+        }
+
+        String[] bucketSpellings = spellings[getBucket(length, firstChar)];
+        if(bucketSpellings == null) {
+            return -1;
+        }
+
+        for(int i = 0; i < bucketSpellings.length; i++) {
+            if(matches(bucketSpellings[i], text, start, length)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private static boolean matches(String spelling, CharSequence text, int start, int length) {
+        //First character is already known to match
+        for(int i = 1; i < length; i++) {
+            if(spelling.charAt(i) != text.charAt(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,57 @@
+package org.bromano.cplusplusparser.scanner;
+
+import java.util.Arrays;
+
+/*
+    Resolves source offsets to 1-based line and column numbers.
+    The line-start index is only built the first time a position is resolved.
+*/
+public class LineMap {
+    private final CharSequence text;
+    private volatile int[] lineStarts;
+    private int lineCount;
+
+    public LineMap(CharSequence text) {
+        this.text = text;
+    }
+
+    private int[] getLineStarts() {
+        int[] starts = this.lineStarts;
+        if(starts != null) {
+            return starts;
+        }
+
+        starts = new int[64];
+        int count = 1;
+        int length = this.text.length();
+        for(int i = 0; i < length; i++) {
+            if(this.text.charAt(i) == '\n') {
+                if(count == starts.length) {
+                    starts = Arrays.copyOf(starts, count * 2);
+                }
+                starts[count++] = i + 1;
+            }
+        }
+
+        this.lineCount = count;
+        this.lineStarts = starts;
+        return starts;
+    }
+
+    public int getLine(int offset) {
+        int[] starts = this.getLineStarts();
+        int index = Arrays.binarySearch(starts, 0, this.lineCount, offset);
+
+        //Not an exact line start so binarySearch returns -(insertion point) - 1
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    public int getColumn(int offset) {
+        return offset - this.getLineStarts()[this.getLine(offset) - 1] + 1;
+    }
+
+    public int getLineCount() {
+        this.getLineStarts();
+        return this.lineCount;
+    }
+}
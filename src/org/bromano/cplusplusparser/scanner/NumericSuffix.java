@@ -0,0 +1,13 @@
+package org.bromano.cplusplusparser.scanner;
+
+//Suffix of an integer or floating literal, user-defined suffixes are not included
+public enum NumericSuffix {
+    None,
+    Unsigned,
+    Long,
+    UnsignedLong,
+    LongLong,
+    UnsignedLongLong,
+    Float,
+    LongDouble
+}
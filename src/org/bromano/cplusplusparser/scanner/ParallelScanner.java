@@ -0,0 +1,253 @@
+package org.bromano.cplusplusparser.scanner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+
+/*
+    Lexes large inputs in parallel, producing exactly the tokens of a sequential lexToBuffer().
+
+    The input is split at line starts and every chunk is lexed speculatively from its split point,
+    keeping the tokens that start before the next split point plus the first one after it.
+    A split point can fall inside a block comment or a (raw) string literal, so chunks are checked
+    in order against the true position of the next token: the scanner keeps no state between
+    tokens, so once the true stream and a chunk agree on a token start they agree from there on.
+    If the true next token is not one of the chunk's starts, it is re-lexed sequentially until the
+    two converge or it runs past the chunk. Errors in speculative chunks only count once validated,
+    so the first error in stream order is the one reported.
+*/
+public class ParallelScanner {
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+    private final Supplier<Scanner> scannerFactory;
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+    private TokenBuffer tokenBuffer;
+
+    public ParallelScanner() {
+        this(SimpleScanner::new, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    public ParallelScanner(Supplier<Scanner> scannerFactory, ForkJoinPool pool, int chunkSize) {
+        this.scannerFactory = scannerFactory;
+        this.pool = pool;
+        this.chunkSize = Math.max(chunkSize, 1);
+    }
+
+    //Tokens lexed so far, still available after lex() has thrown
+    public TokenBuffer getTokenBuffer() {
+        return this.tokenBuffer;
+    }
+
+    /*
+        Errors behind the Error tokens of the last lex() with recovering scanners.
+        Speculative chunks can hit errors that are never validated, so the errors are not collected
+        from the chunk scanners but found again by re-scanning each Error token (they are rare).
+    */
+    public List<ScannerException> getDiagnostics() {
+        List<ScannerException> diagnostics = new ArrayList<>();
+        TokenBuffer tokens = this.tokenBuffer;
+        Scanner scanner = null;
+
+        for(int i = 0; tokens != null && i < tokens.size(); i++) {
+            if(tokens.getKind(i) != TokenKind.Error) {
+                continue;
+            }
+
+            if(scanner == null) {
+                scanner = this.scannerFactory.get();
+                scanner.setRecoverErrors(false);
+                scanner.setText(tokens.getSource());
+            }
+
+            scanner.seek(tokens.getStart(i));
+            try {
+                scanner.scanInto(new TokenBuffer(tokens.getSource(), 1));
+            } catch (ScannerException e) {
+                diagnostics.add(e);
+            }
+        }
+
+        return diagnostics;
+    }
+
+    public TokenBuffer lex(CharSequence text) throws ScannerException {
+        int[] splits = this.findSplitPoints(text);
+        this.tokenBuffer = new TokenBuffer(text, new LineMap(text));
+
+        List<ForkJoinTask<Chunk>> tasks = new ArrayList<>(splits.length);
+        for(int i = 0; i < splits.length; i++) {
+            int limit = i + 1 < splits.length ? splits[i + 1] : Integer.MAX_VALUE;
+            Chunk chunk = new Chunk(text, splits[i], limit);
+            tasks.add(this.pool.submit(() -> chunk.lex(this.scannerFactory.get())));
+        }
+
+        try {
+            this.stitch(text, tasks);
+        } finally {
+            for(ForkJoinTask<Chunk> task : tasks) {
+                task.cancel(false);
+            }
+        }
+
+        return this.tokenBuffer;
+    }
+
+    //Line starts close to every multiple of the chunk size, the first split point is always 0
+    private int[] findSplitPoints(CharSequence text) {
+        int length = text.length();
+        List<Integer> splits = new ArrayList<>();
+        splits.add(0);
+
+        for(int target = this.chunkSize; target < length; target += this.chunkSize) {
+            int split = target;
+            while(split < length && text.charAt(split - 1) != '\n') {
+                split++;
+            }
+
+            if(split < length && split > splits.get(splits.size() - 1)) {
+                splits.add(split);
+            }
+        }
+
+        int[] result = new int[splits.size()];
+        for(int i = 0; i < result.length; i++) {
+            result[i] = splits.get(i);
+        }
+        return result;
+    }
+
+    private void stitch(CharSequence text, List<ForkJoinTask<Chunk>> tasks) throws ScannerException {
+        TokenBuffer result = this.tokenBuffer;
+        TokenBuffer scratch = new TokenBuffer(text, 1);
+        Scanner scanner = null;
+
+        //Start of the next token of the true stream
+        int next = 0;
+
+        for(ForkJoinTask<Chunk> task : tasks) {
+            Chunk chunk = join(task);
+            int index = chunk.indexOfStart(next);
+
+            if(index < 0) {
+                if(scanner == null) {
+                    scanner = this.scannerFactory.get();
+                    scanner.setText(text);
+                }
+                scanner.seek(next);
+
+                //The chunk started out of sync, re-lex until the true stream reaches one of its tokens
+                while(true) {
+                    scratch.clear();
+                    scanner.scanInto(scratch);
+
+                    int start = scratch.getStart(0);
+                    if(start >= chunk.limit) {
+                        next = start;
+                        break;
+                    }
+
+                    index = chunk.indexOfStart(start);
+                    if(index >= 0) {
+                        break;
+                    }
+
+                    result.addRange(scratch, 0, 1);
+                    if(scratch.getKind(0) == TokenKind.EndOfFile) {
+                        return;
+                    }
+                }
+
+                if(index < 0) {
+                    continue;
+                }
+            }
+
+            result.addRange(chunk.tokens, index, chunk.count);
+
+            if(chunk.error != null) {
+                chunk.rethrow();
+            } else if(chunk.count < chunk.tokens.size()) {
+                next = chunk.tokens.getStart(chunk.count);
+            } else {
+                //The last chunk ends with EndOfFile
+                return;
+            }
+        }
+    }
+
+    private static Chunk join(ForkJoinTask<Chunk> task) {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while lexing", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Chunk lexing failed", e.getCause());
+        }
+    }
+
+    private static class Chunk {
+        private final CharSequence text;
+        private final int start;
+        private final int limit;
+        private TokenBuffer tokens;
+        //Tokens starting before limit, a following token (if any) is where the next chunk has to start
+        private int count;
+        private Exception error;
+
+        Chunk(CharSequence text, int start, int limit) {
+            this.text = text;
+            this.start = start;
+            this.limit = limit;
+        }
+
+        Chunk lex(Scanner scanner) {
+            scanner.setText(this.text);
+            scanner.seek(this.start);
+            this.tokens = new TokenBuffer(this.text);
+
+            try {
+                TokenKind kind;
+                do {
+                    kind = scanner.scanInto(this.tokens);
+                } while(kind != TokenKind.EndOfFile && this.tokens.getStart(this.tokens.size() - 1) < this.limit);
+            } catch (ScannerException | RuntimeException e) {
+                //Only an error if this chunk turns out to be in sync
+                this.error = e;
+            }
+
+            int size = this.tokens.size();
+            this.count = size > 0 && this.tokens.getStart(size - 1) >= this.limit ? size - 1 : size;
+            return this;
+        }
+
+        //Token starts are strictly increasing
+        int indexOfStart(int offset) {
+            int low = 0;
+            int high = this.tokens.size() - 1;
+            while(low <= high) {
+                int mid = (low + high) >>> 1;
+                int midStart = this.tokens.getStart(mid);
+                if(midStart < offset) {
+                    low = mid + 1;
+                } else if(midStart > offset) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -1;
+        }
+
+        void rethrow() throws ScannerException {
+            if(this.error instanceof ScannerException) {
+                throw (ScannerException) this.error;
+            }
+            throw (RuntimeException) this.error;
+        }
+    }
+}
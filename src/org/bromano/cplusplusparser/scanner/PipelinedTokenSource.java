@@ -0,0 +1,169 @@
+package org.bromano.cplusplusparser.scanner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Stack;
+
+/*
+    TokenSource fed by a scanner running on its own thread, so lexing overlaps with parsing.
+    The scanner fills fixed-size chunks and hands them over through a bounded SpscRingBuffer,
+    which keeps it at most a few chunks ahead of the parser. Token i lives in chunk i / chunkSize;
+    only the last chunk may be short. Chunks are dropped once released and not held by a mark.
+*/
+public class PipelinedTokenSource implements TokenSource, AutoCloseable {
+    public static final int DEFAULT_CHUNK_SIZE = 4096;
+    public static final int DEFAULT_CAPACITY = 16;
+
+    private final int chunkSize;
+    private final LineMap lineMap;
+    private final SpscRingBuffer<TokenBuffer> ring;
+    private final Thread producer;
+
+    //Chunks received so far, released ones are set to null
+    private List<TokenBuffer> chunks;
+    private boolean ended;
+    private Stack<Integer> marks;
+    private int firstLiveChunk;
+
+    //Set by the producer before it publishes its last chunk
+    private volatile Throwable failure;
+
+    public PipelinedTokenSource(Scanner scanner, CharSequence text) {
+        this(scanner, text, DEFAULT_CHUNK_SIZE, DEFAULT_CAPACITY);
+    }
+
+    //NOTE: The scanner is reset to the start of text and then owned by the producer thread
+    public PipelinedTokenSource(Scanner scanner, CharSequence text, int chunkSize, int capacity) {
+        scanner.setText(text);
+        this.chunkSize = chunkSize;
+        this.lineMap = scanner.getLineMap();
+        this.ring = new SpscRingBuffer<>(capacity);
+        this.chunks = new ArrayList<>();
+        this.marks = new Stack<>();
+        this.producer = new Thread(() -> this.produce(scanner, text), "scanner");
+        this.producer.setDaemon(true);
+        this.producer.start();
+    }
+
+    private void produce(Scanner scanner, CharSequence text) {
+        try {
+            TokenKind kind = null;
+            while(kind != TokenKind.EndOfFile) {
+                TokenBuffer chunk = null;
+                try {
+                    chunk = new TokenBuffer(text, this.chunkSize);
+                    while(chunk.size() < this.chunkSize && kind != TokenKind.EndOfFile) {
+                        kind = scanner.scanInto(chunk);
+                    }
+                } catch (ScannerException | RuntimeException | Error e) {
+                    //Publish what was scanned so the parser still sees every token before the error,
+                    //an empty chunk if the chunk could not even be allocated
+                    this.failure = e;
+                    this.ring.put(chunk != null ? chunk : new TokenBuffer(text, 1));
+                    return;
+                }
+                this.ring.put(chunk);
+            }
+        } catch (InterruptedException e) {
+            //Closed before the end of input
+        }
+    }
+
+    private void receive() {
+        TokenBuffer chunk;
+        try {
+            chunk = this.ring.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for tokens", e);
+        }
+
+        this.chunks.add(chunk);
+        this.ended = chunk.size() < this.chunkSize || chunk.getKind(chunk.size() - 1) == TokenKind.EndOfFile;
+    }
+
+    private void rethrowFailure() {
+        Throwable failure = this.failure;
+        if(failure instanceof ScannerException) {
+            throw new UncheckedScannerException((ScannerException) failure);
+        } else if(failure instanceof Error) {
+            throw (Error) failure;
+        }
+        throw (RuntimeException) failure;
+    }
+
+    //Returns the number of the chunk holding index, or of the last chunk when index is past the end of input
+    private int findChunk(int index) {
+        int chunkIndex = index / this.chunkSize;
+        while(!this.ended && chunkIndex >= this.chunks.size()) {
+            this.receive();
+        }
+
+        if(chunkIndex >= this.chunks.size() || index - chunkIndex * this.chunkSize >= this.chunks.get(chunkIndex).size()) {
+            if(this.failure != null) {
+                this.rethrowFailure();
+            }
+            chunkIndex = this.chunks.size() - 1;
+        }
+
+        if(this.chunks.get(chunkIndex) == null) {
+            throw new IllegalStateException("Token " + index + " was released");
+        }
+        return chunkIndex;
+    }
+
+    public TokenKind getKind(int index) {
+        int chunkIndex = this.findChunk(index);
+        return this.chunks.get(chunkIndex).getKind(index - chunkIndex * this.chunkSize);
+    }
+
+    public int getStart(int index) {
+        int chunkIndex = this.findChunk(index);
+        return this.chunks.get(chunkIndex).getStart(index - chunkIndex * this.chunkSize);
+    }
+
+    public int getEnd(int index) {
+        int chunkIndex = this.findChunk(index);
+        return this.chunks.get(chunkIndex).getEnd(index - chunkIndex * this.chunkSize);
+    }
+
+    public CharSequence getLexeme(int index) {
+        int chunkIndex = this.findChunk(index);
+        return this.chunks.get(chunkIndex).getLexeme(index - chunkIndex * this.chunkSize);
+    }
+
+    public int getSymbol(int index) {
+        int chunkIndex = this.findChunk(index);
+        return this.chunks.get(chunkIndex).getSymbol(index - chunkIndex * this.chunkSize);
+    }
+
+    public LineMap getLineMap() {
+        return this.lineMap;
+    }
+
+    public void mark(int index) {
+        this.marks.push(index);
+    }
+
+    public void unmark() {
+        this.marks.pop();
+    }
+
+    public void release(int index) {
+        //Keep the token before the release point so errors at end of input can point past it
+        int keep = index - 1;
+        if(!this.marks.isEmpty()) {
+            keep = Math.min(keep, this.marks.firstElement());
+        }
+
+        int keepChunk = Math.min(keep / this.chunkSize, this.chunks.size() - 1);
+        while(this.firstLiveChunk < keepChunk) {
+            this.chunks.set(this.firstLiveChunk++, null);
+        }
+    }
+
+    //Stops the scanner thread if the parser gives up before the end of input
+    public void close() {
+        this.producer.interrupt();
+    }
+}
@@ -0,0 +1,96 @@
+package org.bromano.cplusplusparser.scanner;
+
+/*
+    Longest-match trie over the punctuator spellings in TokenKind, shared by every scanner.
+    Characters are first mapped to a small class so the transition table stays one flat short[],
+    and matching walks raw chars of the source without allocating.
+*/
+public final class Punctuators {
+    private static final int ASCII = 128;
+    private static final int MAX_STATES = 128;
+
+    //Character class of each ASCII char, 0 for chars that appear in no punctuator
+    private static final byte[] classes = new byte[ASCII];
+    private static final int classCount;
+    //transitions[state * classCount + class] is the next state, 0 (the root) meaning no transition
+    private static final short[] transitions;
+    private static final TokenKind[] accepting = new TokenKind[MAX_STATES];
+    private static final byte[] depths = new byte[MAX_STATES];
+    //Number of trie states, the root included
+    private static final int stateCount;
+
+    static {
+        TokenKind[] kinds = TokenKind.values();
+
+        int count = 1;
+        for(TokenKind kind : kinds) {
+            String spelling = kind.getSpelling();
+            for(int i = 0; spelling != null && i < spelling.length(); i++) {
+                if(classes[spelling.charAt(i)] == 0) {
+                    classes[spelling.charAt(i)] = (byte) count++;
+                }
+            }
+        }
+        classCount = count;
+        transitions = new short[MAX_STATES * classCount];
+
+        int states = 1;
+        for(TokenKind kind : kinds) {
+            if(kind.getSpelling() != null) {
+                states = add(kind.getSpelling(), kind, states);
+            }
+        }
+        stateCount = states;
+    }
+
+    private Punctuators() {
+    }
+
+    //Adds the path for spelling and returns the new number of states
+    private static int add(String spelling, TokenKind kind, int states) {
+        int state = 0;
+        for(int i = 0; i < spelling.length(); i++) {
+            int index = state * classCount + classes[spelling.charAt(i)];
+            if(transitions[index] == 0) {
+                depths[states] = (byte) (i + 1);
+                transitions[index] = (short) states++;
+            }
+            state = transitions[index];
+        }
+        accepting[state] = kind;
+        return states;
+    }
+
+    /*
+        Returns the accepting state of the longest punctuator at pos, or -1 if none starts there.
+        Resolve it with getKind() and getLength().
+    */
+    public static int match(CharSequence text, int pos, int end) {
+        int state = 0;
+        int lastAccepting = -1;
+
+        for(int i = pos; i < end; i++) {
+            char ch = text.charAt(i);
+            if(ch >= ASCII || classes[ch] == 0) {
+                break;
+            }
+
+            state = transitions[state * classCount + classes[ch]];
+            if(state == 0) {
+                break;
+            } else if(accepting[state] != null) {
+                lastAccepting = state;
+            }
+        }
+
+        return lastAccepting;
+    }
+
+    public static TokenKind getKind(int state) {
+        return accepting[state];
+    }
+
+    public static int getLength(int state) {
+        return depths[state];
+    }
+}
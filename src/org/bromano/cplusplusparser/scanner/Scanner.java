@@ -5,8 +5,19 @@ import java.util.Map;
 
 public interface Scanner {
     Token scan() throws ScannerException;
+    TokenKind scanInto(TokenBuffer tokens) throws ScannerException;
     List<Token> lex() throws ScannerException;
-    void setText(String text);
+    TokenBuffer lexToBuffer() throws ScannerException;
+    void setText(CharSequence text);
+    void seek(int offset);
+    void setRecordPositions(boolean recordPositions);
+    void setComputeValues(boolean computeValues);
+    void setSymbolTable(SymbolTable symbols);
+    void setRecoverErrors(boolean recoverErrors);
+    void setKeepDirectives(boolean keepDirectives);
+    List<ScannerException> getDiagnostics();
     Map<String, TokenKind> generateKeywordMap();
     List<Token> getTokens();
+    TokenBuffer getTokenBuffer();
+    LineMap getLineMap();
 }
@@ -1,7 +1,38 @@
 package org.bromano.cplusplusparser.scanner;
 
 public class ScannerException extends Exception {
+    private final int offset;
+    private final LineMap lineMap;
+
     public ScannerException(String message) {
+        this(message, -1, null);
+    }
+
+    public ScannerException(String message, int offset, LineMap lineMap) {
         super(message);
+        this.offset = offset;
+        this.lineMap = lineMap;
+    }
+
+    public int getOffset() {
+        return this.offset;
+    }
+
+    public int getLine() {
+        return this.lineMap == null || this.offset < 0 ? -1 : this.lineMap.getLine(this.offset);
+    }
+
+    public int getColumn() {
+        return this.lineMap == null || this.offset < 0 ? -1 : this.lineMap.getColumn(this.offset);
+    }
+
+    //NOTE: Line and column are only resolved when the exception is rendered
+    @Override
+    public String getLocalizedMessage() {
+        if(this.lineMap == null || this.offset < 0) {
+            return this.getMessage();
+        }
+
+        return this.getMessage() + " (line " + this.getLine() + ", column " + this.getColumn() + ")";
     }
 }
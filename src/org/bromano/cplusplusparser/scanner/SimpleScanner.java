@@ -3,24 +3,49 @@ package org.bromano.cplusplusparser.scanner;
 import java.util.*;
 
 public class SimpleScanner implements Scanner {
-    private String text;
-    private Map<String, TokenKind> keywordMap;
+    private static final char[] ENCODING_PREFIXES = { 'u', 'U', 'L' };
+    private static final char[] FLOATING_SUFFIXES = { 'l', 'L', 'f', 'F' };
+    private static final char[] UNSIGNED_SUFFIXES = { 'u', 'U' };
+    private static final char[] LONG_SUFFIXES = { 'l', 'L' };
+    private static final char[] UNIVERSAL_CHARACTER_PREFIXES = { 'u', 'U' };
+    private static final char[] SIMPLE_ESCAPES = { '"', '\'', '?', '\\', 'a', 'b', 'f', 'n', 'r', 't', 'v' };
+    //Powers of ten that are exact in a double, see decodeFloating()
+    private static final double[] POW10 = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    protected CharSequence text;
     private List<Token> tokens;
-    private int pos = 0;
-    private int end = 0;
+    private TokenBuffer tokenBuffer;
+    private LineMap lineMap;
+    protected int pos = 0;
+    protected int tokenStart = 0;
+    private boolean recordPositions = true;
+    protected int end = 0;
+    private boolean computeValues = false;
+    private SymbolTable symbols;
+    private boolean recoverErrors = false;
+    private boolean keepDirectives = false;
+    private List<ScannerException> diagnostics;
+    //Value of the numeric literal just scanned, only set when computeValues is enabled
+    private boolean hasValue;
+    private long value;
+    private NumericSuffix suffix;
+    private boolean overflow;
 
     public SimpleScanner() {
         this.setText("");
-        this.keywordMap = generateKeywordMap();
     }
 
-    public SimpleScanner(String text) {
+    public SimpleScanner(CharSequence text) {
         this.setText(text);
-        this.keywordMap = generateKeywordMap();
     }
 
-    public void setText(String text) {
+    public void setText(CharSequence text) {
         this.text = text;
+        this.lineMap = null;
+        this.diagnostics = new ArrayList<>();
         this.pos = 0;
         this.end = text.length();
     }
@@ -30,100 +55,53 @@ public class SimpleScanner implements Scanner {
         return this.tokens;
     }
 
+    public TokenBuffer getTokenBuffer() {
+        return this.tokenBuffer;
+    }
+
+    //When disabled, punctuators and keywords (and identifiers, given a SymbolTable) are returned as shared tokens without a position
+    public void setRecordPositions(boolean recordPositions) {
+        this.recordPositions = recordPositions;
+    }
+
+    //When enabled, scanInto() stores the value of integer and floating literals in the token buffer
+    public void setComputeValues(boolean computeValues) {
+        this.computeValues = computeValues;
+    }
+
+    //When set, identifiers are interned and carry their symbol id, the table may be shared between scanners
+    public void setSymbolTable(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    //When enabled, malformed input becomes an Error token and its exception is added to getDiagnostics() instead of thrown
+    public void setRecoverErrors(boolean recoverErrors) {
+        this.recoverErrors = recoverErrors;
+    }
+
+    //When enabled, '#' is scanned as a Hash token and line splices as whitespace, so a preprocessor can read directives
+    public void setKeepDirectives(boolean keepDirectives) {
+        this.keepDirectives = keepDirectives;
+    }
+
+    //Errors recovered from since the last setText()
+    public List<ScannerException> getDiagnostics() {
+        return this.diagnostics;
+    }
+
+    public LineMap getLineMap() {
+        if(this.lineMap == null) {
+            this.lineMap = new LineMap(this.text);
+        }
+        return this.lineMap;
+    }
+
     public Map<String, TokenKind> generateKeywordMap() {
-        Map<String, TokenKind> keywordMap = new HashMap<>();
-        keywordMap.put("true", TokenKind.BooleanLiteral);
-        keywordMap.put("false", TokenKind.BooleanLiteral);
-        keywordMap.put("nullptr", TokenKind.PointerLiteral);
-        keywordMap.put("alignas", TokenKind.AlignasKeyword);
-        keywordMap.put("alignof", TokenKind.AlignofKeyword);
-        keywordMap.put("asm", TokenKind.AsmKeyword);
-        keywordMap.put("auto", TokenKind.AutoKeyword);
-        keywordMap.put("bool", TokenKind.BoolKeyword);
-        keywordMap.put("break", TokenKind.BreakKeyword);
-        keywordMap.put("case", TokenKind.CaseKeyword);
-        keywordMap.put("catch", TokenKind.CatchKeyword);
-        keywordMap.put("char", TokenKind.CharKeyword);
-        keywordMap.put("char16_t", TokenKind.Char16TKeyword);
-        keywordMap.put("char32_t", TokenKind.Char32TKeyword);
-        keywordMap.put("class", TokenKind.ClassKeyword);
-        keywordMap.put("const", TokenKind.ConstKeyword);
-        keywordMap.put("constexpr", TokenKind.ConstexprKeyword);
-        keywordMap.put("const_cast", TokenKind.ConstCastKeyword);
-        keywordMap.put("continue", TokenKind.ContinueKeyword);
-        keywordMap.put("decltype", TokenKind.DecltypeKeyword);
-        keywordMap.put("default", TokenKind.DefaultKeyword);
-        keywordMap.put("delete", TokenKind.DeleteKeyword);
-        keywordMap.put("do", TokenKind.DoKeyword);
-        keywordMap.put("double", TokenKind.DoubleKeyword);
-        keywordMap.put("dynamic_cast", TokenKind.DynamicCastKeyword);
-        keywordMap.put("else", TokenKind.ElseKeyword);
-        keywordMap.put("enum", TokenKind.EnumKeyword);
-        keywordMap.put("explicit", TokenKind.ExplicitKeyword);
-        keywordMap.put("export", TokenKind.ExportKeyword);
-        keywordMap.put("extern", TokenKind.ExternKeyword);
-        keywordMap.put("float", TokenKind.FloatKeyword);
-        keywordMap.put("for", TokenKind.ForKeyword);
-        keywordMap.put("friend", TokenKind.FriendKeyword);
-        keywordMap.put("goto", TokenKind.GotoKeyword);
-        keywordMap.put("if", TokenKind.IfKeyword);
-        keywordMap.put("inline", TokenKind.InlineKeyword);
-        keywordMap.put("int", TokenKind.IntKeyword);
-        keywordMap.put("long", TokenKind.LongKeyword);
-        keywordMap.put("mutable", TokenKind.MutableKeyword);
-        keywordMap.put("namespace", TokenKind.NamespaceKeyword);
-        keywordMap.put("new", TokenKind.NewKeyword);
-        keywordMap.put("noexcept", TokenKind.NoexceptKeyword);
-        keywordMap.put("operator", TokenKind.OperatorKeyword);
-        keywordMap.put("private", TokenKind.PrivateKeyword);
-        keywordMap.put("protected", TokenKind.ProtectedKeyword);
-        keywordMap.put("public", TokenKind.PublicKeyword);
-        keywordMap.put("register", TokenKind.RegisterKeyword);
-        keywordMap.put("reinterpret_cast", TokenKind.ReinterpretCastKeyword);
-        keywordMap.put("return", TokenKind.ReturnKeyword);
-        keywordMap.put("short", TokenKind.ShortKeyword);
-        keywordMap.put("signed", TokenKind.SignedKeyword);
-        keywordMap.put("sizeof", TokenKind.SizeofKeyword);
-        keywordMap.put("static", TokenKind.StaticKeyword);
-        keywordMap.put("static_assert", TokenKind.StaticAssertKeyword);
-        keywordMap.put("static_cast", TokenKind.StaticCastKeyword);
-        keywordMap.put("struct", TokenKind.StructKeyword);
-        keywordMap.put("switch", TokenKind.SwitchKeyword);
-        keywordMap.put("template", TokenKind.TemplateKeyword);
-        keywordMap.put("this", TokenKind.ThisKeyword);
-        keywordMap.put("thread_local", TokenKind.ThreadLocalKeyword);
-        keywordMap.put("throw", TokenKind.ThrowKeyword);
-        keywordMap.put("try", TokenKind.TryKeyword);
-        keywordMap.put("typedef", TokenKind.TypedefKeyword);
-        keywordMap.put("typeid", TokenKind.TypeidKeyword);
-        keywordMap.put("typename", TokenKind.TypenameKeyword);
-        keywordMap.put("union", TokenKind.UnionKeyword);
-        keywordMap.put("unsigned", TokenKind.UnsignedKeyword);
-        keywordMap.put("using", TokenKind.UsingKeyword);
-        keywordMap.put("virtual", TokenKind.VirtualKeyword);
-        keywordMap.put("void", TokenKind.VoidKeyword);
-        keywordMap.put("volatile", TokenKind.VolatileKeyword);
-        keywordMap.put("wchar_t", TokenKind.WcharTKeyword);
-        keywordMap.put("while", TokenKind.WhileKeyword);
-        keywordMap.put("and", TokenKind.And);
-        keywordMap.put("and_eq", TokenKind.AndEq);
-        keywordMap.put("bitand", TokenKind.Bitand);
-        keywordMap.put("bitor", TokenKind.Bitor);
-        keywordMap.put("compl", TokenKind.Compl);
-        keywordMap.put("not", TokenKind.Not);
-        keywordMap.put("not_eq", TokenKind.NotEq);
-        keywordMap.put("or", TokenKind.Or);
-        keywordMap.put("or_eq", TokenKind.OrEq);
-        keywordMap.put("xor", TokenKind.Xor);
-        keywordMap.put("xor_eq", TokenKind.XorEq);
-        keywordMap.put("final", TokenKind.FinalKeyword);
-        keywordMap.put("override", TokenKind.OverrideKeyword);
-
-        return keywordMap;
+        return Keywords.getKeywordMap();
     }
 
     private void error(String message) throws ScannerException {
-        throw new ScannerException(message);
+        throw new ScannerException(message, pos, getLineMap());
     }
 
     public boolean isAMatch(int pos, char[] chars) {
@@ -143,22 +121,124 @@ public class SimpleScanner implements Scanner {
     }
 
     public boolean isAMatch(int startPos, String sequence) {
-        int endPos = startPos + sequence.length();
+        int length = sequence.length();
+
+        if(startPos >= end || startPos + length > end) {
+            return false;
+        }
+
+        for(int i = 0; i < length; i++) {
+            if(text.charAt(startPos + i) != sequence.charAt(i)) {
+                return false;
+            }
+        }
 
-        return startPos < end && endPos <= end && text.substring(startPos, endPos).equals(sequence);
+        return true;
+    }
+
+    //Checks whether the source at startPos repeats the source range [sequenceStart, sequenceStart + length)
+    public boolean isAMatch(int startPos, int sequenceStart, int length) {
+        int endPos = startPos + length;
+
+        if(startPos >= end || endPos > end) {
+            return false;
+        }
+
+        for(int i = 0; i < length; i++) {
+            if(text.charAt(startPos + i) != text.charAt(sequenceStart + i)) {
+                return false;
+            }
+        }
 
+        return true;
     }
 
     /*
         NOTE: Will not scan user-defined literals
     */
     public Token scan() throws ScannerException {
+        TokenKind kind = scanOrRecover();
+
+        if(!recordPositions) {
+            if(!kind.hasLexeme()) {
+                return Token.of(kind);
+            } else if(Keywords.isKeyword(kind)) {
+                return Keywords.lookupToken(text, tokenStart, pos);
+            } else if(kind == TokenKind.Identifier && this.symbols != null) {
+                return this.symbols.getToken(this.symbols.intern(text, tokenStart, pos));
+            }
+        }
+
+        if(kind == TokenKind.Identifier && this.symbols != null) {
+            return new Token(kind, text, tokenStart, pos, this.symbols.intern(text, tokenStart, pos));
+        }
+
+        return new Token(kind, text, tokenStart, pos);
+    }
+
+    private TokenKind scanOrRecover() throws ScannerException {
+        try {
+            return scanTokenKind();
+        } catch (ScannerException e) {
+            if(!this.recoverErrors) {
+                throw e;
+            }
+
+            this.diagnostics.add(e);
+            this.hasValue = false;
+            pos = this.findRecoveryPoint();
+            return TokenKind.Error;
+        }
+    }
+
+    /*
+        Where scanning resumes after an error in the token at tokenStart.
+        A broken character or string literal is skipped up to its closing quote (or the end of the line)
+        so its contents are not scanned as code, anything else resumes just past the error.
+    */
+    private int findRecoveryPoint() {
+        int resume = Math.max(Math.min(pos, end), tokenStart + 1);
+
+        int quote = tokenStart;
+        while(quote < resume && "u8ULR".indexOf(text.charAt(quote)) >= 0) {
+            quote++;
+        }
+        if(quote >= resume || (text.charAt(quote) != '"' && text.charAt(quote) != '\'')) {
+            return resume;
+        }
+
+        char quoteChar = text.charAt(quote);
+        if(resume - 1 > quote && text.charAt(resume - 1) == quoteChar) {
+            //The literal is complete but invalid (empty character literal...)
+            return resume;
+        }
+
+        for(int i = resume; i < end; i++) {
+            char ch = text.charAt(i);
+            if(ch == '\n') {
+                return i;
+            } else if(ch == '\\') {
+                i++;
+            } else if(ch == quoteChar) {
+                return i + 1;
+            }
+        }
+        return end;
+    }
+
+    private TokenKind scanPunctuator() {
+        int state = Punctuators.match(text, pos, end);
+        pos += Punctuators.getLength(state);
+        return Punctuators.getKind(state);
+    }
+
+    //Scans the next token and returns its kind, the token spans [tokenStart, pos)
+    protected TokenKind scanTokenKind() throws ScannerException {
 
         while(true) {
-            String value = "";
-            String userDefinedSuffix = "";
+            tokenStart = pos;
             if(pos >= end) {
-                return new Token(TokenKind.EndOfFile);
+                return TokenKind.EndOfFile;
             }
 
             char ch = text.charAt(pos);
@@ -170,299 +250,136 @@ public class SimpleScanner implements Scanner {
                 case '\f':
                 case ' ':
                     pos++;
-                    continue;
-                case '!':
-                    pos++;
-                    if(isAMatch(pos, "=")) {
+                    while(pos < end && isWhiteSpace(text.charAt(pos))) {
                         pos++;
-                        return new Token(TokenKind.ExclamationEquals);
                     }
-
-                    return new Token(TokenKind.Exclamation);
+                    continue;
                 case '"':
-                    value = scanString();
-                    userDefinedSuffix = scanIdentifier();
-
-                    if(userDefinedSuffix.length() > 0) {
-                        return new Token(TokenKind.UserDefinedStringLiteral, value + userDefinedSuffix);
+                    scanString();
+                    if(scanIdentifier()) {
+                        return TokenKind.UserDefinedStringLiteral;
                     }
 
-                    return new Token(TokenKind.StringLiteral, value);
-                case '#':
-                    while(pos < end) {
-                        pos++;
-                        if(isAMatch(pos, "\n")) {
-                            break;
-                        }
-                    }
-                    continue;
-                case '%':
-                    pos++;
-                    if(isAMatch(pos, ":%:")) {
-                        pos += 3;
-                        return new Token(TokenKind.PercentColonPercentColen);
-                    } else if(isAMatch(pos, ":")) {
-                        pos++;
-                        return new Token(TokenKind.PercentColon);
-                    } else if(isAMatch(pos, "=")) {
-                        pos++;
-                        return new Token(TokenKind.PercentEquals);
-                    } else if(isAMatch(pos, ">")) {
-                        pos++;
-                        return new Token(TokenKind.PercentGreaterThan);
+                    return TokenKind.StringLiteral;
+                case '#': {
+                    if(this.keepDirectives) {
+                        return scanPunctuator();
                     }
 
-                    return new Token(TokenKind.Percent);
-                case '&':
-                    pos++;
-                    if(isAMatch(pos, "=")) {
-                        pos++;
-                        return new Token(TokenKind.AmpersandEquals);
-                    } else if(isAMatch(pos, "&")) {
-                        pos++;
-                        return new Token(TokenKind.AmpersandAmpersand);
-                    }
-                    return new Token(TokenKind.Ampersand);
+                    //Stops at the newline itself
+                    int newline = TextSearch.indexOf(text, '\n', pos + 1, end);
+                    pos = newline < 0 ? end : newline;
+                    continue;
+                }
                 case '\'':
-                    value = scanCharSequence();
-                    userDefinedSuffix = scanIdentifier();
-
-                    if(userDefinedSuffix.length() > 0) {
-                        return new Token(TokenKind.UserDefinedCharacterLiteral, value + userDefinedSuffix);
-                    }
-                    return new Token(TokenKind.CharacterLiteral, value);
-                case '(':
-                    pos++;
-                    return new Token(TokenKind.OpenParen);
-                case ')':
-                    pos++;
-                    return new Token(TokenKind.CloseParen);
-                case '*':
-                    pos++;
-                    if(isAMatch(pos, "=")) {
-                        pos++;
-                        return new Token(TokenKind.AsteriskEquals);
-                    }
-                    return new Token(TokenKind.Asterisk);
-                case '+':
-                    pos++;
-                    if(isAMatch(pos, "=")) {
-                        pos++;
-                        return new Token(TokenKind.PlusEquals);
-                    } else if(isAMatch(pos, "+")) {
-                        pos++;
-                        return new Token(TokenKind.PlusPlus);
+                    scanCharSequence();
+                    if(scanIdentifier()) {
+                        return TokenKind.UserDefinedCharacterLiteral;
                     }
 
-                    return new Token(TokenKind.Plus);
-                case ',':
-                    pos++;
-                    return new Token(TokenKind.Comma);
-                case '-':
-                    pos++;
-                    if(isAMatch(pos, ">*")) {
-                        pos += 2;
-                        return new Token(TokenKind.MinusGreaterThanAsterisk);
-                    } else if(isAMatch(pos, "=")) {
-                        pos++;
-                        return new Token(TokenKind.MinusEquals);
-                    } else if(isAMatch(pos, ">")) {
-                        pos++;
-                        return new Token(TokenKind.MinusGreaterThan);
-                    } else if(isAMatch(pos, "-")) {
-                        pos++;
-                        return new Token(TokenKind.MinusMinus);
-                    }
-
-                    return new Token(TokenKind.Minus);
+                    return TokenKind.CharacterLiteral;
                 case '.':
-                    pos++;
-                    if(isAMatch(pos, "..")) {
-                        pos += 2;
-                        return new Token(TokenKind.DotDotDot);
-                    } else if(isAMatch(pos, "*")) {
-                        pos++;
-                        return new Token(TokenKind.DotAsterisk);
-                    } else if(isDecimalDigit(text.charAt(pos))) {
-                        //Unconsume dot for floating-literal
-                        pos--;
-                        value = scanFloatingLiteral();
-                        userDefinedSuffix = scanIdentifier();
-
-                        if(userDefinedSuffix.length() > 0) {
-                            return new Token(TokenKind.UserDefinedFloatingLiteral, value + userDefinedSuffix);
+                    if(pos + 1 < end && isDecimalDigit(text.charAt(pos + 1))) {
+                        scanFloatingLiteral();
+                        if(scanIdentifier()) {
+                            return TokenKind.UserDefinedFloatingLiteral;
                         }
 
-                        return new Token(TokenKind.FloatingLiteral, value);
+                        return TokenKind.FloatingLiteral;
                     }
 
-                    return new Token(TokenKind.Dot);
+                    return scanPunctuator();
                 case '/':
-                    pos++;
-                    if(isAMatch(pos, "=")) {
-                        pos++;
-                        return new Token(TokenKind.SlashEquals);
-                    } else if(isAMatch(pos, "/")) {
-                        pos++;
-                        while(pos < end) {
-                            if(isAMatch(pos, "\n")) {
-                                pos++;
-                                break;
-                            }
-                            pos++;
-                        }
+                    if(isAMatch(pos + 1, "/")) {
+                        int newline = TextSearch.indexOf(text, '\n', pos + 2, end);
+                        pos = newline < 0 ? end : newline + 1;
                         continue;
-                    } else if(isAMatch(pos, "*")) {
-                        pos++;
-                        while(pos < end) {
-                            if(isAMatch(pos, "*/")) {
-                                pos += 2;
-                                break;
-                            }
-                            pos++;
-                        }
+                    } else if(isAMatch(pos + 1, "*")) {
+                        pos = TextSearch.skipBlockComment(text, pos + 2, end);
                         continue;
                     }
 
-                    return new Token(TokenKind.Slash);
+                    return scanPunctuator();
+                case '!':
+                case '%':
+                case '&':
+                case '(':
+                case ')':
+                case '*':
+                case '+':
+                case ',':
+                case '-':
                 case ':':
-                    pos++;
-                    if(isAMatch(pos, ":")) {
-                        pos++;
-                        return new Token(TokenKind.ColonColon);
-                    } else if(isAMatch(pos, ">")) {
-                        pos++;
-                        return new Token(TokenKind.ColonGreaterThan);
-                    }
-
-                    return new Token(TokenKind.Colon);
                 case ';':
-                    pos++;
-                    return new Token(TokenKind.Semicolon);
                 case '<':
-                    pos++;
-
-                    if(isAMatch(pos, "<=")) {
-                        pos += 2;
-                        return new Token(TokenKind.LessThanLessThanEquals);
-                    } else if(isAMatch(pos, "<")) {
-                        pos++;
-                        return new Token(TokenKind.LessThanLessThan);
-                    } else if(isAMatch(pos, "=")) {
-                        pos++;
-                        return new Token(TokenKind.LessThanEquals);
-                    } else if(isAMatch(pos, ":")) {
-                        pos++;
-                        return new Token(TokenKind.LessThanColon);
-                    } else if(isAMatch(pos, "%")) {
-                        pos++;
-                        return new Token(TokenKind.LessThanPercent);
-                    }
-
-                    return new Token(TokenKind.LessThan);
                 case '=':
-                    pos++;
-                    if(isAMatch(pos, "=")) {
-                        pos++;
-                        return new Token(TokenKind.EqualsEquals);
-                    }
-                    return new Token(TokenKind.Equals);
                 case '>':
-                    pos++;
-                    if(isAMatch(pos, ">=")) {
-                        pos += 2;
-                        return new Token(TokenKind.GreaterThanGreaterThanEquals);
-                    } else if(isAMatch(pos, ">")) {
-                        pos++;
-                        return new Token(TokenKind.GreaterThanGreaterThan);
-                    } else if(isAMatch(pos, "=")) {
-                        pos++;
-                        return new Token(TokenKind.GreaterThanEquals);
-                    }
-
-                    return new Token(TokenKind.GreaterThan);
                 case '?':
-                    pos++;
-                    return new Token(TokenKind.Question);
                 case '[':
-                    pos++;
-                    return new Token(TokenKind.OpenBracket);
-                case '\\':
-                    return new Token(TokenKind.Identifier, scanIdentifier());
                 case ']':
-                    pos++;
-                    return new Token(TokenKind.CloseBracket);
                 case '^':
-                    pos++;
-                    if(isAMatch(pos, "=")) {
-                        pos++;
-                        return new Token(TokenKind.CaretEquals);
-                    }
-                    return new Token(TokenKind.Caret);
-                case '_':
-                    return new Token(TokenKind.Identifier, scanIdentifier());
                 case '{':
-                    pos++;
-                    return new Token(TokenKind.OpenBrace);
                 case '|':
-                    pos++;
-                    if(isAMatch(pos, "|")) {
-                       pos++;
-                        return new Token(TokenKind.BarBar);
-                    } else if(isAMatch(pos, "=")) {
-                        pos++;
-                        return new Token(TokenKind.BarEquals);
-                    }
-                    return new Token(TokenKind.Bar);
                 case '}':
-                    pos++;
-                    return new Token(TokenKind.CloseBrace);
                 case '~':
-                    pos++;
-                    return new Token(TokenKind.Tilde);
+                    return scanPunctuator();
+                case '\\':
+                    if(this.keepDirectives && isAMatch(pos + 1, "\n")) {
+                        pos += 2;
+                        continue;
+                    } else if(this.keepDirectives && isAMatch(pos + 1, "\r\n")) {
+                        pos += 3;
+                        continue;
+                    }
+
+                    if(!scanIdentifier()) {
+                        error("Cannot parse token: " + ch);
+                    }
+                    return TokenKind.Identifier;
+                case '_':
+                    scanIdentifier();
+                    return TokenKind.Identifier;
                 case '0':
                     pos++;
-                    value = "0";
                     if(isAMatch(pos, "x") || isAMatch(pos, "X")) {
-                        value += text.charAt(pos);
                         pos++;
-                        value += scanHexDigits(1, true) + scanIntegerSuffix();
-                        userDefinedSuffix = scanIdentifier();
-
-                        if(userDefinedSuffix.length() > 0) {
-                            return new Token(TokenKind.UserDefinedIntegerLiteral, value + userDefinedSuffix);
+                        int digitsStart = pos;
+                        scanHexDigits(1, true);
+                        decodeInteger(digitsStart, 16);
+                        scanIntegerSuffix();
+                        if(scanIdentifier()) {
+                            return TokenKind.UserDefinedIntegerLiteral;
                         }
 
-                        return new Token(TokenKind.IntegerLiteral, value);
+                        return TokenKind.IntegerLiteral;
                     } else if(isFloatingLiteral()) {
                         //Unconsume 0 for floating-literal
                         pos--;
-                        value = scanFloatingLiteral();
-                        userDefinedSuffix = scanIdentifier();
-
-                        if(userDefinedSuffix.length() > 0) {
-                            return new Token(TokenKind.UserDefinedFloatingLiteral, value + userDefinedSuffix);
+                        scanFloatingLiteral();
+                        if(scanIdentifier()) {
+                            return TokenKind.UserDefinedFloatingLiteral;
                         }
-                        return new Token(TokenKind.FloatingLiteral, value);
 
-                    } else if(isOctalDigit(text.charAt(pos))) {
-                        value += scanOctalDigits() + scanIntegerSuffix();
-                        userDefinedSuffix = scanIdentifier();
+                        return TokenKind.FloatingLiteral;
 
-                        if(userDefinedSuffix.length() > 0) {
-                            return new Token(TokenKind.UserDefinedIntegerLiteral, value + userDefinedSuffix);
+                    } else if(pos < end && isOctalDigit(text.charAt(pos))) {
+                        scanOctalDigits();
+                        decodeInteger(tokenStart, 8);
+                        scanIntegerSuffix();
+                        if(scanIdentifier()) {
+                            return TokenKind.UserDefinedIntegerLiteral;
                         }
 
-                        return new Token(TokenKind.IntegerLiteral, value);
+                        return TokenKind.IntegerLiteral;
                     }
 
-                    userDefinedSuffix = scanIdentifier();
-
-                    if(userDefinedSuffix.length() > 0) {
-                        return new Token(TokenKind.UserDefinedIntegerLiteral, value + userDefinedSuffix);
+                    decodeInteger(tokenStart, 8);
+                    scanIntegerSuffix();
+                    if(scanIdentifier()) {
+                        return TokenKind.UserDefinedIntegerLiteral;
                     }
 
-                    return new Token(TokenKind.IntegerLiteral, value);
+                    return TokenKind.IntegerLiteral;
                 case '1':
                 case '2':
                 case '3':
@@ -473,90 +390,85 @@ public class SimpleScanner implements Scanner {
                 case '8':
                 case '9':
                     if(isFloatingLiteral()) {
-                        value = scanFloatingLiteral();
-                        userDefinedSuffix = scanIdentifier();
-                        if(userDefinedSuffix.length() > 0) {
-                           return new Token(TokenKind.UserDefinedFloatingLiteral, value + userDefinedSuffix);
+                        scanFloatingLiteral();
+                        if(scanIdentifier()) {
+                            return TokenKind.UserDefinedFloatingLiteral;
                         }
-                        return new Token(TokenKind.FloatingLiteral, value);
-                    }
 
-                    value = scanDecimalDigits() + scanIntegerSuffix();
-                    userDefinedSuffix = scanIdentifier();
+                        return TokenKind.FloatingLiteral;
+                    }
 
-                    if(userDefinedSuffix.length() > 0) {
-                        return new Token(TokenKind.UserDefinedIntegerLiteral, value + userDefinedSuffix);
+                    scanDecimalDigits();
+                    decodeInteger(tokenStart, 10);
+                    scanIntegerSuffix();
+                    if(scanIdentifier()) {
+                        return TokenKind.UserDefinedIntegerLiteral;
                     }
 
-                    return new Token(TokenKind.IntegerLiteral, value);
+                    return TokenKind.IntegerLiteral;
                 default:
                     if(isAMatch(pos, "u8R\"")) {
-                        value = scanEncodingPrefix() + scanRawString();
-                        userDefinedSuffix = scanIdentifier();
-
-                        if(userDefinedSuffix.length() > 0) {
-                            return new Token(TokenKind.UserDefinedStringLiteral, value + userDefinedSuffix);
+                        scanEncodingPrefix();
+                        scanRawString();
+                        if(scanIdentifier()) {
+                            return TokenKind.UserDefinedStringLiteral;
                         }
-                        return new Token(TokenKind.StringLiteral, value);
 
-                    } else if (isAMatch(pos, "u8\"")) {
-                        value = scanEncodingPrefix() + scanString();
-                        userDefinedSuffix = scanIdentifier();
+                        return TokenKind.StringLiteral;
 
-                        if(userDefinedSuffix.length() > 0) {
-                            return new Token(TokenKind.UserDefinedStringLiteral, value + userDefinedSuffix);
+                    } else if (isAMatch(pos, "u8\"")) {
+                        scanEncodingPrefix();
+                        scanString();
+                        if(scanIdentifier()) {
+                            return TokenKind.UserDefinedStringLiteral;
                         }
 
-                        return new Token(TokenKind.StringLiteral, value);
-                    } else if(isAMatch(pos, new char[]{ 'u', 'U', 'L' })) {
+                        return TokenKind.StringLiteral;
+                    } else if(isAMatch(pos, ENCODING_PREFIXES)) {
                         if (isAMatch(pos + 1, "'")) {
-                            value = scanCharPrefix() + scanCharSequence();
-                            userDefinedSuffix = scanIdentifier();
-
-                            if (userDefinedSuffix.length() > 0) {
-                                return new Token(TokenKind.UserDefinedCharacterLiteral, value + userDefinedSuffix);
+                            scanCharPrefix();
+                            scanCharSequence();
+                            if(scanIdentifier()) {
+                                return TokenKind.UserDefinedCharacterLiteral;
                             }
 
-                            return new Token(TokenKind.CharacterLiteral, value);
+                            return TokenKind.CharacterLiteral;
                         } else if (isAMatch(pos + 1, "\"")) {
-                            value = scanEncodingPrefix() + scanString();
-                            userDefinedSuffix = scanIdentifier();
-
-                            if(userDefinedSuffix.length() > 0) {
-                                return new Token(TokenKind.UserDefinedStringLiteral, value + userDefinedSuffix);
+                            scanEncodingPrefix();
+                            scanString();
+                            if(scanIdentifier()) {
+                                return TokenKind.UserDefinedStringLiteral;
                             }
 
-                            return new Token(TokenKind.StringLiteral, value);
+                            return TokenKind.StringLiteral;
                         } else if (isAMatch(pos + 1, "R") && isAMatch(pos + 2, "\"")) {
-                            value = scanEncodingPrefix() + scanRawString();
-                            userDefinedSuffix = scanIdentifier();
-
-                            if(userDefinedSuffix.length() > 0) {
-                                return new Token(TokenKind.UserDefinedStringLiteral, value + userDefinedSuffix);
+                            scanEncodingPrefix();
+                            scanRawString();
+                            if(scanIdentifier()) {
+                                return TokenKind.UserDefinedStringLiteral;
                             }
 
-                            return new Token(TokenKind.StringLiteral, value);
+                            return TokenKind.StringLiteral;
                         }
                     } else if(isAMatch(pos, "R") && isAMatch(pos +1, "\"")) {
-                        value = scanRawString();
-                        userDefinedSuffix = scanIdentifier();
-
-                        if(userDefinedSuffix.length() > 0) {
-                            return new Token(TokenKind.UserDefinedStringLiteral, value + userDefinedSuffix);
+                        scanRawString();
+                        if(scanIdentifier()) {
+                            return TokenKind.UserDefinedStringLiteral;
                         }
 
-                        return new Token(TokenKind.StringLiteral, value);
+                        return TokenKind.StringLiteral;
                     }
 
                     if(isNonDigit(ch)) {
 
-                        String identifierOrKeyword = scanIdentifier();
+                        scanIdentifier();
 
-                        if(keywordMap.containsKey(identifierOrKeyword)) {
-                            return new Token(keywordMap.get(identifierOrKeyword), identifierOrKeyword);
+                        TokenKind keywordKind = Keywords.lookup(text, tokenStart, pos);
+                        if(keywordKind != null) {
+                            return keywordKind;
                         }
 
-                        return new Token(TokenKind.Identifier, identifierOrKeyword);
+                        return TokenKind.Identifier;
                     }
 
                     error("Cannot parse token: " + ch);
@@ -564,76 +476,165 @@ public class SimpleScanner implements Scanner {
         }
     }
 
-    private String scanFloatingLiteral() throws ScannerException {
+    private void scanFloatingLiteral() throws ScannerException {
         if(!isFloatingLiteral()) {
-            return "";
+            return;
         }
 
-        StringBuilder sb = new StringBuilder();
-        String firstSequence = scanDecimalDigits();
-        sb.append(firstSequence);
+        int start = pos;
+        int firstSequenceLength = scanDecimalDigits();
         if(isAMatch(pos, "e") || isAMatch(pos, "E")) {
-            if(firstSequence.equals("")) {
+            if(firstSequenceLength == 0) {
                 error("Floating-literal is not valid");
             }
 
-            sb.append(scanExponentPart());
+            scanExponentPart();
         } else if(isAMatch(pos, ".")) {
-            sb.append(".");
             pos++;
 
-            String secondSequence = scanDecimalDigits();
-            if(secondSequence.equals("") && firstSequence.equals("")) {
+            int secondSequenceLength = scanDecimalDigits();
+            if(secondSequenceLength == 0 && firstSequenceLength == 0) {
                 error("Floating-literal is not valid");
             }
 
-            sb.append(secondSequence);
-
-            sb.append(scanExponentPart());
+            scanExponentPart();
         } else {
             //Should never reach here...
             error("Floating-literal is not valid");
         }
 
-        sb.append(scanFloatingSuffix());
-        return sb.toString();
+        decodeFloating(start);
+        scanFloatingSuffix();
     }
 
-    private String scanExponentPart() throws ScannerException {
+    private void scanExponentPart() throws ScannerException {
         if(pos >= end) {
-            return "";
+            return;
         }
-        StringBuilder sb = new StringBuilder();
 
         char ch = text.charAt(pos);
         if(ch == 'e' || ch == 'E') {
-            sb.append(ch);
             pos++;
         } else {
-            return "";
+            return;
         }
 
-        ch = text.charAt(pos);
-        if(ch == '+' || ch == '-' ) {
-            sb.append(ch);
+        if(isAMatch(pos, "+") || isAMatch(pos, "-")) {
             pos++;
         }
 
-        String digitSequence = scanDecimalDigits();
-        if(digitSequence.equals("")) {
+        if(scanDecimalDigits() == 0) {
             error("Invalid exponent-part for floating-literal");
         }
-
-        sb.append(digitSequence);
-        return sb.toString();
     }
 
-    private String scanFloatingSuffix() {
-        if(isAMatch(pos, new char[]{ 'l', 'L', 'f', 'F' })) {
+    private void scanFloatingSuffix() {
+        if(isAMatch(pos, FLOATING_SUFFIXES)) {
+            char ch = text.charAt(pos);
+            this.suffix = ch == 'f' || ch == 'F' ? NumericSuffix.Float : NumericSuffix.LongDouble;
             pos++;
-            return String.valueOf(text.charAt(pos - 1));
         }
-        return "";
+    }
+
+    /*
+        Decodes the digits in [digitsStart, pos) as an unsigned 64-bit value.
+        Overflow keeps the low 64 bits and sets the overflow flag.
+    */
+    private void decodeInteger(int digitsStart, int radix) {
+        this.suffix = NumericSuffix.None;
+        if(!this.computeValues) {
+            return;
+        }
+
+        long limit = Long.divideUnsigned(-1L, radix);
+        int lastDigit = (int) Long.remainderUnsigned(-1L, radix);
+        long result = 0;
+        boolean overflowed = false;
+
+        for(int i = digitsStart; i < pos; i++) {
+            char ch = text.charAt(i);
+            int digit = ch <= '9' ? ch - '0' : (ch | 0x20) - 'a' + 10;
+            if(Long.compareUnsigned(result, limit) > 0 || (result == limit && digit > lastDigit)) {
+                overflowed = true;
+            }
+            result = result * radix + digit;
+        }
+
+        this.hasValue = true;
+        this.value = result;
+        this.overflow = overflowed;
+    }
+
+    /*
+        Decodes the floating literal in [start, pos), before its suffix.
+        Up to 15 significant digits scaled by at most 10^22 are exact in a double, so one multiplication
+        or division gives the correctly rounded value. Anything else goes through Double.parseDouble().
+    */
+    private void decodeFloating(int start) {
+        this.suffix = NumericSuffix.None;
+        if(!this.computeValues) {
+            return;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean fraction = false;
+        boolean exact = true;
+
+        int i = start;
+        for(; i < pos; i++) {
+            char ch = text.charAt(i);
+            if(ch == '.') {
+                fraction = true;
+                continue;
+            } else if(!isDecimalDigit(ch)) {
+                break;
+            }
+
+            //Leading zeros are not significant
+            if(digits < 15) {
+                if(mantissa != 0 || ch != '0') {
+                    mantissa = mantissa * 10 + (ch - '0');
+                    digits++;
+                }
+                if(fraction) {
+                    exponent--;
+                }
+            } else {
+                exact = false;
+            }
+        }
+
+        //Skip 'e'
+        if(i < pos) {
+            i++;
+            boolean negative = text.charAt(i) == '-';
+            if(negative || text.charAt(i) == '+') {
+                i++;
+            }
+
+            int exponentPart = 0;
+            for(; i < pos && exponentPart < 100000; i++) {
+                exponentPart = exponentPart * 10 + (text.charAt(i) - '0');
+            }
+            exponent += negative ? -exponentPart : exponentPart;
+        }
+
+        double result;
+        if(exact && mantissa == 0) {
+            result = 0.0;
+        } else if(exact && exponent >= 0 && exponent < POW10.length) {
+            result = mantissa * POW10[exponent];
+        } else if(exact && exponent < 0 && -exponent < POW10.length) {
+            result = mantissa / POW10[-exponent];
+        } else {
+            result = Double.parseDouble(text.subSequence(start, pos).toString());
+        }
+
+        this.hasValue = true;
+        this.value = Double.doubleToRawLongBits(result);
+        this.overflow = Double.isInfinite(result);
     }
 
     private boolean isFloatingLiteral() {
@@ -660,239 +661,192 @@ public class SimpleScanner implements Scanner {
        return ch == '\t' || ch == '\n' || ch == '\r' || ch == '\f' || ch == ' ';
     }
 
-    private String scanIdentifier() throws ScannerException {
-        StringBuilder sb = new StringBuilder();
-
+    //Returns whether an identifier was consumed
+    private boolean scanIdentifier() throws ScannerException {
         boolean isFirstCharacter = true;
         while(pos < end) {
             char ch = text.charAt(pos);
 
             if(isNonDigit(ch)) {
                 isFirstCharacter = false;
-                sb.append(ch);
                 pos++;
-            } else if(ch == '\\') {
+            } else if(ch == '\\' && isAMatch(pos + 1, UNIVERSAL_CHARACTER_PREFIXES)) {
                 isFirstCharacter = false;
-               sb.append(scanUniversalCharacterName());
+                scanUniversalCharacterName();
             } else if(isDecimalDigit(ch)) {
                 if(isFirstCharacter) {
                     error("Invalid first character for identifier");
                 }
-                sb.append(ch);
                 pos++;
             } else {
                 break;
             }
         }
 
-        if(isFirstCharacter) {
-            return "";
-        }
-
-        return sb.toString();
+        return !isFirstCharacter;
     }
 
-    private String scanCharPrefix() {
-        if(isAMatch(pos, new char[] { 'u', 'U', 'L' })) {
+    private void scanCharPrefix() {
+        if(isAMatch(pos, ENCODING_PREFIXES)) {
             pos++;
-            return String.valueOf(text.charAt(pos - 1));
         }
-        return "";
     }
 
-    private String scanCharSequence() throws ScannerException {
+    private void scanCharSequence() throws ScannerException {
         if(!isAMatch(pos, "'")) {
-           return "";
+           return;
         }
 
-        StringBuilder sb = new StringBuilder();
-        sb.append("'");
+        int startPos = pos;
         pos++;
 
         boolean hasClosingQuote = false;
 
         while(pos < end) {
             if(isAMatch(pos, "\\u") || isAMatch(pos, "\\U")) {
-                   sb.append(scanUniversalCharacterName());
+                scanUniversalCharacterName();
             } else if(isAMatch(pos, "\\x")) {
-                sb.append(text.substring(pos, pos + 2));
                 pos += 2;
-                sb.append(scanHexDigits(1, true));
+                scanHexDigits(1, true);
             } else if(isAMatch(pos, "\\") && pos + 1 < end && isOctalDigit(text.charAt(pos + 1))) {
                 pos++;
-                sb.append("\\");
-                sb.append(scanOctalDigits());
+                scanOctalDigits();
             } else if(isAMatch(pos, "\\")) {
-                sb.append(scanSimpleEscapeSequence());
+                scanSimpleEscapeSequence();
             } else if (isAMatch(pos, "'")) {
                 pos++;
-                sb.append("'");
                 hasClosingQuote = true;
                 break;
             } else if(isAMatch(pos, "\n")) {
                 error("Unexpected newline in character-literal");
             } else {
-                sb.append(text.charAt(pos));
                 pos++;
             }
         }
 
         if(!hasClosingQuote) {
             error("Character literal is missing closing quote");
-            return "";
-        } else if(sb.length() == 2) {
+        } else if(pos - startPos == 2) {
             error("Character literal is empty");
         }
-
-        return sb.toString();
     }
 
-    private String scanEncodingPrefix() {
+    private void scanEncodingPrefix() {
         if(isAMatch(pos, "u8")) {
             pos += 2;
-            return text.substring(pos - 2, pos);
-        } else if(isAMatch(pos, new char[] { 'u', 'U', 'L'})) {
+        } else if(isAMatch(pos, ENCODING_PREFIXES)) {
             pos++;
-            return String.valueOf(text.charAt(pos - 1));
         }
-        return "";
     }
 
-    private String scanString() throws ScannerException {
+    private void scanString() throws ScannerException {
         if(!isAMatch(pos, "\"")) {
-            return "";
+            return;
         }
 
-        StringBuilder sb = new StringBuilder();
-        sb.append("\"");
         pos++;
 
         boolean hasClosingQuote = false;
 
         while(pos < end) {
             if(isAMatch(pos, "\\u") || isAMatch(pos, "\\U")) {
-                sb.append(scanUniversalCharacterName());
+                scanUniversalCharacterName();
             } else if(isAMatch(pos, "\\")) {
-                sb.append(scanSimpleEscapeSequence());
+                scanSimpleEscapeSequence();
             } else if(isAMatch(pos, "\n")) {
                 error("Unexpected new-line character");
             } else if(isAMatch(pos, "\"")) {
                 pos++;
-                sb.append("\"");
                 hasClosingQuote = true;
                 break;
             } else {
-                sb.append(text.charAt(pos));
                 pos++;
             }
         }
 
         if(!hasClosingQuote) {
             error("String-literal is missing closing quote");
-            return "";
         }
-
-        return sb.toString();
     }
 
-    private String scanSimpleEscapeSequence() throws ScannerException {
+    private void scanSimpleEscapeSequence() throws ScannerException {
         if(!isAMatch(pos, "\\")) {
-            return "";
+            return;
         }
         pos++;
 
-        if(isAMatch(pos, new char[]{ '"', '\'', '?', '\\', 'a', 'b', 'f', 'n', 'r', 't', 'v'})) {
+        if(isAMatch(pos, SIMPLE_ESCAPES)) {
             pos++;
-            return "\\" + text.charAt(pos - 1);
+            return;
         }
 
         error("Invalid simple-escape-sequence");
-        return "";
     }
 
-    private String scanUniversalCharacterName() throws ScannerException {
-        StringBuilder sb = new StringBuilder();
-
+    private void scanUniversalCharacterName() throws ScannerException {
         if(isAMatch(pos, "\\U")) {
-            sb.append("\\U");
             pos += 2;
 
-            sb.append(scanHexDigits(4, false));
-            sb.append(scanHexDigits(4, false));
+            scanHexDigits(4, false);
+            scanHexDigits(4, false);
         } else if(isAMatch(pos, "\\u")) {
-            sb.append("\\u");
             pos += 2;
 
-            sb.append(scanHexDigits(4, false));
+            scanHexDigits(4, false);
         }
-
-        return sb.toString();
     }
 
-    private String scanRawString() throws ScannerException {
+    private void scanRawString() throws ScannerException {
         if (!isAMatch(pos, "R\"")) {
-            return "";
+            return;
         }
 
-        StringBuilder sb = new StringBuilder();
-        sb.append("R\"");
         pos += 2;
 
-        String firstSequence = scanDCharSequence();
-        sb.append(firstSequence);
+        int firstSequenceStart = pos;
+        int firstSequenceLength = scanDCharSequence();
 
         if(!isAMatch(pos, "(")) {
             error("Raw string is missing open paren");
         }
-        sb.append("(");
         pos++;
 
-        sb.append(scanRCharSequence());
+        scanRCharSequence();
 
         if(!isAMatch(pos, ")")) {
             error("Raw string is missing close paren");
         }
-        sb.append(")");
         pos++;
 
-        if(isAMatch(pos, "\"") && firstSequence.equals("")) {
-            sb.append('"');
+        if(isAMatch(pos, "\"") && firstSequenceLength == 0) {
             pos++;
-            return sb.toString();
+            return;
         }
 
-        if(!isAMatch(pos, firstSequence)) {
+        if(!isAMatch(pos, firstSequenceStart, firstSequenceLength)) {
             error("Raw string D-Char sequences are not equivalent");
         }
-        pos += firstSequence.length();
-        sb.append(firstSequence);
+        pos += firstSequenceLength;
 
         if(!isAMatch(pos, "\"")) {
             error("String-literal is missing closing quote");
         }
-        sb.append("\"");
         pos++;
-
-        return sb.toString();
     }
 
-    private String scanRCharSequence() {
-        StringBuilder sb = new StringBuilder();
+    private void scanRCharSequence() {
         while (pos < end) {
             char ch = text.charAt(pos);
             if( ch == ')') {
                 break;
             }
 
-            sb.append(ch);
             pos++;
         }
-
-        return sb.toString();
     }
 
-    private String scanDCharSequence() throws ScannerException {
-        StringBuilder sb = new StringBuilder();
+    private int scanDCharSequence() throws ScannerException {
+        int startPos = pos;
         while (pos < end) {
             char ch = text.charAt(pos);
 
@@ -902,41 +856,38 @@ public class SimpleScanner implements Scanner {
                 break;
             }
 
-            sb.append(ch);
             pos++;
         }
 
-        return sb.toString();
+        return pos - startPos;
     }
 
-    private String scanDecimalDigits() {
-        StringBuilder sb = new StringBuilder();
+    private int scanDecimalDigits() {
+        int startPos = pos;
         while(pos < end) {
             char ch = text.charAt(pos);
             if(!isDecimalDigit(ch)) {
                 break;
             }
-            sb.append(ch);
             pos++;
         }
-        return sb.toString();
+        return pos - startPos;
     }
 
     private boolean isDecimalDigit(char ch) {
         return ch >= '0' && ch <= '9';
     }
 
-    private String scanOctalDigits() {
-        StringBuilder sb = new StringBuilder();
+    private int scanOctalDigits() {
+        int startPos = pos;
         while(pos < end) {
             char ch = text.charAt(pos);
             if(!isOctalDigit(ch)) {
                 break;
             }
-            sb.append(ch);
             pos++;
         }
-        return sb.toString();
+        return pos - startPos;
     }
 
     private boolean isHexDigit(char ch) {
@@ -950,58 +901,60 @@ public class SimpleScanner implements Scanner {
         return ch >= '0' && ch <= '7';
     }
 
-    private String scanHexDigits(int minCount, boolean scanAsManyAsPossible) throws ScannerException {
-        StringBuilder sb = new StringBuilder();
+    private int scanHexDigits(int minCount, boolean scanAsManyAsPossible) throws ScannerException {
         int startPos = pos;
 
-        while(pos < end && (sb.length() < minCount || scanAsManyAsPossible)) {
+        while(pos < end && (pos - startPos < minCount || scanAsManyAsPossible)) {
             char ch = text.charAt(pos);
 
             if(!isHexDigit(ch)) {
                 break;
             }
 
-            sb.append(ch);
             pos++;
         }
 
-        if(sb.length() < minCount) {
+        if(pos - startPos < minCount) {
             error("Expected hexadecimal digit");
             pos = startPos;
-            return "";
+            return 0;
         }
 
-        return sb.toString();
+        return pos - startPos;
     }
 
-    private String scanIntegerSuffix() {
+    private void scanIntegerSuffix() {
         if(pos >= end) {
-            return "";
+            return;
         }
 
-        int startPos = pos;
-
-        if(isAMatch(pos, new char[] { 'u', 'U'})) {
+        if(isAMatch(pos, UNSIGNED_SUFFIXES)) {
             pos++;
+            this.suffix = NumericSuffix.Unsigned;
             if(isAMatch(pos, "ll") || isAMatch(pos, "LL")) {
                 pos += 2;
-            } else if(isAMatch(pos, new char[] { 'l', 'L'})) {
+                this.suffix = NumericSuffix.UnsignedLongLong;
+            } else if(isAMatch(pos, LONG_SUFFIXES)) {
                 pos++;
+                this.suffix = NumericSuffix.UnsignedLong;
             }
 
         } else if(isAMatch(pos, "ll") || isAMatch(pos, "LL")) {
             pos += 2;
-            if(isAMatch(pos, new char[] { 'u', 'U'})) {
+            this.suffix = NumericSuffix.LongLong;
+            if(isAMatch(pos, UNSIGNED_SUFFIXES)) {
                 pos++;
+                this.suffix = NumericSuffix.UnsignedLongLong;
             }
 
-        } else if(isAMatch(pos, new char[]{ 'l', 'L'})) {
+        } else if(isAMatch(pos, LONG_SUFFIXES)) {
             pos++;
-            if(isAMatch(pos, new char[] { 'u', 'U'})) {
+            this.suffix = NumericSuffix.Long;
+            if(isAMatch(pos, UNSIGNED_SUFFIXES)) {
                 pos++;
+                this.suffix = NumericSuffix.UnsignedLong;
             }
         }
-        return text.substring(startPos, pos);
     }
 
     public List<Token> lex() throws ScannerException {
@@ -1017,4 +970,32 @@ public class SimpleScanner implements Scanner {
 
         return tokens;
     }
-}
\ No newline at end of file
+
+    //Resumes scanning at offset, which must be a token boundary (the scanner keeps no state between tokens)
+    public void seek(int offset) {
+        this.pos = offset;
+    }
+
+    public TokenKind scanInto(TokenBuffer tokens) throws ScannerException {
+        this.hasValue = false;
+        TokenKind kind = scanOrRecover();
+        tokens.add(kind, tokenStart, pos);
+        if(this.hasValue) {
+            tokens.setValue(tokens.size() - 1, this.value, this.suffix, this.overflow);
+        } else if(kind == TokenKind.Identifier && this.symbols != null) {
+            tokens.setSymbol(tokens.size() - 1, this.symbols.intern(text, tokenStart, pos));
+        }
+        return kind;
+    }
+
+    public TokenBuffer lexToBuffer() throws ScannerException {
+        this.tokenBuffer = new TokenBuffer(text, getLineMap());
+
+        TokenKind kind;
+        do {
+            kind = scanInto(this.tokenBuffer);
+        } while(kind != TokenKind.EndOfFile);
+
+        return tokenBuffer;
+    }
+}
@@ -0,0 +1,60 @@
+package org.bromano.cplusplusparser.scanner;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/*
+    Loads scanner input in bulk. Files are memory-mapped and either decoded in one pass or
+    lexed as UTF-8 bytes directly, streams are read through a large char buffer instead of char by char.
+*/
+public final class SourceLoader {
+    private static final int READ_BUFFER_SIZE = 1 << 16;
+
+    private SourceLoader() {
+    }
+
+    public static CharBuffer loadFile(Path path) throws IOException {
+        return createDecoder().decode(mapFile(path));
+    }
+
+    //NOTE: Skips decoding entirely, offsets and columns of the resulting tokens are in bytes
+    public static Utf8Text loadUtf8File(Path path) throws IOException {
+        return new Utf8Text(mapFile(path));
+    }
+
+    private static MappedByteBuffer mapFile(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    public static CharSequence readStream(InputStream stream) throws IOException {
+        Reader reader = new InputStreamReader(stream, createDecoder());
+        StringBuilder sb = new StringBuilder(READ_BUFFER_SIZE);
+        char[] buffer = new char[READ_BUFFER_SIZE];
+
+        int read;
+        while ((read = reader.read(buffer, 0, buffer.length)) != -1) {
+            sb.append(buffer, 0, read);
+        }
+
+        return sb;
+    }
+
+    //Malformed input is replaced rather than rejected, the scanner reports anything it cannot lex
+    private static CharsetDecoder createDecoder() {
+        return StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+}
@@ -0,0 +1,67 @@
+package org.bromano.cplusplusparser.scanner;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+    Bounded queue for exactly one producer thread and one consumer thread.
+    Each side only writes its own counter, so no locks or CAS are needed; a full or empty
+    queue is waited out by yielding briefly and then parking.
+*/
+public class SpscRingBuffer<T> {
+    private static final int SPINS = 64;
+    private static final long PARK_NANOS = 20_000;
+
+    private final Object[] slots;
+    private final int mask;
+    //Next slot to read, only written by the consumer
+    private final AtomicLong head = new AtomicLong();
+    //Next slot to write, only written by the producer
+    private final AtomicLong tail = new AtomicLong();
+
+    //NOTE: Capacity is rounded up to a power of two
+    public SpscRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.slots = new Object[size];
+        this.mask = size - 1;
+    }
+
+    public void put(T item) throws InterruptedException {
+        long t = this.tail.get();
+        int spins = 0;
+        while(t - this.head.get() == this.slots.length) {
+            spins = idle(spins);
+        }
+
+        this.slots[(int) (t & this.mask)] = item;
+        this.tail.lazySet(t + 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    public T take() throws InterruptedException {
+        long h = this.head.get();
+        int spins = 0;
+        while(h == this.tail.get()) {
+            spins = idle(spins);
+        }
+
+        int slot = (int) (h & this.mask);
+        T item = (T) this.slots[slot];
+        this.slots[slot] = null;
+        this.head.lazySet(h + 1);
+        return item;
+    }
+
+    private static int idle(int spins) throws InterruptedException {
+        if(Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+
+        if(spins < SPINS) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+        return spins + 1;
+    }
+}
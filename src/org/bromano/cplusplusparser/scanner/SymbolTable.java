@@ -0,0 +1,146 @@
+package org.bromano.cplusplusparser.scanner;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/*
+    Interns identifier spellings to dense int ids (0, 1, 2...) so that identifiers can be compared
+    with an int compare and every spelling is held once, however many files use it.
+
+    One table can be shared by every scanner in a batch, including scanners on other threads.
+    Lookups of known spellings do not lock or allocate: buckets are immutable chains published
+    through an AtomicReferenceArray. Adding a spelling takes the table lock.
+*/
+public class SymbolTable {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private volatile AtomicReferenceArray<Entry> buckets = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+    //Entries by id, an entry is stored here before it becomes reachable from a bucket
+    private volatile Entry[] entries = new Entry[INITIAL_CAPACITY];
+    private volatile int size;
+
+    public int intern(CharSequence text, int start, int end) {
+        int hash = hash(text, start, end);
+
+        Entry entry = find(this.buckets, hash, text, start, end);
+        if(entry != null) {
+            return entry.id;
+        }
+
+        synchronized(this) {
+            AtomicReferenceArray<Entry> current = this.buckets;
+            entry = find(current, hash, text, start, end);
+            if(entry != null) {
+                return entry.id;
+            }
+
+            int id = this.size;
+            if(id == this.entries.length) {
+                Entry[] grown = new Entry[id * 2];
+                System.arraycopy(this.entries, 0, grown, 0, id);
+                this.entries = grown;
+            }
+
+            if(id >= current.length() - current.length() / 4) {
+                current = this.rehash(current);
+            }
+
+            int bucket = hash & (current.length() - 1);
+            entry = new Entry(text.subSequence(start, end).toString(), hash, id, current.get(bucket));
+            this.entries[id] = entry;
+            this.size = id + 1;
+            current.set(bucket, entry);
+            return id;
+        }
+    }
+
+    public int intern(String name) {
+        return this.intern(name, 0, name.length());
+    }
+
+    //Id of an already interned spelling, -1 if it has not been seen
+    public int lookup(CharSequence text, int start, int end) {
+        Entry entry = find(this.buckets, hash(text, start, end), text, start, end);
+        return entry == null ? -1 : entry.id;
+    }
+
+    public String getName(int id) {
+        return this.entries[id].name;
+    }
+
+    //Position-less Identifier token shared by every occurrence of the symbol
+    public Token getToken(int id) {
+        return this.entries[id].token;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    private static Entry find(AtomicReferenceArray<Entry> buckets, int hash, CharSequence text, int start, int end) {
+        for(Entry entry = buckets.get(hash & (buckets.length() - 1)); entry != null; entry = entry.next) {
+            if(entry.hash == hash && entry.matches(text, start, end)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    //Chains are immutable, so the entries are copied into the new table rather than relinked
+    private AtomicReferenceArray<Entry> rehash(AtomicReferenceArray<Entry> old) {
+        AtomicReferenceArray<Entry> grown = new AtomicReferenceArray<>(old.length() * 2);
+        for(int id = 0; id < this.size; id++) {
+            Entry entry = this.entries[id];
+            int bucket = entry.hash & (grown.length() - 1);
+            grown.set(bucket, new Entry(entry, grown.get(bucket)));
+        }
+
+        this.buckets = grown;
+        return grown;
+    }
+
+    //Same as String.hashCode() of the range
+    private static int hash(CharSequence text, int start, int end) {
+        int hash = 0;
+        for(int i = start; i < end; i++) {
+            hash = 31 * hash + text.charAt(i);
+        }
+        return hash;
+    }
+
+    private static class Entry {
+        final String name;
+        final int hash;
+        final int id;
+        final Token token;
+        final Entry next;
+
+        Entry(String name, int hash, int id, Entry next) {
+            this.name = name;
+            this.hash = hash;
+            this.id = id;
+            this.token = new Token(TokenKind.Identifier, name, 0, name.length(), id);
+            this.next = next;
+        }
+
+        Entry(Entry entry, Entry next) {
+            this.name = entry.name;
+            this.hash = entry.hash;
+            this.id = entry.id;
+            this.token = entry.token;
+            this.next = next;
+        }
+
+        boolean matches(CharSequence text, int start, int end) {
+            if(this.name.length() != end - start) {
+                return false;
+            }
+
+            for(int i = 0; i < this.name.length(); i++) {
+                if(this.name.charAt(i) != text.charAt(start + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
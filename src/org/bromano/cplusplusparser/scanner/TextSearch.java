@@ -0,0 +1,45 @@
+package org.bromano.cplusplusparser.scanner;
+
+/*
+    Bulk searches used to skip comments and directives without going through the scanner one char at a time.
+    Strings use the String.indexOf intrinsic and Utf8Text compares eight bytes per step,
+    any other CharSequence falls back to a plain loop.
+*/
+final class TextSearch {
+
+    private TextSearch() {
+    }
+
+    //Returns the offset of the first ch in [from, end), or -1
+    static int indexOf(CharSequence text, char ch, int from, int end) {
+        if(from >= end) {
+            return -1;
+        }
+
+        if(text instanceof String) {
+            int index = ((String) text).indexOf(ch, from);
+            return index < end ? index : -1;
+        } else if(text instanceof Utf8Text) {
+            return ((Utf8Text) text).indexOf(ch, from, end);
+        }
+
+        for(int i = from; i < end; i++) {
+            if(text.charAt(i) == ch) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    //Returns the offset just past the first "*/" in [from, end), or end if the comment is not closed
+    static int skipBlockComment(CharSequence text, int from, int end) {
+        int star = indexOf(text, '*', from, end);
+        while(star >= 0 && star + 1 < end) {
+            if(text.charAt(star + 1) == '/') {
+                return star + 2;
+            }
+            star = indexOf(text, '*', star + 1, end);
+        }
+        return end;
+    }
+}
@@ -1,23 +1,109 @@
 package org.bromano.cplusplusparser.scanner;
 
+import java.nio.CharBuffer;
+
 public class Token {
-    public TokenKind kind;
-    public String lexeme;
-    //TODO: Add line number and position?
+    private static final Token[] sharedTokens = createSharedTokens();
+
+    public final TokenKind kind;
+    //Lexeme is stored as a [start, start + length) range of source rather than as a copy
+    private final CharSequence source;
+    private final int start;
+    private final int length;
+    //Id in the scanner's SymbolTable for identifiers, -1 otherwise
+    private final int symbol;
 
     public Token(TokenKind kind) {
-        this.kind = kind;
-        this.lexeme = null;
+        this(kind, null, 0, 0);
     }
 
     public Token(TokenKind kind, String lexeme) {
+        this(kind, lexeme, 0, lexeme == null ? 0 : lexeme.length());
+    }
+
+    public Token(TokenKind kind, CharSequence source, int start, int end) {
+        this(kind, source, start, end, -1);
+    }
+
+    public Token(TokenKind kind, CharSequence source, int start, int end, int symbol) {
         this.kind = kind;
-        this.lexeme = lexeme;
+        this.source = source;
+        this.start = start;
+        this.length = end - start;
+        this.symbol = symbol;
+    }
+
+    private static Token[] createSharedTokens() {
+        TokenKind[] kinds = TokenKind.values();
+        Token[] tokens = new Token[kinds.length];
+        for(TokenKind kind : kinds) {
+            if(!kind.hasLexeme()) {
+                tokens[kind.ordinal()] = new Token(kind);
+            }
+        }
+        return tokens;
+    }
+
+    //Canonical instance for a kind without a lexeme (punctuators, EndOfFile), it carries no position
+    public static Token of(TokenKind kind) {
+        Token token = sharedTokens[kind.ordinal()];
+        if(token == null) {
+            throw new IllegalArgumentException(kind.name() + " has a lexeme");
+        }
+        return token;
+    }
+
+    public boolean hasLexeme() {
+        return this.source != null && this.kind.hasLexeme();
+    }
+
+    //NOTE: Returns a view into the source, call toString() to materialize it
+    public CharSequence getLexeme() {
+        if(!this.hasLexeme()) {
+            return null;
+        }
+
+        return CharBuffer.wrap(this.source, this.start, this.start + this.length);
+    }
+
+    public CharSequence getSource() {
+        return this.source;
+    }
+
+    //Offset of the token within its source, use a LineMap to resolve the line and column
+    public int getStart() {
+        return this.start;
+    }
+
+    public int getEnd() {
+        return this.start + this.length;
+    }
+
+    public int getLength() {
+        return this.length;
+    }
+
+    public int getSymbol() {
+        return this.symbol;
+    }
+
+    private boolean lexemeEquals(Token token) {
+        if(this.length != token.length) {
+            return false;
+        }
+
+        for(int i = 0; i < this.length; i++) {
+            if(this.source.charAt(this.start + i) != token.source.charAt(token.start + i)) {
+                return false;
+            }
+        }
+
+        return true;
     }
 
     @Override
     public String toString() {
-        return this.kind.name() + " " + this.lexeme;
+        return this.kind.name() + " " + this.getLexeme();
     }
 
     @Override
@@ -27,9 +113,9 @@ public class Token {
         }
         Token token = (Token) obj;
         return !(token.kind != this.kind
-                || (token.lexeme != null && this.lexeme == null)
-                || (token.lexeme == null && this.lexeme != null)
-                || (token.lexeme != null && !token.lexeme.equals(this.lexeme)));
+                || (token.hasLexeme() && !this.hasLexeme())
+                || (!token.hasLexeme() && this.hasLexeme())
+                || (token.hasLexeme() && !token.lexemeEquals(this)));
 
     }
 }
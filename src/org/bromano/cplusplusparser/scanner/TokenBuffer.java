@@ -0,0 +1,393 @@
+package org.bromano.cplusplusparser.scanner;
+
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+    Stores a token stream as parallel primitive arrays (kind ordinal, start offset, end offset)
+    instead of one Token object per token. Lexemes are views into the shared source.
+    As a TokenSource every token stays available, so marks and releases are no-ops.
+*/
+public class TokenBuffer implements TokenSource {
+    private static final TokenKind[] KINDS = TokenKind.values();
+    private static final NumericSuffix[] SUFFIXES = NumericSuffix.values();
+    private static final int HAS_VALUE = 0x40;
+    private static final int OVERFLOW = 0x80;
+    private static final int SUFFIX_MASK = 0x3F;
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private CharSequence source;
+    private LineMap lineMap;
+    private short[] kinds;
+    private int[] starts;
+    private int[] ends;
+    //Numeric literal values (integer bits or double bits) and HAS_VALUE | OVERFLOW | suffix, only allocated once a value is set
+    private long[] values;
+    private byte[] valueInfo;
+    //Symbol id + 1 of identifiers, 0 for other tokens, only allocated once a symbol is set
+    private int[] symbols;
+    private int size;
+    //Tokens from shiftFrom on are stored pendingShift chars before their position, see replaceRange()
+    private int shiftFrom = Integer.MAX_VALUE;
+    private int pendingShift;
+
+    public TokenBuffer(CharSequence source) {
+        this(source, DEFAULT_CAPACITY);
+    }
+
+    public TokenBuffer(CharSequence source, LineMap lineMap) {
+        this(source, DEFAULT_CAPACITY);
+        this.lineMap = lineMap;
+    }
+
+    public TokenBuffer(CharSequence source, int capacity) {
+        this.source = source;
+        this.kinds = new short[Math.max(capacity, 1)];
+        this.starts = new int[this.kinds.length];
+        this.ends = new int[this.kinds.length];
+        this.size = 0;
+    }
+
+    //NOTE: Symbol ids are kept, numeric values are not since a Token does not carry them
+    public static TokenBuffer fromTokens(List<Token> tokens) {
+        CharSequence source = findSharedSource(tokens);
+        if(source != null) {
+            TokenBuffer buffer = new TokenBuffer(source, tokens.size());
+            for(Token token : tokens) {
+                buffer.add(token.kind, token.getStart(), token.getEnd());
+                buffer.addSymbol(token);
+            }
+            return buffer;
+        }
+
+        //Tokens from different sources (or built by hand), so concatenate their lexemes into a new source
+        StringBuilder sb = new StringBuilder();
+        TokenBuffer buffer = new TokenBuffer(sb, tokens.size());
+
+        for(Token token : tokens) {
+            int start = sb.length();
+            if(token.hasLexeme()) {
+                sb.append(token.getLexeme());
+            }
+            buffer.add(token.kind, start, sb.length());
+            buffer.addSymbol(token);
+        }
+
+        return buffer;
+    }
+
+    //Sets the symbol id of the last token from the Token it was built from
+    private void addSymbol(Token token) {
+        if(token.getSymbol() >= 0) {
+            this.setSymbol(this.size - 1, token.getSymbol());
+        }
+    }
+
+    private static CharSequence findSharedSource(List<Token> tokens) {
+        CharSequence source = null;
+        for(Token token : tokens) {
+            if(token.getSource() == null || (source != null && token.getSource() != source)) {
+                return null;
+            }
+            source = token.getSource();
+        }
+        return source;
+    }
+
+    public void add(TokenKind kind, int start, int end) {
+        if(this.shiftFrom <= this.size) {
+            this.applyShift();
+        }
+        if(this.size == this.kinds.length) {
+            this.grow();
+        }
+
+        this.kinds[this.size] = (short) kind.ordinal();
+        this.starts[this.size] = start;
+        this.ends[this.size] = end;
+        if(this.valueInfo != null) {
+            this.valueInfo[this.size] = 0;
+        }
+        if(this.symbols != null) {
+            this.symbols[this.size] = 0;
+        }
+        this.size++;
+    }
+
+    public void setSymbol(int index, int symbol) {
+        if(this.symbols == null) {
+            this.symbols = new int[this.kinds.length];
+        }
+
+        this.symbols[index] = symbol + 1;
+    }
+
+    public void setValue(int index, long bits, NumericSuffix suffix, boolean overflow) {
+        if(this.values == null) {
+            this.values = new long[this.kinds.length];
+            this.valueInfo = new byte[this.kinds.length];
+        }
+
+        this.values[index] = bits;
+        this.valueInfo[index] = (byte) (HAS_VALUE | (overflow ? OVERFLOW : 0) | suffix.ordinal());
+    }
+
+    //Appends tokens [from, to) of other, which must share this buffer's source
+    public void addRange(TokenBuffer other, int from, int to) {
+        if(other.shiftFrom < to) {
+            other.applyShift();
+        }
+        if(this.shiftFrom <= this.size) {
+            this.applyShift();
+        }
+        int count = to - from;
+        while(this.size + count > this.kinds.length) {
+            this.grow();
+        }
+
+        System.arraycopy(other.kinds, from, this.kinds, this.size, count);
+        System.arraycopy(other.starts, from, this.starts, this.size, count);
+        System.arraycopy(other.ends, from, this.ends, this.size, count);
+        if(other.values != null) {
+            if(this.values == null) {
+                this.values = new long[this.kinds.length];
+                this.valueInfo = new byte[this.kinds.length];
+            }
+            System.arraycopy(other.values, from, this.values, this.size, count);
+            System.arraycopy(other.valueInfo, from, this.valueInfo, this.size, count);
+        } else if(this.valueInfo != null) {
+            Arrays.fill(this.valueInfo, this.size, this.size + count, (byte) 0);
+        }
+        if(other.symbols != null) {
+            if(this.symbols == null) {
+                this.symbols = new int[this.kinds.length];
+            }
+            System.arraycopy(other.symbols, from, this.symbols, this.size, count);
+        } else if(this.symbols != null) {
+            Arrays.fill(this.symbols, this.size, this.size + count, 0);
+        }
+        this.size += count;
+    }
+
+    public void clear() {
+        this.size = 0;
+        this.shiftFrom = Integer.MAX_VALUE;
+        this.pendingShift = 0;
+    }
+
+    /*
+        Replaces tokens [from, to) with all tokens of replacement and moves the tokens after them
+        by shift chars, for a source edit that changed its length by shift.
+
+        The move is not applied to the tail: it becomes a pending shift added in getStart()/getEnd().
+        Only the tokens between the previous edit and this one are rewritten to fold the previous
+        pending shift into the new one, so a run of nearby edits does not touch the rest of the file.
+        NOTE: The tail arrays are still moved with System.arraycopy when the number of tokens changes
+    */
+    public void replaceRange(int from, int to, TokenBuffer replacement, int shift) {
+        int count = replacement.size;
+        int tail = this.size - to;
+        int newSize = from + count + tail;
+        while(newSize > this.kinds.length) {
+            this.grow();
+        }
+
+        //Tokens before the edit lose the pending shift, tokens after it get it whether or not they had it
+        if(this.pendingShift != 0) {
+            int previous = Math.min(this.shiftFrom, this.size);
+            for(int i = previous; i < from; i++) {
+                this.starts[i] += this.pendingShift;
+                this.ends[i] += this.pendingShift;
+            }
+            for(int i = to; i < previous; i++) {
+                this.starts[i] -= this.pendingShift;
+                this.ends[i] -= this.pendingShift;
+            }
+        }
+        int newShift = this.pendingShift + shift;
+        this.shiftFrom = Integer.MAX_VALUE;
+        this.pendingShift = 0;
+
+        if(from + count != to) {
+            System.arraycopy(this.kinds, to, this.kinds, from + count, tail);
+            System.arraycopy(this.starts, to, this.starts, from + count, tail);
+            System.arraycopy(this.ends, to, this.ends, from + count, tail);
+            if(this.values != null) {
+                System.arraycopy(this.values, to, this.values, from + count, tail);
+                System.arraycopy(this.valueInfo, to, this.valueInfo, from + count, tail);
+            }
+            if(this.symbols != null) {
+                System.arraycopy(this.symbols, to, this.symbols, from + count, tail);
+            }
+        }
+
+        this.size = from;
+        this.addRange(replacement, 0, count);
+        this.size = newSize;
+        if(newShift != 0) {
+            this.shiftFrom = from + count;
+            this.pendingShift = newShift;
+        }
+    }
+
+    //Adds the pending shift to the tokens it applies to
+    private void applyShift() {
+        for(int i = this.shiftFrom; i < this.size; i++) {
+            this.starts[i] += this.pendingShift;
+            this.ends[i] += this.pendingShift;
+        }
+        this.shiftFrom = Integer.MAX_VALUE;
+        this.pendingShift = 0;
+    }
+
+    //For edits of the source, the line map is rebuilt on demand
+    public void setSource(CharSequence source) {
+        this.source = source;
+        this.lineMap = null;
+    }
+
+    //Drops the first count tokens, shifting the rest down to index 0
+    public void removeFirst(int count) {
+        int remaining = this.size - count;
+        System.arraycopy(this.kinds, count, this.kinds, 0, remaining);
+        System.arraycopy(this.starts, count, this.starts, 0, remaining);
+        System.arraycopy(this.ends, count, this.ends, 0, remaining);
+        if(this.values != null) {
+            System.arraycopy(this.values, count, this.values, 0, remaining);
+            System.arraycopy(this.valueInfo, count, this.valueInfo, 0, remaining);
+        }
+        if(this.symbols != null) {
+            System.arraycopy(this.symbols, count, this.symbols, 0, remaining);
+        }
+        if(this.shiftFrom != Integer.MAX_VALUE) {
+            this.shiftFrom = Math.max(this.shiftFrom - count, 0);
+        }
+        this.size = remaining;
+    }
+
+    private void grow() {
+        int capacity = this.kinds.length * 2;
+        this.kinds = Arrays.copyOf(this.kinds, capacity);
+        this.starts = Arrays.copyOf(this.starts, capacity);
+        this.ends = Arrays.copyOf(this.ends, capacity);
+        if(this.values != null) {
+            this.values = Arrays.copyOf(this.values, capacity);
+            this.valueInfo = Arrays.copyOf(this.valueInfo, capacity);
+        }
+        if(this.symbols != null) {
+            this.symbols = Arrays.copyOf(this.symbols, capacity);
+        }
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public CharSequence getSource() {
+        return this.source;
+    }
+
+    public LineMap getLineMap() {
+        if(this.lineMap == null) {
+            this.lineMap = new LineMap(this.source);
+        }
+        return this.lineMap;
+    }
+
+    public TokenKind getKind(int index) {
+        if(index >= this.size) {
+            return TokenKind.EndOfFile;
+        }
+        return KINDS[this.kinds[index]];
+    }
+
+    //NOTE: Past the last token, positions are the end of the last token
+    public int getStart(int index) {
+        if(index >= this.size) {
+            return this.size > 0 ? this.getEnd(this.size - 1) : 0;
+        }
+        return index < this.shiftFrom ? this.starts[index] : this.starts[index] + this.pendingShift;
+    }
+
+    public int getEnd(int index) {
+        if(index >= this.size) {
+            return this.getStart(index);
+        }
+        return index < this.shiftFrom ? this.ends[index] : this.ends[index] + this.pendingShift;
+    }
+
+    public boolean hasLexeme(int index) {
+        return this.getKind(index).hasLexeme();
+    }
+
+    //NOTE: Returns a view into the source, call toString() to materialize it
+    public CharSequence getLexeme(int index) {
+        if(!this.hasLexeme(index)) {
+            return null;
+        }
+
+        return CharBuffer.wrap(this.source, this.getStart(index), this.getEnd(index));
+    }
+
+    public int getSymbol(int index) {
+        return this.symbols == null || index >= this.size ? -1 : this.symbols[index] - 1;
+    }
+
+    //Whether the scanner decoded a value for this numeric literal, see Scanner.setComputeValues()
+    public boolean hasValue(int index) {
+        return this.valueInfo != null && index < this.size && (this.valueInfo[index] & HAS_VALUE) != 0;
+    }
+
+    //NOTE: The low 64 bits of the literal, read it as unsigned when the value does not fit a signed long
+    public long getIntegerValue(int index) {
+        return this.values[index];
+    }
+
+    public double getFloatingValue(int index) {
+        return Double.longBitsToDouble(this.values[index]);
+    }
+
+    public NumericSuffix getSuffix(int index) {
+        return SUFFIXES[this.valueInfo[index] & SUFFIX_MASK];
+    }
+
+    //Integer literals beyond 64 bits and floating literals beyond the double range
+    public boolean isOverflow(int index) {
+        return (this.valueInfo[index] & OVERFLOW) != 0;
+    }
+
+    public void mark(int index) {
+    }
+
+    public void unmark() {
+    }
+
+    public void release(int index) {
+    }
+
+    public Token getToken(int index) {
+        return new Token(this.getKind(index), this.source, this.getStart(index), this.getEnd(index), this.getSymbol(index));
+    }
+
+    //Token without a position for callers that only need the kind and lexeme, punctuators and keywords are shared instances
+    public Token getSharedToken(int index) {
+        TokenKind kind = this.getKind(index);
+        if(!kind.hasLexeme()) {
+            return Token.of(kind);
+        } else if(Keywords.isKeyword(kind)) {
+            return Keywords.lookupToken(this.source, this.getStart(index), this.getEnd(index));
+        }
+
+        return this.getToken(index);
+    }
+
+    public List<Token> toList() {
+        List<Token> tokens = new ArrayList<>(this.size);
+        for(int i = 0; i < this.size; i++) {
+            tokens.add(this.getToken(i));
+        }
+        return tokens;
+    }
+}
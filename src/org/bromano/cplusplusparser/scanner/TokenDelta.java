@@ -0,0 +1,35 @@
+package org.bromano.cplusplusparser.scanner;
+
+/*
+    Change to a token stream made by one edit: tokens [start, start + removedCount) of the old stream
+    were replaced by the inserted tokens, and every token after them moved by shift chars.
+*/
+public class TokenDelta {
+    private final int start;
+    private final int removedCount;
+    private final TokenBuffer inserted;
+    private final int shift;
+
+    public TokenDelta(int start, int removedCount, TokenBuffer inserted, int shift) {
+        this.start = start;
+        this.removedCount = removedCount;
+        this.inserted = inserted;
+        this.shift = shift;
+    }
+
+    public int getStart() {
+        return this.start;
+    }
+
+    public int getRemovedCount() {
+        return this.removedCount;
+    }
+
+    public TokenBuffer getInserted() {
+        return this.inserted;
+    }
+
+    public int getShift() {
+        return this.shift;
+    }
+}
@@ -88,61 +88,61 @@ public enum TokenKind {
     WcharTKeyword,
     WhileKeyword,
     //Punctuation
-    OpenBrace,
-    CloseBrace,
-    OpenBracket,
-    CloseBracket,
-    OpenParen,
-    CloseParen,
-    LessThanColon,
-    ColonGreaterThan,
-    LessThanPercent,
-    PercentGreaterThan,
-    PercentColon,
-    PercentColonPercentColen,
-    Semicolon,
-    Colon,
-    DotDotDot,
-    Question,
-    ColonColon,
-    Dot,
-    DotAsterisk,
-    Plus,
-    Minus,
-    Asterisk,
-    Slash,
-    Percent,
-    Caret,
-    Ampersand,
-    Bar,
-    Tilde,
-    Exclamation,
-    Equals,
-    LessThan,
-    GreaterThan,
-    PlusEquals,
-    MinusEquals,
-    AsteriskEquals,
-    SlashEquals,
-    PercentEquals,
-    CaretEquals,
-    AmpersandEquals,
-    BarEquals,
-    LessThanLessThan,
-    GreaterThanGreaterThan,
-    LessThanLessThanEquals,
-    GreaterThanGreaterThanEquals,
-    EqualsEquals,
-    ExclamationEquals,
-    LessThanEquals,
-    GreaterThanEquals,
-    AmpersandAmpersand,
-    BarBar,
-    PlusPlus,
-    MinusMinus,
-    Comma,
-    MinusGreaterThanAsterisk,
-    MinusGreaterThan,
+    OpenBrace("{"),
+    CloseBrace("}"),
+    OpenBracket("["),
+    CloseBracket("]"),
+    OpenParen("("),
+    CloseParen(")"),
+    LessThanColon("<:"),
+    ColonGreaterThan(":>"),
+    LessThanPercent("<%"),
+    PercentGreaterThan("%>"),
+    PercentColon("%:"),
+    PercentColonPercentColen("%:%:"),
+    Semicolon(";"),
+    Colon(":"),
+    DotDotDot("..."),
+    Question("?"),
+    ColonColon("::"),
+    Dot("."),
+    DotAsterisk(".*"),
+    Plus("+"),
+    Minus("-"),
+    Asterisk("*"),
+    Slash("/"),
+    Percent("%"),
+    Caret("^"),
+    Ampersand("&"),
+    Bar("|"),
+    Tilde("~"),
+    Exclamation("!"),
+    Equals("="),
+    LessThan("<"),
+    GreaterThan(">"),
+    PlusEquals("+="),
+    MinusEquals("-="),
+    AsteriskEquals("*="),
+    SlashEquals("/="),
+    PercentEquals("%="),
+    CaretEquals("^="),
+    AmpersandEquals("&="),
+    BarEquals("|="),
+    LessThanLessThan("<<"),
+    GreaterThanGreaterThan(">>"),
+    LessThanLessThanEquals("<<="),
+    GreaterThanGreaterThanEquals(">>="),
+    EqualsEquals("=="),
+    ExclamationEquals("!="),
+    LessThanEquals("<="),
+    GreaterThanEquals(">="),
+    AmpersandAmpersand("&&"),
+    BarBar("||"),
+    PlusPlus("++"),
+    MinusMinus("--"),
+    Comma(","),
+    MinusGreaterThanAsterisk("->*"),
+    MinusGreaterThan("->"),
     And,
     AndEq,
     Bitand,
@@ -154,6 +154,32 @@ public enum TokenKind {
     OrEq,
     Xor,
     XorEq,
-    FinalKeyword, OverrideKeyword, Identifier;
+    FinalKeyword, OverrideKeyword, Identifier,
 
+    //Malformed input skipped by a scanner in recovery mode, see Scanner.setRecoverErrors()
+    Error,
+
+    //Only produced when directives are kept for the preprocessor, see Scanner.setKeepDirectives()
+    Hash("#"),
+    HashHash("##");
+
+    //Only punctuators have a fixed spelling, the alternative tokens (and, bitor...) are scanned as keywords
+    private final String spelling;
+
+    TokenKind() {
+        this(null);
+    }
+
+    TokenKind(String spelling) {
+        this.spelling = spelling;
+    }
+
+    public String getSpelling() {
+        return this.spelling;
+    }
+
+    //Punctuators and EndOfFile are fully described by their kind, everything else (including and, bitor...) keeps its lexeme
+    public boolean hasLexeme() {
+        return this != EndOfFile && this.spelling == null;
+    }
 }
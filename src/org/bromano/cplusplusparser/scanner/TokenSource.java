@@ -0,0 +1,24 @@
+package org.bromano.cplusplusparser.scanner;
+
+/*
+    Random access to a token stream by absolute index, used by the parser for lookahead at pos + k.
+    Indexes past the last token read as EndOfFile. Implementations may produce tokens on demand
+    and drop the ones the consumer can no longer reach: anything before the oldest live mark and
+    before the last released index (the token just before it is kept for diagnostics).
+*/
+public interface TokenSource {
+    TokenKind getKind(int index);
+    int getStart(int index);
+    int getEnd(int index);
+    CharSequence getLexeme(int index);
+    //SymbolTable id of an identifier, -1 when the scanner has no symbol table
+    int getSymbol(int index);
+    LineMap getLineMap();
+
+    //Marks nest, unmark() drops the most recent one
+    void mark(int index);
+    void unmark();
+
+    //The consumer will not go back before index unless a mark holds it
+    void release(int index);
+}
@@ -0,0 +1,99 @@
+package org.bromano.cplusplusparser.scanner;
+
+import java.util.Stack;
+
+/*
+    Lazy TokenSource that pulls tokens from a Scanner as the consumer looks ahead.
+    Tokens live in a growable window; once the consumer has released them and no mark holds them
+    they are dropped from the front, so memory stays proportional to the backtracking depth
+    rather than to the size of the input.
+*/
+public class TokenWindow implements TokenSource {
+    private static final int MIN_COMPACT = 256;
+
+    private final Scanner scanner;
+    private final TokenBuffer window;
+    //Absolute index of window[0]
+    private int first;
+    private boolean atEnd;
+    private Stack<Integer> marks;
+
+    //NOTE: Resets the scanner to the start of text
+    public TokenWindow(Scanner scanner, CharSequence text) {
+        this.scanner = scanner;
+        this.scanner.setText(text);
+        this.window = new TokenBuffer(text, scanner.getLineMap());
+        this.first = 0;
+        this.atEnd = false;
+        this.marks = new Stack<>();
+    }
+
+    //Number of tokens currently held, for testing and tuning
+    public int getWindowSize() {
+        return this.window.size();
+    }
+
+    private int fill(int index) {
+        int local = index - this.first;
+        if(local < 0) {
+            throw new IllegalStateException("Token " + index + " was released");
+        }
+
+        try {
+            while(!this.atEnd && local >= this.window.size()) {
+                this.atEnd = this.scanner.scanInto(this.window) == TokenKind.EndOfFile;
+            }
+        } catch (ScannerException e) {
+            throw new UncheckedScannerException(e);
+        }
+
+        return local;
+    }
+
+    public TokenKind getKind(int index) {
+        return this.window.getKind(this.fill(index));
+    }
+
+    public int getStart(int index) {
+        return this.window.getStart(this.fill(index));
+    }
+
+    public int getEnd(int index) {
+        return this.window.getEnd(this.fill(index));
+    }
+
+    public CharSequence getLexeme(int index) {
+        return this.window.getLexeme(this.fill(index));
+    }
+
+    public int getSymbol(int index) {
+        return this.window.getSymbol(this.fill(index));
+    }
+
+    public LineMap getLineMap() {
+        return this.window.getLineMap();
+    }
+
+    public void mark(int index) {
+        this.marks.push(index);
+    }
+
+    public void unmark() {
+        this.marks.pop();
+    }
+
+    public void release(int index) {
+        //Keep the token before the release point so errors at end of input can point past it
+        int keep = index - 1;
+        if(!this.marks.isEmpty()) {
+            keep = Math.min(keep, this.marks.firstElement());
+        }
+
+        //Compact only once the dead prefix is a good part of the window so shifting stays amortized
+        int dead = Math.min(keep - this.first, this.window.size());
+        if(dead >= MIN_COMPACT && dead * 2 >= this.window.size()) {
+            this.window.removeFirst(dead);
+            this.first += dead;
+        }
+    }
+}
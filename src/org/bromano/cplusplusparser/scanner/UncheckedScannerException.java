@@ -0,0 +1,15 @@
+package org.bromano.cplusplusparser.scanner;
+
+//Carries a ScannerException out of a TokenSource that scans on demand
+public class UncheckedScannerException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public UncheckedScannerException(ScannerException cause) {
+        super(cause);
+    }
+
+    @Override
+    public ScannerException getCause() {
+        return (ScannerException) super.getCause();
+    }
+}
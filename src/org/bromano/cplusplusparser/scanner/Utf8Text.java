@@ -0,0 +1,84 @@
+package org.bromano.cplusplusparser.scanner;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/*
+    Exposes UTF-8 encoded bytes to the scanner without decoding them.
+    charAt() returns the raw byte, which is the character itself for ASCII. Every character the scanner
+    looks for is ASCII, so offsets are byte offsets and multi-byte sequences are skipped inside
+    literals and comments. Decoding only happens in subSequence()/toString(), i.e. when a lexeme is requested.
+*/
+public class Utf8Text implements CharSequence {
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+
+    private final ByteBuffer bytes;
+    //Same bytes read eight at a time, little-endian so the lowest byte is the first one
+    private final ByteBuffer words;
+
+    public Utf8Text(byte[] bytes) {
+        this(ByteBuffer.wrap(bytes));
+    }
+
+    public Utf8Text(ByteBuffer bytes) {
+        this.bytes = bytes.slice();
+        this.words = this.bytes.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Override
+    public int length() {
+        return this.bytes.limit();
+    }
+
+    @Override
+    public char charAt(int index) {
+        return (char) (this.bytes.get(index) & 0xFF);
+    }
+
+    //Returns the offset of the first ch in [from, to), or -1. ch must be ASCII
+    public int indexOf(char ch, int from, int to) {
+        long pattern = (ch & 0xFF) * ONES;
+        int i = from;
+
+        //SWAR zero-byte test on word ^ pattern, the lowest flagged byte is always a real match
+        for(; i + 8 <= to; i += 8) {
+            long word = this.words.getLong(i) ^ pattern;
+            long found = (word - ONES) & ~word & HIGH_BITS;
+            if(found != 0) {
+                return i + (Long.numberOfTrailingZeros(found) >>> 3);
+            }
+        }
+
+        for(; i < to; i++) {
+            if(this.bytes.get(i) == (byte) ch) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return this.decode(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return this.decode(0, this.length());
+    }
+
+    private String decode(int start, int end) {
+        if(this.bytes.hasArray()) {
+            return new String(this.bytes.array(), this.bytes.arrayOffset() + start, end - start, StandardCharsets.UTF_8);
+        }
+
+        //Duplicate so concurrent readers do not share a position
+        byte[] range = new byte[end - start];
+        ByteBuffer view = this.bytes.duplicate();
+        view.position(start);
+        view.get(range);
+        return new String(range, StandardCharsets.UTF_8);
+    }
+}
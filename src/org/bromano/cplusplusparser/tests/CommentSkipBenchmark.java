@@ -0,0 +1,70 @@
+package org.bromano.cplusplusparser.tests;
+
+import org.bromano.cplusplusparser.scanner.*;
+
+import java.nio.charset.StandardCharsets;
+
+/*
+    Lexer throughput on comment-heavy input (license headers, doc comments, trailing line comments),
+    run with: java CommentSkipBenchmark [copies]
+    Each source representation takes a different skipping path, so all three are measured.
+*/
+public class CommentSkipBenchmark {
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 10;
+
+    private static final String UNIT =
+            "/*\n" +
+            " * Licensed under the Apache License, Version 2.0 (the \"License\"); you may not use this file\n" +
+            " * except in compliance with the License. You may obtain a copy of the License at\n" +
+            " *\n" +
+            " *     http://www.apache.org/licenses/LICENSE-2.0\n" +
+            " *\n" +
+            " * Unless required by applicable law or agreed to in writing, software distributed under the\n" +
+            " * License is distributed on an \"AS IS\" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND.\n" +
+            " */\n" +
+            "\n" +
+            "/**\n" +
+            " * Returns the sum of a and b, wrapping around on overflow.\n" +
+            " * @param a the first operand\n" +
+            " * @param b the second operand\n" +
+            " */\n" +
+            "int add(int a, int b) {\n" +
+            "    // Unsigned arithmetic so that overflow is well defined\n" +
+            "    return (int) ((unsigned) a + (unsigned) b); // wraps\n" +
+            "}\n" +
+            "\n";
+
+    public static void main(String[] args) throws Exception {
+        int copies = args.length >= 1 ? Integer.parseInt(args[0]) : 2000;
+
+        StringBuilder sb = new StringBuilder(UNIT.length() * copies);
+        for(int i = 0; i < copies; i++) {
+            sb.append(UNIT);
+        }
+        String text = sb.toString();
+        System.out.println("Input: " + copies + " units = " + text.length() + " chars");
+
+        measure("String", text);
+        measure("Utf8Text", new Utf8Text(text.getBytes(StandardCharsets.UTF_8)));
+        measure("StringBuilder", sb);
+    }
+
+    private static void measure(String name, CharSequence text) throws ScannerException {
+        Scanner scanner = new SimpleScanner(text);
+
+        for(int i = 0; i < WARMUP_ROUNDS; i++) {
+            scanner.setText(text);
+            scanner.lexToBuffer();
+        }
+
+        long startTime = System.nanoTime();
+        for(int i = 0; i < ROUNDS; i++) {
+            scanner.setText(text);
+            scanner.lexToBuffer();
+        }
+        long elapsed = System.nanoTime() - startTime;
+
+        System.out.printf("%-40s %8.1f MB/s%n", name, (double) text.length() * ROUNDS / 1e6 / (elapsed / 1e9));
+    }
+}
@@ -0,0 +1,139 @@
+package org.bromano.cplusplusparser.tests;
+
+import org.bromano.cplusplusparser.scanner.DfaScanner;
+import org.bromano.cplusplusparser.scanner.Keywords;
+import org.bromano.cplusplusparser.scanner.ParallelScanner;
+import org.bromano.cplusplusparser.scanner.Scanner;
+import org.bromano.cplusplusparser.scanner.ScannerException;
+import org.bromano.cplusplusparser.scanner.SimpleScanner;
+import org.bromano.cplusplusparser.scanner.TokenBuffer;
+import org.bromano.cplusplusparser.scanner.TokenKind;
+import org.junit.Assert;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+//DfaScanner has to lex everything exactly like SimpleScanner, errors included
+public class DfaScannerTest {
+    private static final String[] SNIPPETS = {
+            "\t\n\r\f #hello\n //hello\n /* int s = 5; \n int y = 6; */",
+            "int main() { return a->b + 0x1F; } // done",
+            "a\\u00e9b \\U0001F600 _x1 x1_ intx int_ return0 and_eq andeq",
+            "a->*b ->* .* ... <<= >>= <=> :: ::* %:%: %: <% %> <: :> && || ++ -- ## #",
+            "0 0u 0L 0ULL 017 0x1Fu 42 12_km 1.5 .25 1e3 2.5e-3f 1.L 00.5E+2 1e 0x 0xg 09",
+            "'a' u'b' U'c' L'd' u8\"e\" \"f\\n\" L\"g\" R\"x(raw )\" x)x\" u8R\"(r)\" 'ab' '' \"\\q\"",
+            "x/**/y/*/ z */ w // c \\\n still comment\nv",
+            "#define X(a, b) a ## b\n#include <x.h>\n  #  pragma once\n",
+            "` @ $ \u00fc \\",
+            "\"open\nnext",
+            "a.5 a. .5. x+.5e3 1..2"
+    };
+
+    private static final char[] ALPHABET = "a0.9_uU8LRe\"'\\/*#+-x<> \n".toCharArray();
+
+    protected Scanner createScanner() {
+        return new DfaScanner();
+    }
+
+    @org.junit.Test
+    public void testSnippets() throws Exception {
+        for(String snippet : SNIPPETS) {
+            assertSameTokens(snippet);
+        }
+    }
+
+    @org.junit.Test
+    public void testPunctuatorsAndKeywords() throws Exception {
+        List<String> spellings = new ArrayList<>(Keywords.getKeywordMap().keySet());
+        for(TokenKind kind : TokenKind.values()) {
+            if(kind.getSpelling() != null) {
+                spellings.add(kind.getSpelling());
+            }
+        }
+
+        //Each spelling alone, as a prefix of a longer token, and next to every other spelling
+        StringBuilder all = new StringBuilder();
+        for(String spelling : spellings) {
+            assertSameTokens(spelling);
+            assertSameTokens(spelling + "x");
+            assertSameTokens(spelling + "=");
+            all.append(spelling);
+        }
+        assertSameTokens(all);
+    }
+
+    @org.junit.Test
+    public void testShortInputs() throws Exception {
+        //Every string of up to 3 chars over an alphabet of chars that start or end tokens
+        char[] chars = new char[3];
+        for(int length = 1; length <= chars.length; length++) {
+            int count = (int) Math.pow(ALPHABET.length, length);
+            for(int n = 0; n < count; n++) {
+                int rest = n;
+                for(int i = 0; i < length; i++) {
+                    chars[i] = ALPHABET[rest % ALPHABET.length];
+                    rest /= ALPHABET.length;
+                }
+                assertSameTokens(new String(chars, 0, length));
+            }
+        }
+    }
+
+    @org.junit.Test
+    public void testParallelLex() throws Exception {
+        StringBuilder code = new StringBuilder();
+        for(int i = 0; i < 50; i++) {
+            code.append("int a").append(i).append(" = 0x1F + 2.5e3 - 0u;\n")
+                .append("/* int b = \"\n c */ const char *c = \"x /* y\\\" \";\n")
+                .append("auto d = R\"xy(\nint e = '(';\n/* \" */)xy\";\n")
+                .append("// f = '\\n';\n");
+        }
+        String text = code.toString();
+        TokenBuffer expected = new SimpleScanner(text).lexToBuffer();
+
+        for(int chunkSize : new int[] { 7, 64, text.length() }) {
+            TokenBuffer actual = new ParallelScanner(this::createScanner, ForkJoinPool.commonPool(), chunkSize).lex(text);
+            Assert.assertEquals(describe(expected), describe(actual));
+        }
+    }
+
+    private void assertSameTokens(CharSequence text) {
+        for(int mode = 0; mode < 4; mode++) {
+            String expected = lex(new SimpleScanner(), text, mode);
+            String actual = lex(this.createScanner(), text, mode);
+            Assert.assertEquals(text + " (mode " + mode + ")", expected, actual);
+        }
+    }
+
+    //Bit 0 of mode recovers errors, bit 1 keeps directives as tokens
+    private static String lex(Scanner scanner, CharSequence text, int mode) {
+        scanner.setText(text);
+        scanner.setComputeValues(true);
+        scanner.setRecoverErrors((mode & 1) != 0);
+        scanner.setKeepDirectives((mode & 2) != 0);
+
+        StringBuilder sb = new StringBuilder();
+        try {
+            sb.append(describe(scanner.lexToBuffer()));
+        } catch(ScannerException e) {
+            sb.append("error ").append(e.getOffset()).append(' ').append(e.getMessage());
+        }
+        for(ScannerException diagnostic : scanner.getDiagnostics()) {
+            sb.append("diagnostic ").append(diagnostic.getOffset()).append(' ').append(diagnostic.getMessage()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static String describe(TokenBuffer tokens) {
+        StringBuilder sb = new StringBuilder();
+        for(int i = 0; i < tokens.size(); i++) {
+            sb.append(tokens.getKind(i)).append(' ').append(tokens.getStart(i)).append(' ').append(tokens.getEnd(i));
+            if(tokens.hasValue(i)) {
+                sb.append(' ').append(tokens.getIntegerValue(i)).append(' ').append(tokens.getSuffix(i)).append(' ').append(tokens.isOverflow(i));
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,60 @@
+package org.bromano.cplusplusparser.tests;
+
+import org.bromano.cplusplusparser.parser.SimpleParser;
+import org.bromano.cplusplusparser.scanner.*;
+
+/*
+    Cost of parsing expression-heavy code, run with: java ExpressionBenchmark [functions]
+    Every statement is an expression, from lone identifiers to long chains of binary operators.
+*/
+public class ExpressionBenchmark {
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 10;
+    private static final long STACK_SIZE = 1L << 28;
+
+    public static void main(String[] args) throws Exception {
+        int functions = args.length >= 1 ? Integer.parseInt(args[0]) : 500;
+
+        StringBuilder sb = new StringBuilder();
+        for(int i = 0; i < functions; i++) {
+            sb.append("int f").append(i).append("(int a, int b) {\n")
+              .append("  a;\n")
+              .append("  a = b += ").append(i).append(";\n")
+              .append("  x = (a + b * c - d / e) << 2 | g & h ^ k && m || n ? p : q;\n")
+              .append("  y = !a + -b * ~c % d - e->*f + g.*h;\n")
+              .append("  z = a == b && c != d || e <= f && g >= h || i < j;\n")
+              .append("  w = a ? b ? c : d : e = ").append(i).append(";\n")
+              .append("  return a + b + c + d + e + f + g + h + i + j + k + m + n + p + q;\n")
+              .append("}\n");
+        }
+        String text = sb.toString();
+        TokenBuffer tokens = new SimpleScanner(text).lexToBuffer();
+        System.out.println("Input: " + functions + " functions = " + text.length() + " chars, " + tokens.size() + " tokens");
+
+        //The parser recurses once per declaration
+        Thread thread = new Thread(null, () -> {
+            try {
+                measure(tokens);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }, "benchmark", STACK_SIZE);
+        thread.start();
+        thread.join();
+    }
+
+    private static void measure(TokenBuffer tokens) throws Exception {
+        long nodes = 0;
+        for(int i = 0; i < WARMUP_ROUNDS; i++) {
+            nodes += new SimpleParser(tokens).parse().size();
+        }
+
+        long startTime = System.nanoTime();
+        for(int i = 0; i < ROUNDS; i++) {
+            nodes += new SimpleParser(tokens).parse().size();
+        }
+        long elapsed = System.nanoTime() - startTime;
+
+        System.out.printf("%-40s %8.2f ms (%d tree nodes per parse)%n", "parse()", elapsed / 1e6 / ROUNDS, nodes / (WARMUP_ROUNDS + ROUNDS));
+    }
+}
@@ -0,0 +1,241 @@
+package org.bromano.cplusplusparser.tests;
+
+import org.bromano.cplusplusparser.parser.Parser;
+import org.bromano.cplusplusparser.parser.SimpleParser;
+import org.bromano.cplusplusparser.preprocessor.HeaderCache;
+import org.bromano.cplusplusparser.preprocessor.PreprocessedTokens;
+import org.bromano.cplusplusparser.preprocessor.Preprocessor;
+import org.bromano.cplusplusparser.preprocessor.PreprocessorException;
+import org.bromano.cplusplusparser.scanner.SimpleScanner;
+import org.bromano.cplusplusparser.scanner.SymbolTable;
+import org.bromano.cplusplusparser.scanner.TokenKind;
+import org.junit.Assert;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class PreprocessorTest {
+
+    @org.junit.Test
+    public void testObjectLikeMacros() throws Exception {
+        assertExpands("int x = 1 + 2 ;", "#define A 1\n#define B A + 2\nint x = B;");
+        assertExpands("int x = A ;", "#define A 1\n#undef A\nint x = A;");
+        assertExpands("long v = 201103L ;", "long v = __cplusplus;");
+        assertExpands("int x ; int y ;", "#define inline\n#define register int\ninline int x; register y;");
+
+        //A macro is not expanded again inside its own expansion
+        assertExpands("a + b + a ;", "#define a a + b\n#define b b + a\na;");
+        assertExpands("x ;", "#define x x\nx;");
+    }
+
+    @org.junit.Test
+    public void testFunctionLikeMacros() throws Exception {
+        assertExpands("( ( 1 + 2 ) * ( 3 ) ) ;", "#define MUL(a, b) ((a) * (b))\nMUL(1 + 2, 3);");
+        assertExpands("f ( g ( 1 , 2 ) ) ;", "#define ID(x) x\nID(f(g(1, 2)));");
+        assertExpands("F ; 1 ;", "#define F() 1\nF; F ( );");
+
+        //Not an invocation without a '(', and the '(' may come from the next line
+        assertExpands("SQ + 3 * 3 ;", "#define SQ(x) x * x\nSQ + SQ(3);");
+        assertExpands("3 * 3 ;", "#define SQ(x) x * x\nSQ\n(3);");
+
+        //Arguments are expanded before substitution, but not where they are stringized or pasted
+        assertExpands("\"A\" 1 A2 ;", "#define A 1\n#define S(x) #x\n#define E(x) x\n#define P(x) x##2\nS(A) E(A) P(A);");
+        assertExpands("\"a \\\"b\\\\n\\\" 'c'\" ;", "#define S(x) #x\nS(a   \"b\\n\" 'c');");
+        assertExpands("xy 12 x ;", "#define CAT(a, b) a ## b\nCAT(x, y) CAT(1, 2) CAT(x,);");
+
+        //Variadic macros
+        assertExpands("f ( 1 , 2 , 3 ) ;", "#define CALL(f, ...) f(__VA_ARGS__)\nCALL(f, 1, 2, 3);");
+        assertExpands("f ( ) ;", "#define CALL(f, ...) f(__VA_ARGS__)\nCALL(f);");
+        assertExpands("g ( a , b ) ;", "#define CALL(f, args...) f(args)\nCALL(g, a, b);");
+    }
+
+    @org.junit.Test
+    public void testConditionals() throws Exception {
+        assertExpands("b ;", "#if 1 + 1 == 3\na;\n#elif defined(X) || 2 > 1\nb;\n#else\nc;\n#endif");
+        assertExpands("c ;", "#define X 0\n#if X\na;\n#elif !defined X\nb;\n#else\nc;\n#endif");
+        assertExpands("a ;", "#ifdef __cplusplus\na;\n#endif\n#ifndef __cplusplus\nb;\n#endif");
+
+        //Nothing in a skipped group is a directive, including #error
+        assertExpands("d ;", "#if 0\n#if 1\n#error no\n#endif\n#define d e\n#endif\nd;");
+        assertExpands("x ;", "#define V 3\n#if V * 2 == 6 && (V ? 1 : 0) && 'a' == 97 && 0x10 == 16\nx;\n#endif");
+
+        //Suffixed literals, an unsigned operand makes the arithmetic and comparisons unsigned
+        assertExpands("a ;", "#if 0u == 0 && 0L == 0 && 0ULL == 0 && 1u\na;\n#endif");
+        assertExpands("b ;", "#if -1 > 0u && -1 / 2u > 1 && (1 ? -1 : 0u) > 0 && (0u ? 0 : -1) < 0 && !(-1 > 0) && 0xFFFFFFFFFFFFFFFF > 0\nb;\n#endif");
+
+        //Operands that are not evaluated cannot divide by zero
+        assertExpands("a ;", "#if 0 && 1/0\n#else\na;\n#endif");
+        assertExpands("b ;", "#if 1 ? 2 : (1/0)\nb;\n#endif");
+        assertExpands("c ;", "#define N 0\n#if N != 0 && 10 / N > 2 || 1 || 1 % N\nc;\n#endif");
+        assertFails("#if 1 || 0 ? 1/0 : 0\n#endif\n", 1);
+
+        //A number can end the input
+        assertExpands("", "#define X 0");
+        assertExpands("int x = 0", "int x = 0");
+    }
+
+    @org.junit.Test
+    public void testSkippedGroups() throws Exception {
+        //A skipped group does not have to lex
+        assertExpands("ok ;", "#if 0\ndon't 'x \" 0x unterminated\n#else\nok;\n#endif");
+
+        //Only a line-leading '#' outside comments and literals is a directive
+        assertExpands("x ;", "#if 0\n/*\n#endif\n*/\n#endif\nx;");
+        assertExpands("y ;", "#if 0\nconst char *s = R\"x(\n#endif\n)x\";\n#endif\ny;");
+        assertExpands("z ;", "#if 0\nint a; \\\n#endif\n#endif\nz;");
+        assertExpands("w ;", "#if 0\n// comment \\\n#endif\n#endif\nw;");
+        assertExpands("v ;", "#if 0\nint a = b # c;\n  /* c */ #  endif\nv;");
+        assertExpands("b ;", "%:if 0\na;\n%:endif\nb;");
+
+        //Nested conditionals of a skipped group are counted, not evaluated
+        assertExpands("all ;", "#ifdef _WIN32\n#if 1 / 0\nwin;\n#else\n#error\n#endif\n#endif\nall;");
+
+        //Lines after a skipped group keep their numbers, and active groups are still lexed as usual
+        PreprocessedTokens tokens = new Preprocessor().preprocess("#if 0\n'\n#endif\nint a;\n", null);
+        Assert.assertEquals(4, tokens.getLineMap().getLine(tokens.getStart(0)));
+        assertFails("#if 1\nint a = 0x;\n#endif\n", 2);
+    }
+
+    @org.junit.Test
+    public void testIncludes() throws Exception {
+        Path directory = Files.createTempDirectory("preprocessor");
+        Path include = Files.createDirectory(directory.resolve("include"));
+        write(include.resolve("value.h"), "#define VALUE 42\n");
+        write(include.resolve("decl.h"), "int LINE = __LINE__;\n");
+        write(directory.resolve("local.h"), "#include <value.h>\nint local = VALUE;\n");
+        Path main = write(directory.resolve("main.cpp"), "#include \"local.h\"\n#define HEADER <decl.h>\n#include HEADER\nint main = VALUE;\n");
+
+        Preprocessor preprocessor = new Preprocessor();
+        preprocessor.addIncludePath(include);
+        PreprocessedTokens tokens = preprocessor.preprocess(main);
+
+        Assert.assertEquals("int local = 42 ; int LINE = 1 ; int main = 42 ;", render(tokens));
+        Assert.assertTrue(tokens.getFileName(0).endsWith("local.h"));
+        Assert.assertTrue(tokens.getFileName(5).endsWith("decl.h"));
+        Assert.assertEquals(2, tokens.getLineMap().getLine(tokens.getStart(0)));
+        Assert.assertEquals(4, tokens.getLineMap().getLine(tokens.getStart(10)));
+
+        //The output parses like the same code written out by hand
+        Parser parser = new SimpleParser(tokens);
+        Parser expected = new SimpleParser(new SimpleScanner("int local = 42; int LINE = 1; int main = 42;").lexToBuffer());
+        Assert.assertEquals(expected.parse(), parser.parse());
+    }
+
+    @org.junit.Test
+    public void testHeaderCache() throws Exception {
+        Path directory = Files.createTempDirectory("preprocessor");
+        write(directory.resolve("guarded.h"), "// guard\n#ifndef GUARDED_H\n#define GUARDED_H\nint g;\n#endif // GUARDED_H\n");
+        write(directory.resolve("defined.h"), "#if !defined(DEFINED_H)\n#define DEFINED_H\nint d;\n#endif\n");
+        write(directory.resolve("once.h"), "#pragma once\nint o;\n");
+        write(directory.resolve("else.h"), "#ifndef ELSE_H\n#define ELSE_H\nint a;\n#else\nint b;\n#endif\n");
+        write(directory.resolve("unguarded.h"), "int u;\n");
+        Path main = write(directory.resolve("main.cpp"), "#include \"guarded.h\"\n#include \"defined.h\"\n#include \"once.h\"\n"
+                + "#include \"else.h\"\n#include \"unguarded.h\"\n#include \"guarded.h\"\n#include \"defined.h\"\n"
+                + "#include \"once.h\"\n#include \"else.h\"\n#include \"unguarded.h\"\n#undef GUARDED_H\n#include \"guarded.h\"\n");
+        String expected = "int g ; int d ; int o ; int a ; int u ; int b ; int u ; int g ;";
+
+        HeaderCache cache = new HeaderCache(new SymbolTable());
+        Preprocessor first = new Preprocessor();
+        first.setHeaderCache(cache);
+        Assert.assertEquals(expected, render(first.preprocess(main)));
+        Assert.assertEquals(5, cache.size());
+
+        //Other translation units, on other threads, reuse the lexed headers
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for(int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> {
+                    Preprocessor preprocessor = new Preprocessor();
+                    preprocessor.setHeaderCache(cache);
+                    return render(preprocessor.preprocess(main));
+                }));
+            }
+            for(Future<String> result : results) {
+                Assert.assertEquals(expected, result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        Assert.assertEquals(5, cache.size());
+
+        //A header that changed on disk is lexed again
+        write(directory.resolve("unguarded.h"), "long u;\n");
+        Preprocessor second = new Preprocessor();
+        second.setHeaderCache(cache);
+        Assert.assertEquals(expected.replace("int u", "long u"), render(second.preprocess(main)));
+
+        //Without the cache, or with a symbol table of its own, the output is the same
+        Preprocessor uncached = new Preprocessor();
+        uncached.setHeaderCache(null);
+        uncached.setSymbolTable(new SymbolTable());
+        Assert.assertEquals(expected.replace("int u", "long u"), render(uncached.preprocess(main)));
+    }
+
+    @org.junit.Test
+    public void testErrors() throws Exception {
+        Path directory = Files.createTempDirectory("preprocessor");
+        write(directory.resolve("broken.h"), "\nint a;\n#error broken header\n");
+        Path main = write(directory.resolve("main.cpp"), "#include \"broken.h\"\n");
+
+        try {
+            new Preprocessor().preprocess(main);
+            Assert.fail("Expected #error to fail");
+        } catch (PreprocessorException e) {
+            Assert.assertTrue(e.getFileName().endsWith("broken.h"));
+            Assert.assertEquals(3, e.getLine());
+            Assert.assertEquals(1, e.getColumn());
+        }
+
+        //The text of #error and #warning does not have to lex
+        assertExpands("a ;", "#warning don't do this\n#pragma it's\n# /* c */ ident 'x\na;");
+        try {
+            new Preprocessor().preprocess("int a;\n#error can't \"go\" on\r\n", null);
+            Assert.fail("Expected #error to fail");
+        } catch (PreprocessorException e) {
+            Assert.assertEquals("#error can't \"go\" on", e.getMessage());
+            Assert.assertEquals(2, e.getLine());
+        }
+
+        assertFails("#include \"missing.h\"\n", 1);
+        assertFails("int a;\n#if 1\n", 2);
+        assertFails("int a;\n#if\n#endif\n", 2);
+        assertFails("#define F(a) a\nF(1, 2);", 2);
+        assertFails("#define P(a) a ## b\nP(+);", 2);
+        assertFails("\n\n#endif", 3);
+    }
+
+    private static void assertExpands(String expected, String code) throws PreprocessorException {
+        Assert.assertEquals(code, expected, render(new Preprocessor().preprocess(code, null)));
+    }
+
+    private static void assertFails(String code, int line) {
+        try {
+            new Preprocessor().preprocess(code, null);
+            Assert.fail(code);
+        } catch (PreprocessorException e) {
+            Assert.assertEquals(e.getLocalizedMessage(), line, e.getLine());
+        }
+    }
+
+    private static String render(PreprocessedTokens tokens) {
+        StringBuilder sb = new StringBuilder();
+        for(int i = 0; tokens.getKind(i) != TokenKind.EndOfFile; i++) {
+            if(sb.length() > 0) {
+                sb.append(' ');
+            }
+            sb.append(tokens.getKind(i).hasLexeme() ? tokens.getLexeme(i) : tokens.getKind(i).getSpelling());
+        }
+        return sb.toString();
+    }
+
+    private static Path write(Path path, String text) throws Exception {
+        return Files.write(path, text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,54 @@
+package org.bromano.cplusplusparser.tests;
+
+import org.bromano.cplusplusparser.scanner.*;
+
+/*
+    Lexer cost on operator-dense code in the style of template metaprogramming,
+    run with: java PunctuatorBenchmark [copies]
+*/
+public class PunctuatorBenchmark {
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 10;
+
+    private static final String UNIT =
+            "template<typename T, typename... Ts> struct max_size<T, Ts...> {\n" +
+            "  static constexpr std::size_t value = sizeof(T) > max_size<Ts...>::value ? sizeof(T) : max_size<Ts...>::value;\n" +
+            "};\n" +
+            "template<int N> struct fib { enum { value = fib<N-1>::value + fib<N-2>::value }; };\n" +
+            "template<class F, class... A> auto invoke(F&& f, A&&... a) -> decltype(std::forward<F>(f)(std::forward<A>(a)...)) {\n" +
+            "  return (p->*m)(a...) << 2 >> 1 <<= x >>= y, i++, --j, k != l && m || !n, o.*q, r ^= s |= t &= u %= v;\n" +
+            "}\n";
+
+    public static void main(String[] args) throws Exception {
+        int copies = args.length >= 1 ? Integer.parseInt(args[0]) : 5000;
+
+        StringBuilder sb = new StringBuilder(UNIT.length() * copies);
+        for(int i = 0; i < copies; i++) {
+            sb.append(UNIT);
+        }
+        String text = sb.toString();
+        System.out.println("Input: " + copies + " units = " + text.length() + " chars");
+
+        measure("lexToBuffer()", new SimpleScanner(), text);
+        measure("DfaScanner lexToBuffer()", new DfaScanner(), text);
+    }
+
+    private static void measure(String name, Scanner scanner, String text) throws ScannerException {
+        for(int i = 0; i < WARMUP_ROUNDS; i++) {
+            scanner.setText(text);
+            scanner.lexToBuffer();
+        }
+
+        long tokenCount = 0;
+        long startBytes = ScannerBenchmark.getAllocatedBytes();
+        long startTime = System.nanoTime();
+        for(int i = 0; i < ROUNDS; i++) {
+            scanner.setText(text);
+            tokenCount += scanner.lexToBuffer().size();
+        }
+        long elapsed = System.nanoTime() - startTime;
+        long allocated = ScannerBenchmark.getAllocatedBytes() - startBytes;
+
+        ScannerBenchmark.report(name, tokenCount, allocated, elapsed);
+    }
+}
@@ -0,0 +1,116 @@
+package org.bromano.cplusplusparser.tests;
+
+import org.bromano.cplusplusparser.scanner.*;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/*
+    Rough lexer measurements, run with: java ScannerBenchmark [file] [copies]
+    The input file (tests/test2.cpp by default) is repeated to get a large translation unit.
+*/
+public class ScannerBenchmark {
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 10;
+
+    public static void main(String[] args) throws Exception {
+        String file = args.length >= 1 ? args[0] : "tests/test2.cpp";
+        int copies = args.length >= 2 ? Integer.parseInt(args[1]) : 200;
+
+        String text = repeat(new String(Files.readAllBytes(Paths.get(file)), "UTF-8"), copies);
+        System.out.println("Input: " + file + " x " + copies + " = " + text.length() + " chars");
+
+        measureAllocations("lex() with positions", text, true);
+        measureAllocations("lex() with shared tokens", text, false);
+        measureBufferAllocations("lexToBuffer()", new SimpleScanner(), text);
+        measureBufferAllocations("DfaScanner lexToBuffer()", new DfaScanner(), text);
+        measureParallel("ParallelScanner (" + ForkJoinPool.commonPool().getParallelism() + " workers)", text);
+    }
+
+    private static String repeat(String text, int copies) {
+        StringBuilder sb = new StringBuilder(text.length() * copies);
+        for(int i = 0; i < copies; i++) {
+            sb.append(text).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static void measureAllocations(String name, String text, boolean recordPositions) throws ScannerException {
+        Scanner scanner = new SimpleScanner(text);
+        scanner.setRecordPositions(recordPositions);
+
+        for(int i = 0; i < WARMUP_ROUNDS; i++) {
+            scanner.setText(text);
+            scanner.lex();
+        }
+
+        int tokenCount = 0;
+        long startBytes = getAllocatedBytes();
+        long startTime = System.nanoTime();
+        for(int i = 0; i < ROUNDS; i++) {
+            scanner.setText(text);
+            List<Token> tokens = scanner.lex();
+            tokenCount += tokens.size();
+        }
+        long elapsed = System.nanoTime() - startTime;
+        long allocated = getAllocatedBytes() - startBytes;
+
+        report(name, tokenCount, allocated, elapsed);
+    }
+
+    //Baseline without any Token objects, the difference to lex() is the cost of the Token objects
+    private static void measureBufferAllocations(String name, Scanner scanner, String text) throws ScannerException {
+        for(int i = 0; i < WARMUP_ROUNDS; i++) {
+            scanner.setText(text);
+            scanner.lexToBuffer();
+        }
+
+        int tokenCount = 0;
+        long startBytes = getAllocatedBytes();
+        long startTime = System.nanoTime();
+        for(int i = 0; i < ROUNDS; i++) {
+            scanner.setText(text);
+            tokenCount += scanner.lexToBuffer().size();
+        }
+        long elapsed = System.nanoTime() - startTime;
+        long allocated = getAllocatedBytes() - startBytes;
+
+        report(name, tokenCount, allocated, elapsed);
+    }
+
+    //Allocations on worker threads are not counted, only the elapsed time is comparable
+    private static void measureParallel(String name, String text) throws ScannerException {
+        ParallelScanner scanner = new ParallelScanner(SimpleScanner::new, ForkJoinPool.commonPool(), 1 << 16);
+
+        for(int i = 0; i < WARMUP_ROUNDS; i++) {
+            scanner.lex(text);
+        }
+
+        int tokenCount = 0;
+        long startBytes = getAllocatedBytes();
+        long startTime = System.nanoTime();
+        for(int i = 0; i < ROUNDS; i++) {
+            tokenCount += scanner.lex(text).size();
+        }
+        long elapsed = System.nanoTime() - startTime;
+        long allocated = getAllocatedBytes() - startBytes;
+
+        report(name, tokenCount, allocated, elapsed);
+    }
+
+    static void report(String name, long tokenCount, long allocatedBytes, long elapsedNanos) {
+        System.out.printf("%-40s %8.1f bytes/token %8.1f ns/token %8.1f MB/s allocated%n",
+                name,
+                (double) allocatedBytes / tokenCount,
+                (double) elapsedNanos / tokenCount,
+                allocatedBytes / 1e6 / (elapsedNanos / 1e9));
+    }
+
+    static long getAllocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,45 @@
+package org.bromano.cplusplusparser.tests;
+
+import org.bromano.cplusplusparser.parser.SimpleParser;
+import org.bromano.cplusplusparser.scanner.*;
+
+import java.util.Stack;
+
+/*
+    Parses generated files with very long lists on a thread with a small stack,
+    run with: java -Xmx2g SequenceStress [statements] [declarations]
+    The default is one function of 1M statements followed by 20k declarations.
+*/
+public class SequenceStress {
+    private static final long STACK_SIZE = 512 * 1024;
+
+    public static void main(String[] args) throws Exception {
+        int statements = args.length >= 1 ? Integer.parseInt(args[0]) : 1000000;
+        int declarations = args.length >= 2 ? Integer.parseInt(args[1]) : 20000;
+
+        StringBuilder sb = new StringBuilder("int f() {\n");
+        for(int i = 0; i < statements; i++) {
+            sb.append(i % 2 == 0 ? "  a = b, c;\n" : "  ;\n");
+        }
+        sb.append("}\n");
+        for(int i = 0; i < declarations; i++) {
+            sb.append("int a").append(i).append(";\n");
+        }
+        TokenBuffer tokens = new SimpleScanner(sb).lexToBuffer();
+        System.out.println("Input: " + statements + " statements, " + declarations + " declarations = " + tokens.size() + " tokens");
+
+        Thread thread = new Thread(null, () -> {
+            try {
+                long startTime = System.nanoTime();
+                Stack<String> tree = new SimpleParser(tokens).parse();
+                long elapsed = System.nanoTime() - startTime;
+
+                System.out.printf("Parsed into %d nodes in %.1f ms with a %d KB stack%n", tree.size(), elapsed / 1e6, STACK_SIZE / 1024);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }, "parser", STACK_SIZE);
+        thread.start();
+        thread.join();
+    }
+}
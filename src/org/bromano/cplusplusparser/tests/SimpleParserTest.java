@@ -3,12 +3,22 @@ package org.bromano.cplusplusparser.tests;
 import org.bromano.cplusplusparser.parser.Parser;
 import org.bromano.cplusplusparser.parser.ParserException;
 import org.bromano.cplusplusparser.parser.SimpleParser;
+import org.bromano.cplusplusparser.scanner.PipelinedTokenSource;
 import org.bromano.cplusplusparser.scanner.ScannerException;
 import org.bromano.cplusplusparser.scanner.SimpleScanner;
 import org.bromano.cplusplusparser.scanner.Token;
+import org.bromano.cplusplusparser.scanner.TokenBuffer;
+import org.bromano.cplusplusparser.scanner.TokenWindow;
+import org.bromano.cplusplusparser.scanner.UncheckedScannerException;
+import org.junit.Assert;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Stack;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class SimpleParserTest {
 
@@ -18,6 +28,242 @@ public class SimpleParserTest {
         printStack(parser.parse());
     }
 
+    @org.junit.Test
+    public void testParseTokenBuffer() throws Exception {
+        String code = "int a = 10 * 5 + 5;";
+        Parser listParser = new SimpleParser(getTokens(code));
+        Parser bufferParser = new SimpleParser(new SimpleScanner(code).lexToBuffer());
+
+        Assert.assertEquals(listParser.parse(), bufferParser.parse());
+    }
+
+    @org.junit.Test
+    public void testParseTokenWindow() throws Exception {
+        StringBuilder code = new StringBuilder();
+        for(int i = 0; i < 2000; i++) {
+            code.append("int a").append(i).append(" = (").append(i).append(" + 1) * 2;\n");
+        }
+
+        TokenWindow window = new TokenWindow(new SimpleScanner(), code);
+        Parser windowParser = new SimpleParser(window);
+        Parser bufferParser = new SimpleParser(new SimpleScanner(code).lexToBuffer());
+
+        Assert.assertEquals(bufferParser.parse(), windowParser.parse());
+        Assert.assertTrue(window.getWindowSize() < 1024);
+    }
+
+    @org.junit.Test
+    public void testParsePipelined() throws Exception {
+        String code = "int a = 10 * 5 + 5;\nnamespace b { int c(int d) { return d; } }\n";
+
+        //Small chunks and a small ring so the parser has to wait on the scanner thread
+        try (PipelinedTokenSource tokens = new PipelinedTokenSource(new SimpleScanner(), code, 3, 2)) {
+            Parser pipelinedParser = new SimpleParser(tokens);
+            Parser bufferParser = new SimpleParser(new SimpleScanner(code).lexToBuffer());
+
+            Assert.assertEquals(bufferParser.parse(), pipelinedParser.parse());
+        }
+
+        try (PipelinedTokenSource tokens = new PipelinedTokenSource(new SimpleScanner(), "int a = 0x;", 3, 2)) {
+            new SimpleParser(tokens).parse();
+            Assert.fail();
+        } catch(UncheckedScannerException e) {
+            Assert.assertEquals("Expected hexadecimal digit", e.getCause().getMessage());
+        }
+
+        //A chunk that cannot be allocated fails the consumer instead of leaving it waiting
+        try (PipelinedTokenSource tokens = new PipelinedTokenSource(new SimpleScanner(), "int a;", Integer.MAX_VALUE, 2)) {
+            tokens.getKind(0);
+            Assert.fail();
+        } catch(OutOfMemoryError e) {
+            //Expected
+        }
+    }
+
+    @org.junit.Test
+    public void testParserExceptionPosition() throws Exception {
+        Parser parser = new SimpleParser(new SimpleScanner("namespace a {\n  int b;\n").lexToBuffer());
+
+        try {
+            parser.parse();
+            Assert.fail();
+        } catch(ParserException e) {
+            Assert.assertEquals(2, e.getLine());
+            Assert.assertEquals(9, e.getColumn());
+        }
+
+        parser = new SimpleParser(new TokenWindow(new SimpleScanner(), "namespace a {\n  int b;\n"));
+
+        try {
+            parser.parse();
+            Assert.fail();
+        } catch(ParserException e) {
+            Assert.assertEquals(2, e.getLine());
+            Assert.assertEquals(9, e.getColumn());
+        }
+    }
+
+    @org.junit.Test
+    public void testParserExceptionMessage() throws Exception {
+        String[] codes = { "int a = 1 +;", "int a(int b { }", "struct" };
+        String[] messages = {
+                "Expected: Semicolon (line 1, column 7)",
+                "Expected: Semicolon (line 1, column 6)",
+                "Expected: Semicolon (line 1, column 1)"
+        };
+
+        //Alternatives fail without an exception of their own, only the failure that ends the parse gets one
+        for(int i = 0; i < codes.length; i++) {
+            for(boolean memoize : new boolean[] { false, true }) {
+                try {
+                    parse(codes[i], memoize);
+                    Assert.fail();
+                } catch(ParserException e) {
+                    Assert.assertEquals(messages[i], e.getLocalizedMessage());
+                    Assert.assertTrue(e.getStackTrace().length > 0);
+                }
+            }
+        }
+    }
+
+    @org.junit.Test
+    public void testBinaryExpressions() throws Exception {
+        //One node per run of operators of a precedence, left associative, and none for levels without an operator
+        List<String> outline = outlineExpressions(parse("int a = e * f - g / h - i || j && k;", false));
+        Assert.assertEquals(Arrays.asList(
+                "ASSIGNMENT_EXPRESSION",
+                "  LOGICAL_OR_EXPRESSION",
+                "    ADDITIVE_EXPRESSION",
+                "      MULTIPLICATIVE_EXPRESSION",
+                "        Asterisk",
+                "      Minus",
+                "      MULTIPLICATIVE_EXPRESSION",
+                "        Slash",
+                "      Minus",
+                "    BarBar",
+                "    LOGICAL_AND_EXPRESSION",
+                "      AmpersandAmpersand"
+        ), outline);
+
+        outline = outlineExpressions(parse("int a = b ? c : d = e;", false));
+        Assert.assertEquals(Arrays.asList(
+                "ASSIGNMENT_EXPRESSION",
+                "  CONDITIONAL_EXPRESSION",
+                "    Question",
+                "      ASSIGNMENT_EXPRESSION",
+                "    Colon",
+                "    ASSIGNMENT_EXPRESSION",
+                "        Equals",
+                "        ASSIGNMENT_EXPRESSION"
+        ), outline);
+
+        Stack<String> tree = parse("int a = b;", false);
+        List<String> lines = new ArrayList<>();
+        while(!tree.isEmpty()) lines.add(tree.pop().trim());
+        int assignment = lines.indexOf("ASSIGNMENT_EXPRESSION");
+        Assert.assertEquals("CAST_EXPRESSION", lines.get(assignment + 1));
+    }
+
+    //Expression nodes and operators of the tree, indented relative to the first one
+    private static List<String> outlineExpressions(Stack<String> tree) {
+        List<String> operators = Arrays.asList("Asterisk", "Slash", "Minus", "BarBar", "AmpersandAmpersand", "Question", "Colon", "Equals");
+        List<String> outline = new ArrayList<>();
+        int indent = -1;
+        while(!tree.isEmpty()) {
+            String node = tree.pop();
+            String name = node.trim();
+            boolean expression = name.endsWith("_EXPRESSION") && !name.equals("CAST_EXPRESSION") && !name.equals("UNARY_EXPRESSION")
+                    && !name.equals("POSTFIX_EXPRESSION") && !name.equals("PRIMARY_EXPRESSION") && !name.equals("ID_EXPRESSION");
+            if(!expression && (indent < 0 || !operators.contains(name))) {
+                continue;
+            }
+
+            int depth = node.indexOf(name);
+            if(indent < 0) {
+                indent = depth;
+            }
+            outline.add(node.substring(indent));
+        }
+        return outline;
+    }
+
+    @org.junit.Test
+    public void testLongSequences() throws Exception {
+        StringBuilder code = new StringBuilder("int f() {\n");
+        for(int i = 0; i < 100000; i++) {
+            code.append("  a = b, c;\n");
+        }
+        code.append("}\nint g = f(0");
+        for(int i = 1; i < 10000; i++) {
+            code.append(", ").append(i);
+        }
+        code.append(");\n");
+        for(int i = 0; i < 20000; i++) {
+            code.append("int a").append(i).append(";\n");
+        }
+        TokenBuffer tokens = new SimpleScanner(code).lexToBuffer();
+
+        //Stack depth only depends on nesting, so a small stack has to do
+        AtomicReference<Stack<String>> result = new AtomicReference<>();
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        Thread thread = new Thread(null, () -> {
+            try {
+                result.set(new SimpleParser(tokens).parse());
+            } catch (Throwable e) {
+                error.set(e);
+            }
+        }, "parser", 512 * 1024);
+        thread.start();
+        thread.join();
+
+        if(error.get() != null) {
+            throw new AssertionError(error.get());
+        }
+
+        Map<String, Integer> counts = new HashMap<>();
+        for(String node : result.get()) {
+            counts.merge(node.trim(), 1, Integer::sum);
+        }
+        Assert.assertEquals(1, (int) counts.get("DECLARATION_SEQUENCE"));
+        Assert.assertEquals(20002, (int) counts.get("DECLARATION"));
+        Assert.assertEquals(1, (int) counts.get("STATEMENT_SEQUENCE"));
+        Assert.assertEquals(100000, (int) counts.get("STATEMENT"));
+        Assert.assertEquals(1, (int) counts.get("INITIALIZER_LIST"));
+    }
+
+    @org.junit.Test
+    public void testMemoize() throws Exception {
+        String code = "int a = ((b + (c)) * d) - sizeof((e));\n" +
+                "int (*(e))[3], ((f)) = (1);\n" +
+                "namespace g { int h(int (i), const char *j) { if ((i)) { return j[0]; } return sizeof(int); } }\n" +
+                "int k = (l) = (m ? (n) : o);\n";
+        Assert.assertEquals(parse(code, false), parse(code, true));
+
+        //Without memoization each parenthesis doubles the work
+        StringBuilder nested = new StringBuilder("int a = ");
+        for(int i = 0; i < 60; i++) nested.append("(b + ");
+        nested.append("b");
+        for(int i = 0; i < 60; i++) nested.append(')');
+        nested.append(";\n");
+        Stack<String> tree = parse(nested.toString(), true);
+        Assert.assertEquals("TRANSLATION_UNIT", tree.peek());
+
+        SimpleParser parser = new SimpleParser(new SimpleScanner("namespace a {\n  int (b;\n").lexToBuffer());
+        parser.setMemoize(true);
+        try {
+            parser.parse();
+            Assert.fail();
+        } catch(ParserException e) {
+            Assert.assertEquals(2, e.getLine());
+        }
+    }
+
+    private static Stack<String> parse(String code, boolean memoize) throws Exception {
+        SimpleParser parser = new SimpleParser(new SimpleScanner(code).lexToBuffer());
+        parser.setMemoize(memoize);
+        return parser.parse();
+    }
+
     public void printStack(Stack<String> stack) {
         while(!stack.isEmpty()) System.out.println(stack.pop());
     }
@@ -3,8 +3,13 @@ package org.bromano.cplusplusparser.tests;
 import org.bromano.cplusplusparser.scanner.*;
 import org.junit.Assert;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 public class SimpleScannerTest {
 
@@ -312,6 +317,494 @@ public class SimpleScannerTest {
         }
     }
 
+    @org.junit.Test
+    public void testLexemeOffsets() throws Exception {
+        String text = "int x = 0x1F;";
+        List<Token> tokens = new SimpleScanner(text).lex();
+
+        Token identifier = tokens.get(1);
+        Assert.assertEquals(4, identifier.getStart());
+        Assert.assertEquals(1, identifier.getLength());
+        Assert.assertEquals("x", identifier.getLexeme().toString());
+
+        Token literal = tokens.get(3);
+        Assert.assertEquals(8, literal.getStart());
+        Assert.assertEquals("0x1F", literal.getLexeme().toString());
+
+        Assert.assertFalse(tokens.get(2).hasLexeme());
+        Assert.assertNull(tokens.get(2).getLexeme());
+    }
+
+    @org.junit.Test
+    public void testLexToBuffer() throws Exception {
+        String text = "int main() { return a->b + 0x1F; } // done";
+        TokenBuffer buffer = new SimpleScanner(text).lexToBuffer();
+        List<Token> tokens = new SimpleScanner(text).lex();
+
+        Assert.assertEquals(tokens.size(), buffer.size());
+        assertTokensMatch(tokens.toArray(new Token[tokens.size()]), buffer.toList());
+
+        Assert.assertEquals(TokenKind.MinusGreaterThan, buffer.getKind(7));
+        Assert.assertEquals(21, buffer.getStart(7));
+        Assert.assertEquals(23, buffer.getEnd(7));
+        Assert.assertEquals("0x1F", buffer.getLexeme(10).toString());
+        Assert.assertEquals(TokenKind.EndOfFile, buffer.getKind(buffer.size() - 1));
+    }
+
+    @org.junit.Test
+    public void testPositions() throws Exception {
+        Scanner s = new SimpleScanner("int a;\n\n  // comment\n  a = 1;\n");
+        List<Token> tokens = s.lex();
+        LineMap lineMap = s.getLineMap();
+
+        Token assigned = tokens.get(3);
+        Assert.assertEquals(4, lineMap.getLine(assigned.getStart()));
+        Assert.assertEquals(3, lineMap.getColumn(assigned.getStart()));
+
+        Token semicolon = tokens.get(2);
+        Assert.assertEquals(1, lineMap.getLine(semicolon.getStart()));
+        Assert.assertEquals(6, lineMap.getColumn(semicolon.getStart()));
+
+        try {
+            s.setText("int a;\n  'ab\n");
+            s.lex();
+            Assert.fail();
+        } catch(ScannerException e) {
+            Assert.assertEquals("Unexpected newline in character-literal", e.getMessage());
+            Assert.assertEquals(2, e.getLine());
+            Assert.assertEquals(6, e.getColumn());
+        }
+    }
+
+    @org.junit.Test
+    public void testKeywordLookup() throws Exception {
+        String text = "x reinterpret_cast do dog If";
+        Assert.assertNull(Keywords.lookup(text, 0, 1));
+        Assert.assertEquals(TokenKind.ReinterpretCastKeyword, Keywords.lookup(text, 2, 18));
+        Assert.assertEquals(TokenKind.DoKeyword, Keywords.lookup(text, 19, 21));
+        Assert.assertNull(Keywords.lookup(text, 22, 25));
+        Assert.assertNull(Keywords.lookup(text, 26, 28));
+
+        for(Map.Entry<String, TokenKind> keyword : Keywords.getKeywordMap().entrySet()) {
+            Assert.assertEquals(keyword.getValue(), Keywords.lookup(keyword.getKey(), 0, keyword.getKey().length()));
+        }
+    }
+
+    @org.junit.Test
+    public void testSourceLoader() throws Exception {
+        String code = "#include <a.h>\nconst char *s = \"\u00e9\"; // \u00e9\n";
+        Path file = Files.createTempFile("scanner", ".cpp");
+        try {
+            Files.write(file, code.getBytes(StandardCharsets.UTF_8));
+
+            CharSequence mapped = SourceLoader.loadFile(file);
+            Assert.assertEquals(code, mapped.toString());
+
+            CharSequence streamed = SourceLoader.readStream(new ByteArrayInputStream(code.getBytes(StandardCharsets.UTF_8)));
+            Assert.assertEquals(code, streamed.toString());
+
+            assertTokensMatch(new SimpleScanner(code).lex().toArray(new Token[0]), new SimpleScanner(mapped).lex());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @org.junit.Test
+    public void testUtf8Text() throws Exception {
+        String code = "/* \u00fcber */ auto s = u8\"\u00e9t\u00e9\"; int x;";
+        Utf8Text text = new Utf8Text(code.getBytes(StandardCharsets.UTF_8));
+
+        List<Token> tokens = new SimpleScanner(text).lex();
+        List<Token> decodedTokens = new SimpleScanner(code).lex();
+        Assert.assertEquals(decodedTokens.size(), tokens.size());
+        for(int i = 0; i < tokens.size(); i++) {
+            Assert.assertEquals(decodedTokens.get(i).toString(), tokens.get(i).toString());
+        }
+
+        Token literal = tokens.get(3);
+        Assert.assertEquals(TokenKind.StringLiteral, literal.kind);
+        Assert.assertEquals("u8\"\u00e9t\u00e9\"", literal.getLexeme().toString());
+
+        //Offsets count bytes, the comment holds one two-byte character
+        Assert.assertEquals(12, tokens.get(0).getStart());
+        Assert.assertEquals(code, text.toString());
+    }
+
+    @org.junit.Test
+    public void testSharedTokens() throws Exception {
+        String code = "int a; int b;";
+        Scanner s = new SimpleScanner(code);
+        s.setRecordPositions(false);
+        List<Token> tokens = s.lex();
+
+        assertTokensMatch(new SimpleScanner(code).lex().toArray(new Token[0]), tokens);
+        Assert.assertSame(tokens.get(0), tokens.get(3));
+        Assert.assertSame(tokens.get(2), tokens.get(5));
+        Assert.assertSame(Token.of(TokenKind.Semicolon), tokens.get(2));
+        Assert.assertNotSame(tokens.get(1), tokens.get(4));
+        Assert.assertEquals("b", tokens.get(4).getLexeme().toString());
+    }
+
+    @org.junit.Test
+    public void testSharedBufferTokens() throws Exception {
+        TokenBuffer tokens = new SimpleScanner("int a; int b;").lexToBuffer();
+
+        for(int i = 0; i < tokens.size(); i++) {
+            Assert.assertEquals(tokens.getToken(i).toString(), tokens.getSharedToken(i).toString());
+        }
+        Assert.assertSame(tokens.getSharedToken(0), tokens.getSharedToken(3));
+        Assert.assertSame(Token.of(TokenKind.Semicolon), tokens.getSharedToken(2));
+        Assert.assertEquals(4, tokens.getSharedToken(1).getStart());
+    }
+
+    @org.junit.Test
+    public void testPunctuators() throws Exception {
+        for(TokenKind kind : TokenKind.values()) {
+            if(kind.getSpelling() == null) {
+                continue;
+            }
+
+            //'#' and '##' are only tokens when directives are kept
+            Scanner scanner = new SimpleScanner(kind.getSpelling());
+            scanner.setKeepDirectives(true);
+            TokenBuffer tokens = scanner.lexToBuffer();
+            Assert.assertEquals(kind.getSpelling(), 2, tokens.size());
+            Assert.assertEquals(kind, tokens.getKind(0));
+            Assert.assertFalse(kind.hasLexeme());
+        }
+
+        //Longest match falls back to the last complete punctuator
+        assertKinds("%:%", TokenKind.PercentColon, TokenKind.Percent);
+        assertKinds("..", TokenKind.Dot, TokenKind.Dot);
+        assertKinds("->*=", TokenKind.MinusGreaterThanAsterisk, TokenKind.Equals);
+        assertKinds("a.", TokenKind.Identifier, TokenKind.Dot);
+    }
+
+    @org.junit.Test
+    public void testSymbolTable() throws Exception {
+        SymbolTable symbols = new SymbolTable();
+
+        //Two files of a batch share the table, so equal spellings get equal ids
+        Scanner first = new SimpleScanner("std::size_t i = x;");
+        first.setSymbolTable(symbols);
+        TokenBuffer a = first.lexToBuffer();
+        Scanner second = new SimpleScanner(new StringBuilder("int x = i + std::max(i, 0);"));
+        second.setSymbolTable(symbols);
+        TokenBuffer b = second.lexToBuffer();
+
+        Assert.assertEquals(5, symbols.size());
+        Assert.assertEquals("size_t", symbols.getName(a.getSymbol(2)));
+        Assert.assertEquals(a.getSymbol(0), b.getSymbol(5));
+        Assert.assertEquals(a.getSymbol(3), b.getSymbol(3));
+        Assert.assertEquals(a.getSymbol(5), b.getSymbol(1));
+        Assert.assertEquals(-1, b.getSymbol(0));
+        Assert.assertEquals(-1, b.getSymbol(2));
+        Assert.assertEquals(-1, symbols.lookup("y", 0, 1));
+
+        //Without positions every occurrence of an identifier is the same token
+        Scanner s = new SimpleScanner("i + i");
+        s.setSymbolTable(symbols);
+        s.setRecordPositions(false);
+        List<Token> tokens = s.lex();
+        Assert.assertSame(tokens.get(0), tokens.get(2));
+        Assert.assertEquals(symbols.intern("i"), tokens.get(0).getSymbol());
+        Assert.assertEquals(new Token(TokenKind.Identifier, "i"), tokens.get(0));
+
+        //Symbol ids survive the trip through Token objects
+        TokenBuffer rebuilt = TokenBuffer.fromTokens(b.toList());
+        Assert.assertEquals(b.getSymbol(1), rebuilt.getSymbol(1));
+        Assert.assertEquals(-1, rebuilt.getSymbol(2));
+        Assert.assertEquals(symbols.intern("i"), TokenBuffer.fromTokens(tokens).getSymbol(2));
+
+        //Concurrent interning past several table resizes agrees on one id per spelling
+        SymbolTable shared = new SymbolTable();
+        int[][] ids = new int[4][5000];
+        Thread[] threads = new Thread[ids.length];
+        for(int t = 0; t < threads.length; t++) {
+            int[] result = ids[t];
+            threads[t] = new Thread(() -> {
+                for(int i = 0; i < result.length; i++) {
+                    result[i] = shared.intern("name" + i);
+                }
+            });
+            threads[t].start();
+        }
+        for(Thread thread : threads) {
+            thread.join();
+        }
+
+        Assert.assertEquals(5000, shared.size());
+        for(int i = 0; i < 5000; i++) {
+            Assert.assertEquals("name" + i, shared.getName(ids[0][i]));
+            for(int[] result : ids) {
+                Assert.assertEquals(ids[0][i], result[i]);
+            }
+        }
+    }
+
+    @org.junit.Test
+    public void testNumericValues() throws Exception {
+        Scanner s = new SimpleScanner("0 42 0x1Fu 017LL 18446744073709551615ull 18446744073709551616 12_km 3 0u 0UL ;");
+        s.setComputeValues(true);
+        TokenBuffer tokens = s.lexToBuffer();
+
+        long[] integers = { 0, 42, 31, 15, -1L, 0, 12, 3, 0, 0 };
+        NumericSuffix[] suffixes = {
+                NumericSuffix.None, NumericSuffix.None, NumericSuffix.Unsigned, NumericSuffix.LongLong,
+                NumericSuffix.UnsignedLongLong, NumericSuffix.None, NumericSuffix.None, NumericSuffix.None,
+                NumericSuffix.Unsigned, NumericSuffix.UnsignedLong
+        };
+        for(int i = 0; i < integers.length; i++) {
+            Assert.assertTrue(tokens.hasValue(i));
+            Assert.assertEquals(suffixes[i], tokens.getSuffix(i));
+            Assert.assertEquals(i == 5, tokens.isOverflow(i));
+            if(i != 5) {
+                Assert.assertEquals(integers[i], tokens.getIntegerValue(i));
+            }
+        }
+        Assert.assertFalse(tokens.hasValue(10));
+
+        String[] floats = { "1.5", ".25", "1e3", "2.5e-3f", "1.L", "0.001", "00.5E+2", "123456789012345678901234.5", "9007199254740993.0", "4.9e-324", "1e999" };
+        StringBuilder code = new StringBuilder();
+        for(String f : floats) {
+            code.append(f).append(' ');
+        }
+        s = new SimpleScanner(code);
+        s.setComputeValues(true);
+        tokens = s.lexToBuffer();
+
+        for(int i = 0; i < floats.length; i++) {
+            String literal = floats[i].replaceAll("[fFlL]$", "");
+            Assert.assertEquals(floats[i], Double.parseDouble(literal), tokens.getFloatingValue(i), 0.0);
+            Assert.assertEquals(floats[i], floats[i].equals("1e999"), tokens.isOverflow(i));
+        }
+        Assert.assertEquals(NumericSuffix.Float, tokens.getSuffix(3));
+        Assert.assertEquals(NumericSuffix.LongDouble, tokens.getSuffix(4));
+
+        //Values are opt-in and survive parallel stitching
+        Assert.assertFalse(new SimpleScanner("42").lexToBuffer().hasValue(0));
+        TokenBuffer parallel = new ParallelScanner(() -> {
+            Scanner scanner = new SimpleScanner();
+            scanner.setComputeValues(true);
+            return scanner;
+        }, ForkJoinPool.commonPool(), 3).lex("1 /*\n*/ 2\n0x3\n");
+        Assert.assertEquals(3, parallel.getIntegerValue(2));
+        Assert.assertEquals(2, parallel.getIntegerValue(1));
+    }
+
+    private void assertKinds(String code, TokenKind... kinds) throws ScannerException {
+        TokenBuffer tokens = new SimpleScanner(code).lexToBuffer();
+        Assert.assertEquals(kinds.length + 1, tokens.size());
+        for(int i = 0; i < kinds.length; i++) {
+            Assert.assertEquals(kinds[i], tokens.getKind(i));
+        }
+    }
+
+    @org.junit.Test
+    public void testCommentSkipping() throws Exception {
+        String[] inputs = {
+                "a /*/ b */ c",
+                "a /**/ b /***/ c /* ** / */ d",
+                "a // b\nc // d",
+                "a /* unterminated",
+                "#include <x>\n# define y\nz",
+                "/* a long comment that spans more than eight bytes ***/ x // and a long trailing one\n y"
+        };
+
+        for(String input : inputs) {
+            List<Token> expected = new SimpleScanner(input).lex();
+            assertTokensMatch(expected.toArray(new Token[0]), new SimpleScanner(new StringBuilder(input)).lex());
+            assertTokensMatch(expected.toArray(new Token[0]), new SimpleScanner(new Utf8Text(input.getBytes(StandardCharsets.UTF_8))).lex());
+        }
+
+        Utf8Text text = new Utf8Text("0123456789abcdef/0123*/".getBytes(StandardCharsets.UTF_8));
+        for(int from = 0; from < text.length(); from++) {
+            int expected = text.toString().indexOf('*', from);
+            Assert.assertEquals(expected, text.indexOf('*', from, text.length()));
+        }
+        Assert.assertEquals(-1, text.indexOf('*', 0, 21));
+    }
+
+    @org.junit.Test
+    public void testParallelLex() throws Exception {
+        StringBuilder code = new StringBuilder();
+        for(int i = 0; i < 50; i++) {
+            code.append("int a").append(i).append(" = 0x1F + 2.5e3;\n")
+                .append("/* int b = \"\n c */ const char *c = \"x /* y\\\" \";\n")
+                .append("auto d = R\"xy(\nint e = '(';\n/* \" */)xy\";\n")
+                .append("// f = '\\n';\n");
+        }
+        String text = code.toString();
+        TokenBuffer expected = new SimpleScanner(text).lexToBuffer();
+
+        //Tiny chunks so most split points land inside comments and literals
+        for(int chunkSize : new int[] { 7, 64, 1000, text.length() }) {
+            TokenBuffer actual = new ParallelScanner(SimpleScanner::new, ForkJoinPool.commonPool(), chunkSize).lex(text);
+            assertBuffersMatch(expected, actual);
+        }
+
+        //A speculative error inside the raw string must lose to the real error at the end
+        String invalid = "auto s = R\"(\n0x;\n)\";\nint t = 0x;\n";
+        try {
+            new ParallelScanner(SimpleScanner::new, ForkJoinPool.commonPool(), 4).lex(invalid);
+            Assert.fail();
+        } catch(ScannerException e) {
+            Assert.assertEquals(invalid.lastIndexOf("0x") + 2, e.getOffset());
+        }
+    }
+
+    @org.junit.Test
+    public void testRecoverErrors() throws Exception {
+        String code = "int a = 0x;\nchar *s = \"x\\qy\" + b;\nchar c = '';\n` d \"open\ne";
+        Scanner s = new SimpleScanner(code);
+        s.setRecoverErrors(true);
+        TokenBuffer tokens = s.lexToBuffer();
+
+        assertKinds(tokens, "0x", TokenKind.Error, TokenKind.Semicolon);
+        assertKinds(tokens, "\"x\\qy\"", TokenKind.Error, TokenKind.Plus, TokenKind.Identifier);
+        assertKinds(tokens, "''", TokenKind.Error, TokenKind.Semicolon);
+        assertKinds(tokens, "`", TokenKind.Error, TokenKind.Identifier);
+        assertKinds(tokens, "\"open", TokenKind.Error, TokenKind.Identifier, TokenKind.EndOfFile);
+
+        List<ScannerException> diagnostics = s.getDiagnostics();
+        Assert.assertEquals(5, diagnostics.size());
+        Assert.assertEquals("Expected hexadecimal digit", diagnostics.get(0).getMessage());
+        Assert.assertEquals(2, diagnostics.get(1).getLine());
+        Assert.assertEquals(code.indexOf("`"), diagnostics.get(3).getOffset());
+
+        //Token objects and the parallel lexer recover the same way
+        s = new SimpleScanner(code);
+        s.setRecoverErrors(true);
+        assertTokensMatch(tokens.toList().toArray(new Token[0]), s.lex());
+        Assert.assertEquals(5, s.getDiagnostics().size());
+
+        ParallelScanner parallel = new ParallelScanner(() -> {
+            Scanner scanner = new SimpleScanner();
+            scanner.setRecoverErrors(true);
+            return scanner;
+        }, ForkJoinPool.commonPool(), 5);
+        assertBuffersMatch(tokens, parallel.lex(code));
+        Assert.assertEquals(5, parallel.getDiagnostics().size());
+        Assert.assertEquals(diagnostics.get(4).getOffset(), parallel.getDiagnostics().get(4).getOffset());
+
+        //Off by default
+        try {
+            new SimpleScanner(code).lexToBuffer();
+            Assert.fail();
+        } catch(ScannerException e) {
+            Assert.assertEquals(diagnostics.get(0).getOffset(), e.getOffset());
+        }
+
+        //Numbers at the end of the input
+        s = new SimpleScanner("a = 0");
+        s.setRecoverErrors(true);
+        assertKinds(s.lexToBuffer(), "0", TokenKind.IntegerLiteral, TokenKind.EndOfFile);
+        Assert.assertTrue(s.getDiagnostics().isEmpty());
+
+        s = new SimpleScanner("a = 1e");
+        s.setRecoverErrors(true);
+        assertKinds(s.lexToBuffer(), "1e", TokenKind.Error, TokenKind.EndOfFile);
+        Assert.assertEquals("Invalid exponent-part for floating-literal", s.getDiagnostics().get(0).getMessage());
+    }
+
+    //Asserts that the token with the given lexeme and the ones after it have the given kinds
+    private void assertKinds(TokenBuffer tokens, String lexeme, TokenKind... kinds) {
+        int index = 0;
+        while(index < tokens.size() && !lexeme.equals(String.valueOf(tokens.getLexeme(index)))) {
+            index++;
+        }
+
+        Assert.assertTrue(lexeme, index < tokens.size());
+        for(int i = 0; i < kinds.length; i++) {
+            Assert.assertEquals(kinds[i], tokens.getKind(index + i));
+        }
+    }
+
+    @org.junit.Test
+    public void testIncrementalLex() throws Exception {
+        StringBuilder code = new StringBuilder();
+        for(int i = 0; i < 40; i++) {
+            code.append("int a").append(i).append(" = 0x1F + 2.5e3; // c\n")
+                .append("/* b */ const char *s = \"x\" u8\"y\";\n");
+        }
+
+        String original = code.toString();
+        String text = original;
+        IncrementalLexer lexer = new IncrementalLexer(new SimpleScanner(), text);
+
+        //Edits that open and close comments and literals, merge and split tokens
+        String[] snippets = { "", "/*", "*/", "\"", "'", "//", "\n", " ", "x", "1", ".", "e", "u8", "R\"(", ")\"", "+=", "0x", "\\" };
+        java.util.Random random = new java.util.Random(42);
+        for(int i = 0; i < 2000; i++) {
+            int start = random.nextInt(text.length() + 1);
+            int oldEnd = Math.min(text.length(), start + random.nextInt(4));
+            String snippet = snippets[random.nextInt(snippets.length)];
+            String edited = text.substring(0, start) + snippet + text.substring(oldEnd);
+
+            TokenBuffer expected;
+            try {
+                expected = new SimpleScanner(edited).lexToBuffer();
+            } catch(ScannerException e) {
+                try {
+                    lexer.edit(edited, start, oldEnd, start + snippet.length());
+                    Assert.fail();
+                } catch(ScannerException expectedError) {
+                    Assert.assertEquals(e.getOffset(), expectedError.getOffset());
+                }
+                assertBuffersMatch(new SimpleScanner(text).lexToBuffer(), lexer.getTokenBuffer());
+                continue;
+            }
+
+            TokenDelta delta = lexer.edit(edited, start, oldEnd, start + snippet.length());
+            assertBuffersMatch(expected, lexer.getTokenBuffer());
+            Assert.assertEquals(snippet.length() - (oldEnd - start), delta.getShift());
+            text = edited;
+        }
+
+        //A one char edit in the middle of the file only re-lexes around it
+        lexer = new IncrementalLexer(new SimpleScanner(), original);
+        int middle = original.indexOf("2.5e3", original.length() / 2);
+        String edited = original.substring(0, middle) + "3" + original.substring(middle + 1);
+        TokenDelta delta = lexer.edit(edited, middle, middle + 1, middle + 1);
+        Assert.assertTrue(delta.getRemovedCount() <= 4);
+        Assert.assertTrue(delta.getInserted().size() <= 4);
+        Assert.assertEquals("3.5e3", lexer.getTokenBuffer().getLexeme(delta.getStart() + delta.getInserted().size() - 1).toString());
+    }
+
+    @org.junit.Test
+    public void testReplaceRangeShift() throws Exception {
+        //Positions after an edit come from the pending shift until the buffer is appended to or trimmed
+        TokenBuffer tokens = new SimpleScanner("a b c d e").lexToBuffer();
+        tokens.replaceRange(1, 2, lexRange("a bb c d e", 1), 1);
+        Assert.assertEquals(7, tokens.getStart(3));
+        tokens.replaceRange(3, 4, lexRange("a bb c ddd e", 3), 2);
+        Assert.assertEquals(5, tokens.getStart(2));
+        Assert.assertEquals(10, tokens.getEnd(3));
+        Assert.assertEquals(11, tokens.getStart(4));
+
+        tokens.removeFirst(1);
+        Assert.assertEquals(2, tokens.getStart(0));
+        Assert.assertEquals(11, tokens.getStart(3));
+        tokens.add(TokenKind.Identifier, 13, 14);
+        Assert.assertEquals(11, tokens.getStart(3));
+        Assert.assertEquals(13, tokens.getStart(5));
+    }
+
+    private static TokenBuffer lexRange(String text, int index) throws ScannerException {
+        TokenBuffer range = new TokenBuffer(text, 1);
+        range.addRange(new SimpleScanner(text).lexToBuffer(), index, index + 1);
+        return range;
+    }
+
+    private void assertBuffersMatch(TokenBuffer expected, TokenBuffer actual) {
+        Assert.assertEquals(expected.size(), actual.size());
+        for(int i = 0; i < expected.size(); i++) {
+            Assert.assertEquals(expected.getKind(i), actual.getKind(i));
+            Assert.assertEquals(expected.getStart(i), actual.getStart(i));
+            Assert.assertEquals(expected.getEnd(i), actual.getEnd(i));
+        }
+    }
+
     private void assertTokensMatch(Token[] expected, List<Token> actual) {
         Assert.assertArrayEquals(expected, actual.toArray(new Token[actual.size()]));
     }